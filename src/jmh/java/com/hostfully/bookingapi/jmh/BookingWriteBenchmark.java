@@ -0,0 +1,79 @@
+package com.hostfully.bookingapi.jmh;
+
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write paths of {@link BookingService}: a successful create on a free night, a create rejected
+ * by the overlap check, and a cancel followed by a rebook of a seeded booking.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingWriteBenchmark {
+
+    private BookingService bookingService;
+    private SeededApplication application;
+    private long[] bookingIds;
+    private int sequence;
+
+    @Setup
+    public void setUp(SeededApplication application) {
+        this.application = application;
+        this.bookingService = application.getBean(BookingService.class);
+        this.bookingIds = application.bookingIds();
+    }
+
+    @Benchmark
+    public BookingResponse create() {
+        int n = sequence++;
+        LocalDate start = application.seededEnd().plusDays(n / application.properties);
+        return bookingService.create(request(n % application.properties, start, start.plusDays(1)));
+    }
+
+    @Benchmark
+    public Object createConflicting() {
+        int n = sequence++;
+        LocalDate start = application.patternStart(n % application.bookingsPerProperty);
+        try {
+            return bookingService.create(request(n % application.properties, start, start.plusDays(1)));
+        } catch (OverlapException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public BookingResponse cancelRebook() {
+        long id = bookingIds[sequence++ % bookingIds.length];
+        bookingService.cancel(id, null);
+        return bookingService.rebook(id, null);
+    }
+
+    private static BookingRequest request(int property, LocalDate startDate, LocalDate endDate) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(SeededApplication.propertyId(property));
+        request.setGuestName("Bench Guest");
+        request.setGuestEmail("bench@example.com");
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.hostfully.bookingapi.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.controller.BookingController;
+import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.dto.PageResponse;
+import com.hostfully.bookingapi.exception.GlobalExceptionHandler;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-response mapping and JSON serialization of a listing page. {@code listPage} covers the
+ * keyset query plus mapping each entity to a {@link BookingResponse}; {@code serializePage} writes
+ * an already mapped page with the application's {@link ObjectMapper}. {@code streamBookings} writes
+ * one property's NDJSON stream, and {@code overlapError} builds and serializes a 409 body the way
+ * a rejected create does. Run with {@code -prof gc} to see bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private BookingService bookingService;
+    private BookingController bookingController;
+    private GlobalExceptionHandler exceptionHandler;
+    private ObjectMapper objectMapper;
+    private SeededApplication application;
+    private PageResponse<BookingResponse> page;
+    private int next;
+
+    @Setup
+    public void setUp(SeededApplication application) {
+        this.application = application;
+        this.bookingService = application.getBean(BookingService.class);
+        this.bookingController = application.getBean(BookingController.class);
+        this.exceptionHandler = application.getBean(GlobalExceptionHandler.class);
+        this.objectMapper = application.getBean(ObjectMapper.class);
+        this.page = bookingService.list(null, null, null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PageResponse<BookingResponse> listPage() {
+        String propertyId = SeededApplication.propertyId(next++ % application.properties);
+        return bookingService.list(propertyId, null, null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public void streamBookings() throws IOException {
+        String propertyId = SeededApplication.propertyId(next++ % application.properties);
+        bookingController.stream(propertyId, null, null, null).getBody().writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public byte[] overlapError() throws JsonProcessingException {
+        ResponseEntity<?> response = exceptionHandler.handleOverlap(new OverlapException("Booking overlaps with an existing booking"));
+        return response.getBody() instanceof byte[] body ? body : objectMapper.writeValueAsBytes(response.getBody());
+    }
+}
@@ -0,0 +1,105 @@
+package com.hostfully.bookingapi.jmh;
+
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.service.NightOccupancy;
+import com.hostfully.bookingapi.service.OccupancyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The overlap checks used by {@code BookingService} and {@code BlockService}: the in-memory
+ * occupancy index, the per-night occupancy table, and the range query used when both are off.
+ * The occupancy table is filled from the seeded rows before the trial.
+ * Every probe asks for a free night between seeded bookings and blocks, which is the path a
+ * successful write takes. Probes exclude an id the way an update does, so the booking and block
+ * variants exercise different exclusion predicates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OverlapCheckBenchmark {
+
+    private static final int PROBES = 4096;
+    private static final Long NO_ID = -1L;
+
+    private OccupancyIndex occupancyIndex;
+    private BookingRepository bookingRepository;
+    private NightOccupancy nightOccupancy;
+    private final String[] propertyIds = new String[PROBES];
+    private final LocalDate[] startDates = new LocalDate[PROBES];
+    private int next;
+
+    @Setup
+    public void setUp(SeededApplication application) {
+        occupancyIndex = application.getBean(OccupancyIndex.class);
+        bookingRepository = application.getBean(BookingRepository.class);
+        nightOccupancy = application.getBean(NightOccupancy.class);
+        nightOccupancy.rebuild();
+        Random random = new Random(42);
+        for (int i = 0; i < PROBES; i++) {
+            propertyIds[i] = SeededApplication.propertyId(random.nextInt(application.properties));
+            startDates[i] = application.patternStart(random.nextInt(application.bookingsPerProperty)).plusDays(3);
+        }
+    }
+
+    @Benchmark
+    public Optional<OccupancyType> bookingCheckIndex() {
+        int i = next();
+        return occupancyIndex.findOverlap(propertyIds[i], startDates[i], startDates[i].plusDays(1),
+                OccupancyType.BOOKING, NO_ID);
+    }
+
+    @Benchmark
+    public Optional<OccupancyType> blockCheckIndex() {
+        int i = next();
+        return occupancyIndex.findOverlap(propertyIds[i], startDates[i], startDates[i].plusDays(1),
+                OccupancyType.BLOCK, NO_ID);
+    }
+
+    @Benchmark
+    public OccupancyType bookingCheckDatabase() {
+        int i = next();
+        return bookingRepository.findOverlapType(propertyIds[i], startDates[i], startDates[i].plusDays(1), NO_ID, null);
+    }
+
+    @Benchmark
+    public OccupancyType blockCheckDatabase() {
+        int i = next();
+        return bookingRepository.findOverlapType(propertyIds[i], startDates[i], startDates[i].plusDays(1), null, NO_ID);
+    }
+
+    @Benchmark
+    public Optional<OccupancyType> bookingCheckNights() {
+        int i = next();
+        return nightOccupancy.findOverlap(propertyIds[i], startDates[i], startDates[i].plusDays(1),
+                OccupancyType.BOOKING, NO_ID);
+    }
+
+    @Benchmark
+    public Optional<OccupancyType> blockCheckNights() {
+        int i = next();
+        return nightOccupancy.findOverlap(propertyIds[i], startDates[i], startDates[i].plusDays(1),
+                OccupancyType.BLOCK, NO_ID);
+    }
+
+    private int next() {
+        return next++ & (PROBES - 1);
+    }
+}
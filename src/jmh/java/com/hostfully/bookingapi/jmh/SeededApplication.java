@@ -0,0 +1,102 @@
+package com.hostfully.bookingapi.jmh;
+
+import com.hostfully.bookingapi.BookingApiApplication;
+import com.hostfully.bookingapi.service.OccupancyIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application context backed by a seeded in-memory H2 database, shared by every benchmark in a
+ * trial. Each property gets {@code bookingsPerProperty} repetitions of a four-night pattern: two
+ * booked nights, one blocked night and one free night, starting at {@link #EPOCH}.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    public static final LocalDate EPOCH = LocalDate.of(2030, 1, 1);
+    public static final int PATTERN_NIGHTS = 4;
+
+    @Param({"100", "1000"})
+    public int properties;
+
+    @Param({"20", "100"})
+    public int bookingsPerProperty;
+
+    private ConfigurableApplicationContext context;
+    private long[] bookingIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BookingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh",
+                        "logging.level.root=WARN")
+                .run();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed(jdbcTemplate);
+        jdbcTemplate.execute("ANALYZE");
+        bookingIds = jdbcTemplate.queryForList("SELECT id FROM bookings ORDER BY id", Long.class).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        context.getBean(OccupancyIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long[] bookingIds() {
+        return bookingIds;
+    }
+
+    /** First night of the seeded pattern number {@code slot} for any property. */
+    public LocalDate patternStart(int slot) {
+        return EPOCH.plusDays((long) slot * PATTERN_NIGHTS);
+    }
+
+    /** First night after every seeded booking and block. */
+    public LocalDate seededEnd() {
+        return patternStart(bookingsPerProperty);
+    }
+
+    public static String propertyId(int index) {
+        return "prop-" + index;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> bookings = new ArrayList<>(properties * bookingsPerProperty);
+        List<Object[]> blocks = new ArrayList<>(properties * bookingsPerProperty);
+        for (int p = 0; p < properties; p++) {
+            for (int b = 0; b < bookingsPerProperty; b++) {
+                LocalDate start = patternStart(b);
+                bookings.add(new Object[]{propertyId(p), "Guest " + b, "guest" + b + "@example.com",
+                        Date.valueOf(start), Date.valueOf(start.plusDays(2))});
+                blocks.add(new Object[]{propertyId(p), "Maintenance",
+                        Date.valueOf(start.plusDays(2)), Date.valueOf(start.plusDays(3))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (property_id, guest_name, guest_email, start_date, end_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, 'ACTIVE')", bookings);
+        jdbcTemplate.batchUpdate("INSERT INTO blocks (property_id, reason, start_date, end_date) " +
+                "VALUES (?, ?, ?, ?)", blocks);
+    }
+}
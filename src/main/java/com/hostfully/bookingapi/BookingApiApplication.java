@@ -1,9 +1,23 @@
 package com.hostfully.bookingapi;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 
-@SpringBootApplication
+/**
+ * The servlet application. The {@code reactive} package holds a separate WebFlux application,
+ * {@link com.hostfully.bookingapi.reactive.ReactiveBookingApiApplication}, so it is left out of
+ * this one's component scan, and R2DBC is not configured here.
+ */
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@ComponentScan(excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.hostfully\\.bookingapi\\.reactive\\..*")})
 public class BookingApiApplication {
 
     public static void main(String[] args) {
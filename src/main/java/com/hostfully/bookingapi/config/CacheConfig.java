@@ -0,0 +1,59 @@
+package com.hostfully.bookingapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded Caffeine caches. Puts and evictions issued inside a transaction are applied after it
+ * commits. A read that loaded a booking before a write committed could still put the old row
+ * after that eviction, so the bookings cache drops values whose key was evicted while they were
+ * loaded (see {@link StampedCaffeineCache}). The caching advice runs outside the transactional
+ * one, so cache hits never open a transaction, and inside the service metrics aspect, so cache
+ * hits are still timed.
+ * <p>
+ * Evictions only follow writes committed through this node. With {@code booking.multi-node} set
+ * the bookings cache is therefore off, and otherwise a booking written behind the application's
+ * back is served for at most {@code booking.cache.expire-after-write}. Cached conflicts expire
+ * after {@code booking.overlap-cache.expire-after-write}, which bounds how long this node can keep
+ * rejecting nights that a write on another node has freed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE + 1)
+public class CacheConfig {
+
+    public static final String BOOKINGS = "bookings";
+    public static final String OVERLAPS = "overlaps";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${booking.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${booking.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                                     @Value("${booking.overlap-cache.expire-after-write:30s}") Duration overlapsExpireAfterWrite,
+                                     @Value("${booking.multi-node:false}") boolean multiNode) {
+        Cache bookings = multiNode ? new NoOpCache(BOOKINGS) : new StampedCaffeineCache(BOOKINGS, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build());
+        Cache overlaps = new CaffeineCache(OVERLAPS, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(overlapsExpireAfterWrite)
+                .recordStats()
+                .build());
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(bookings, overlaps));
+        cacheManager.initializeCaches();
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
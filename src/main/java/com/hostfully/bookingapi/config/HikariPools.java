@@ -0,0 +1,29 @@
+package com.hostfully.bookingapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+/**
+ * Builds extra connection pools that share the credentials of {@code spring.datasource.*} and the
+ * {@code spring.datasource.hikari.*} settings of the auto-configured pool.
+ */
+final class HikariPools {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    private HikariPools() {
+    }
+
+    static HikariDataSource create(DataSourceProperties properties, Environment environment, String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+}
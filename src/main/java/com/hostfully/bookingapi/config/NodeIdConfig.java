@@ -0,0 +1,32 @@
+package com.hostfully.bookingapi.config;
+
+import com.hostfully.bookingapi.entity.SnowflakeIdGenerator;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import java.util.List;
+
+/**
+ * Refuses to start a node that may share its databases with other nodes unless
+ * {@code booking.ids.node-id} was set for it. Generated ids embed the node id, so two nodes left on
+ * the default of 0 would hand out the same ids.
+ */
+@Configuration
+public class NodeIdConfig {
+
+    private static final List<String> SHARED_SETUPS = List.of(
+            "booking.sharding.extra-shard-urls", "booking.datasource.replica-urls");
+
+    public NodeIdConfig(Environment environment) {
+        if (environment.containsProperty(SnowflakeIdGenerator.NODE_ID_SETTING)) {
+            return;
+        }
+        for (String setting : SHARED_SETUPS) {
+            if (environment.containsProperty(setting)) {
+                throw new IllegalStateException(SnowflakeIdGenerator.NODE_ID_SETTING + " must be set when " + setting + " is");
+            }
+        }
+        if (environment.getProperty("booking.multi-node", Boolean.class, false)) {
+            throw new IllegalStateException(SnowflakeIdGenerator.NODE_ID_SETTING + " must be set when booking.multi-node is");
+        }
+    }
+}
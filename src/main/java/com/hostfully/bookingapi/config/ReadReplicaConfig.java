@@ -0,0 +1,61 @@
+package com.hostfully.bookingapi.config;
+
+import com.hostfully.bookingapi.datasource.ReadYourWritesFilter;
+import com.hostfully.bookingapi.datasource.ReplicaReadAspect;
+import com.hostfully.bookingapi.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured datasource with a primary pool and one read-only pool per URL in
+ * {@code booking.datasource.replica-urls}. Replicas share the primary's credentials and
+ * {@code spring.datasource.hikari.*} settings. Without that property the single auto-configured
+ * datasource is used.
+ */
+@Configuration
+@ConditionalOnProperty("booking.datasource.replica-urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    @DependsOn("nodeIdConfig")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                             @Value("${booking.datasource.replica-urls}") List<String> replicaUrls) {
+        HikariDataSource primary = HikariPools.create(properties, environment, properties.determineUrl(), "primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = HikariPools.create(properties, environment, replicaUrls.get(i).trim(), "replica-" + i);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaReadAspect replicaReadAspect() {
+        return new ReplicaReadAspect();
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${booking.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
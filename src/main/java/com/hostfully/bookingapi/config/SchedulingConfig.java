@@ -0,0 +1,10 @@
+package com.hostfully.bookingapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Enables background jobs such as the outbox relay; they run on Spring Boot's task scheduler. */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,67 @@
+package com.hostfully.bookingapi.config;
+
+import com.hostfully.bookingapi.sharding.ShardRebalancer;
+import com.hostfully.bookingapi.sharding.ShardRing;
+import com.hostfully.bookingapi.sharding.ShardRouter;
+import com.hostfully.bookingapi.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits bookings and blocks by property over several databases. The database of
+ * {@code spring.datasource.url} is the first shard and also holds the tables that are not
+ * sharded; each URL in {@code booking.sharding.extra-shard-urls} adds a shard. At startup every
+ * shard is migrated, and properties stored on a shard that no longer owns them are moved; nodes
+ * starting together take turns doing so.
+ */
+@Configuration
+@ConditionalOnProperty("booking.sharding.extra-shard-urls")
+public class ShardingConfig {
+
+    @Bean
+    @DependsOn("nodeIdConfig")
+    @Primary
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                             @Value("${booking.sharding.extra-shard-urls}") List<String> extraShardUrls) {
+        if (environment.containsProperty("booking.datasource.replica-urls")) {
+            throw new IllegalStateException("booking.sharding.extra-shard-urls cannot be combined with booking.datasource.replica-urls");
+        }
+        Map<String, HikariDataSource> shards = new LinkedHashMap<>();
+        shards.put(ShardRouter.DEFAULT_SHARD,
+                HikariPools.create(properties, environment, properties.determineUrl(), ShardRouter.DEFAULT_SHARD));
+        for (int i = 0; i < extraShardUrls.size(); i++) {
+            String name = "shard-" + (i + 1);
+            shards.put(name, HikariPools.create(properties, environment, extraShardUrls.get(i).trim(), name));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public ShardRing shardRing(ShardRoutingDataSource dataSource) {
+        return new ShardRing(dataSource.shardNames());
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedMigrationStrategy(ShardRoutingDataSource dataSource, ShardRing shardRing) {
+        return flyway -> {
+            dataSource.shards().values().forEach(shard -> Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(shard)
+                    .load()
+                    .migrate());
+            new ShardRebalancer(dataSource.shards(), shardRing).rebalance();
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.hostfully.bookingapi.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Caffeine cache that does not keep values loaded before an eviction of their key. A miss
+ * records the key's eviction stamp on the calling thread; the value the caller loads is put and
+ * then dropped again if an eviction of that key's stripe happened since. A reader that loaded a
+ * row just before a writer committed therefore cannot leave the old row cached after the
+ * writer's commit-time eviction. Puts not preceded by a miss on the same thread are kept.
+ */
+final class StampedCaffeineCache extends CaffeineCache {
+
+    private static final int STRIPES = 1024;
+
+    private record Miss(Object key, long stamp) {
+    }
+
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private final ThreadLocal<Miss> lastMiss = new ThreadLocal<>();
+
+    StampedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        super(name, cache);
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        // Read the stamp before looking up, so an eviction racing with this miss is seen at put.
+        long stamp = stamps.get(stripe(key));
+        ValueWrapper value = super.get(key);
+        if (value == null) {
+            lastMiss.set(new Miss(key, stamp));
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Miss miss = lastMiss.get();
+        lastMiss.remove();
+        super.put(key, value);
+        if (miss != null && miss.key().equals(key) && stamps.get(stripe(key)) != miss.stamp()) {
+            super.evict(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        stamps.incrementAndGet(stripe(key));
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        stamps.incrementAndGet(stripe(key));
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        return super.invalidate();
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+}
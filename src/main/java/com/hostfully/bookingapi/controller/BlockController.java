@@ -1,37 +1,112 @@
 package com.hostfully.bookingapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BatchResponse;
 import com.hostfully.bookingapi.dto.BlockRequest;
 import com.hostfully.bookingapi.dto.BlockResponse;
+import com.hostfully.bookingapi.dto.PageResponse;
+import com.hostfully.bookingapi.idempotency.IdempotencyService;
 import com.hostfully.bookingapi.service.BlockService;
+import com.hostfully.bookingapi.service.KeysetCursor;
+import com.hostfully.bookingapi.sharding.ShardRouter;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/blocks")
 public class BlockController {
 
+    private static final Comparator<BlockResponse> LIST_ORDER = Comparator.comparing(BlockResponse::propertyId)
+            .thenComparing(BlockResponse::startDate)
+            .thenComparing(BlockResponse::id);
+
     private final BlockService blockService;
+    private final IdempotencyService idempotencyService;
+    private final ShardRouter shardRouter;
+    private final ObjectMapper objectMapper;
 
-    public BlockController(BlockService blockService) {
+    public BlockController(BlockService blockService, IdempotencyService idempotencyService,
+                           ShardRouter shardRouter, ObjectMapper objectMapper) {
         this.blockService = blockService;
+        this.idempotencyService = idempotencyService;
+        this.shardRouter = shardRouter;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
-    public ResponseEntity<BlockResponse> create(@Valid @RequestBody BlockRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(blockService.create(request));
+    public ResponseEntity<BlockResponse> create(@Valid @RequestBody BlockRequest request,
+                                                @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createResponse(request);
+        }
+        return idempotencyService.execute("blocks", idempotencyKey, request, BlockResponse.class,
+                () -> createResponse(request));
+    }
+
+    private ResponseEntity<BlockResponse> createResponse(BlockRequest request) {
+        BlockResponse created = shardRouter.forProperty(request.getPropertyId(), () -> blockService.create(request));
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(created.version())).body(created);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse<BlockResponse>> createBatch(@RequestBody List<BlockRequest> requests) {
+        return ResponseEntity.ok(shardRouter.batch(requests, BlockRequest::getPropertyId, blockService::createBatch));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PageResponse<BlockResponse>> list(
+            @RequestParam(required = false) String propertyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<PageResponse<BlockResponse>> pages = shardRouter.shardsFor(propertyId).stream()
+                .map(shard -> shardRouter.onShard(shard, () -> blockService.list(propertyId, from, to, cursor, limit)))
+                .toList();
+        return ResponseEntity.ok(shardRouter.mergePages(pages, LIST_ORDER, limit,
+                block -> new KeysetCursor(block.propertyId(), block.startDate(), block.id()).encode()));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(
+            @RequestParam(required = false) String propertyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        StreamingResponseBody body = NdjsonBodies.<BlockResponse>of(objectMapper, sink -> shardRouter.shardsFor(propertyId)
+                .forEach(shard -> shardRouter.onShard(shard, () -> {
+                    blockService.stream(propertyId, from, to, sink);
+                    return null;
+                })));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<BlockResponse> update(@PathVariable Long id,
-                                                @Valid @RequestBody BlockRequest request) {
-        return ResponseEntity.ok(blockService.update(id, request));
+                                                @Valid @RequestBody BlockRequest request,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        BlockResponse updated = shardRouter.forBlock(id, () -> {
+            shardRouter.requireCurrentShard(request.getPropertyId());
+            return blockService.update(id, request, ETags.parseIfMatch(ifMatch));
+        });
+        return ResponseEntity.ok().eTag(ETags.of(updated.version())).body(updated);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        blockService.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        shardRouter.forBlock(id, () -> {
+            blockService.delete(id, ETags.parseIfMatch(ifMatch));
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
 }
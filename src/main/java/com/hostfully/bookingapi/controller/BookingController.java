@@ -1,52 +1,149 @@
 package com.hostfully.bookingapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BatchResponse;
 import com.hostfully.bookingapi.dto.BookingRequest;
 import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.dto.PageResponse;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.idempotency.IdempotencyService;
 import com.hostfully.bookingapi.service.BookingService;
+import com.hostfully.bookingapi.service.GroupCommitPipeline;
+import com.hostfully.bookingapi.service.KeysetCursor;
+import com.hostfully.bookingapi.sharding.ShardRouter;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
+    private static final Comparator<BookingResponse> LIST_ORDER = Comparator.comparing(BookingResponse::propertyId)
+            .thenComparing(BookingResponse::startDate)
+            .thenComparing(BookingResponse::id);
+
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
+    private final ShardRouter shardRouter;
+    private final GroupCommitPipeline groupCommitPipeline;
+    private final ObjectMapper objectMapper;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, IdempotencyService idempotencyService,
+                             ShardRouter shardRouter, GroupCommitPipeline groupCommitPipeline, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.idempotencyService = idempotencyService;
+        this.shardRouter = shardRouter;
+        this.groupCommitPipeline = groupCommitPipeline;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
-    public ResponseEntity<BookingResponse> create(@Valid @RequestBody BookingRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(bookingService.create(request));
+    public ResponseEntity<BookingResponse> create(@Valid @RequestBody BookingRequest request,
+                                                  @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createResponse(request);
+        }
+        return idempotencyService.execute("bookings", idempotencyKey, request, BookingResponse.class,
+                () -> createResponse(request));
+    }
+
+    private ResponseEntity<BookingResponse> createResponse(BookingRequest request) {
+        BookingResponse created = shardRouter.forProperty(request.getPropertyId(), () -> groupCommitPipeline.isEnabled()
+                ? groupCommitPipeline.create(request)
+                : bookingService.create(request));
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(created.version())).body(created);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse<BookingResponse>> createBatch(@RequestBody List<BookingRequest> requests) {
+        return ResponseEntity.ok(shardRouter.batch(requests, BookingRequest::getPropertyId, bookingService::createBatch));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PageResponse<BookingResponse>> list(
+            @RequestParam(required = false) String propertyId,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<PageResponse<BookingResponse>> pages = shardRouter.shardsFor(propertyId).stream()
+                .map(shard -> shardRouter.onShard(shard, () -> bookingService.list(propertyId, status, from, to, cursor, limit)))
+                .toList();
+        return ResponseEntity.ok(shardRouter.mergePages(pages, LIST_ORDER, limit,
+                booking -> new KeysetCursor(booking.propertyId(), booking.startDate(), booking.id()).encode()));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(
+            @RequestParam(required = false) String propertyId,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        StreamingResponseBody body = NdjsonBodies.<BookingResponse>of(objectMapper, sink -> shardRouter.shardsFor(propertyId)
+                .forEach(shard -> shardRouter.onShard(shard, () -> {
+                    bookingService.stream(propertyId, status, from, to, sink);
+                    return null;
+                })));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookingResponse> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(bookingService.getById(id));
+    public ResponseEntity<BookingResponse> getById(@PathVariable Long id, WebRequest webRequest) {
+        BookingResponse booking = shardRouter.forBooking(id, () -> bookingService.getById(id));
+        String etag = ETags.of(booking.version());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(booking);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<BookingResponse> update(@PathVariable Long id,
-                                                  @Valid @RequestBody BookingRequest request) {
-        return ResponseEntity.ok(bookingService.update(id, request));
+                                                  @Valid @RequestBody BookingRequest request,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(shardRouter.forBooking(id, () -> {
+            shardRouter.requireCurrentShard(request.getPropertyId());
+            return bookingService.update(id, request, ETags.parseIfMatch(ifMatch));
+        }));
     }
 
     @PatchMapping("/{id}/cancel")
-    public ResponseEntity<BookingResponse> cancel(@PathVariable Long id) {
-        return ResponseEntity.ok(bookingService.cancel(id));
+    public ResponseEntity<BookingResponse> cancel(@PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.parseIfMatch(ifMatch);
+        return withETag(shardRouter.forBooking(id, () -> groupCommitPipeline.isEnabled()
+                ? groupCommitPipeline.cancel(id, expectedVersion)
+                : bookingService.cancel(id, expectedVersion)));
     }
 
     @PatchMapping("/{id}/rebook")
-    public ResponseEntity<BookingResponse> rebook(@PathVariable Long id) {
-        return ResponseEntity.ok(bookingService.rebook(id));
+    public ResponseEntity<BookingResponse> rebook(@PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(shardRouter.forBooking(id, () -> bookingService.rebook(id, ETags.parseIfMatch(ifMatch))));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        bookingService.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        shardRouter.forBooking(id, () -> {
+            bookingService.delete(id, ETags.parseIfMatch(ifMatch));
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<BookingResponse> withETag(BookingResponse booking) {
+        return ResponseEntity.ok().eTag(ETags.of(booking.version())).body(booking);
+    }
 }
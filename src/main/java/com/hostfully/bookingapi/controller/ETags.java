@@ -0,0 +1,34 @@
+package com.hostfully.bookingapi.controller;
+
+/**
+ * Entity tags derived from row versions. A booking or block at version 3 has the strong tag
+ * {@code "3"}; weak tags are accepted in If-Match since the version identifies the content.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** Parses an If-Match header into the expected version, or null when absent or {@code *}. */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be a single entity tag");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be a single entity tag");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.hostfully.bookingapi.controller;
+
+import com.hostfully.bookingapi.dto.EventResponse;
+import com.hostfully.bookingapi.dto.PageResponse;
+import com.hostfully.bookingapi.outbox.EventOutbox;
+import com.hostfully.bookingapi.sharding.ShardRouter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    private final EventOutbox eventOutbox;
+    private final ShardRouter shardRouter;
+
+    public EventController(EventOutbox eventOutbox, ShardRouter shardRouter) {
+        this.eventOutbox = eventOutbox;
+        this.shardRouter = shardRouter;
+    }
+
+    @GetMapping
+    public ResponseEntity<PageResponse<EventResponse>> feed(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (!shardRouter.isSharded()) {
+            return ResponseEntity.ok(eventOutbox.feed(after, limit));
+        }
+        // Positions are assigned from one sequence across shards, so merging by position keeps the feed ordered.
+        List<EventResponse> events = shardRouter.shards().stream()
+                .flatMap(shard -> shardRouter.onShard(shard, () -> eventOutbox.feed(after, limit)).getItems().stream())
+                .sorted(Comparator.comparing(EventResponse::getPosition))
+                .limit(limit)
+                .toList();
+        String nextCursor = events.isEmpty() ? null : String.valueOf(events.get(events.size() - 1).getPosition());
+        return ResponseEntity.ok(new PageResponse<>(events, nextCursor));
+    }
+}
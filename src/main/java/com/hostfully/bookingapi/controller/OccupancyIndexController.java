@@ -0,0 +1,22 @@
+package com.hostfully.bookingapi.controller;
+
+import com.hostfully.bookingapi.dto.IndexConsistencyResponse;
+import com.hostfully.bookingapi.service.OccupancyIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/occupancy-index")
+public class OccupancyIndexController {
+
+    private final OccupancyIndex occupancyIndex;
+
+    public OccupancyIndexController(OccupancyIndex occupancyIndex) {
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    @GetMapping("/consistency")
+    public ResponseEntity<IndexConsistencyResponse> verify() {
+        return ResponseEntity.ok(occupancyIndex.verify());
+    }
+}
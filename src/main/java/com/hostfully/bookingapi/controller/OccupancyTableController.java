@@ -0,0 +1,22 @@
+package com.hostfully.bookingapi.controller;
+
+import com.hostfully.bookingapi.service.NightOccupancy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/occupancy-table")
+public class OccupancyTableController {
+
+    private final NightOccupancy nightOccupancy;
+
+    public OccupancyTableController(NightOccupancy nightOccupancy) {
+        this.nightOccupancy = nightOccupancy;
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        nightOccupancy.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.hostfully.bookingapi.controller;
+
+import com.hostfully.bookingapi.dto.AvailabilityResponse;
+import com.hostfully.bookingapi.dto.PropertySearchResponse;
+import com.hostfully.bookingapi.service.AvailabilityService;
+import com.hostfully.bookingapi.service.CalendarFeed;
+import com.hostfully.bookingapi.sharding.ShardRouter;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/properties")
+public class PropertyController {
+
+    private static final int DEFAULT_AVAILABILITY_DAYS = 365;
+    private static final MediaType CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final AvailabilityService availabilityService;
+    private final CalendarFeed calendarFeed;
+    private final ShardRouter shardRouter;
+
+    public PropertyController(AvailabilityService availabilityService, CalendarFeed calendarFeed, ShardRouter shardRouter) {
+        this.availabilityService = availabilityService;
+        this.calendarFeed = calendarFeed;
+        this.shardRouter = shardRouter;
+    }
+
+    @GetMapping("/{propertyId}/availability")
+    public ResponseEntity<AvailabilityResponse> getAvailability(
+            @PathVariable String propertyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest webRequest) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_AVAILABILITY_DAYS);
+
+        Optional<String> etag = availabilityService.getETag(propertyId, start, end);
+        if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        etag.ifPresent(response::eTag);
+        return response.body(shardRouter.forProperty(propertyId, () -> availabilityService.getAvailability(propertyId, start, end)));
+    }
+
+    /**
+     * Serves the property's iCalendar feed. Clients that accept gzip get the cached compressed
+     * bytes as they are; others get them decompressed while the response is written.
+     */
+    @GetMapping("/{propertyId}/calendar.ics")
+    public ResponseEntity<Resource> getCalendar(
+            @PathVariable String propertyId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        CalendarFeed.Rendered feed = shardRouter.forProperty(propertyId, () -> calendarFeed.get(propertyId));
+        if (webRequest.checkNotModified(feed.etag(), feed.lastModified().toEpochMilli())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(CALENDAR)
+                .eTag(feed.etag())
+                .lastModified(feed.lastModified())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(new ByteArrayResource(feed.gzip()));
+        }
+        return response.body(new InputStreamResource(feed.uncompressed()));
+    }
+
+    @GetMapping("/available")
+    public ResponseEntity<PropertySearchResponse> findAvailable(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "propertyId", required = false) List<String> propertyIds,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (!shardRouter.isSharded()) {
+            return ResponseEntity.ok(availabilityService.findAvailableProperties(from, to, propertyIds, after, limit));
+        }
+        List<PropertySearchResponse> pages;
+        if (propertyIds != null && !propertyIds.isEmpty()) {
+            Map<String, List<String>> idsByShard = propertyIds.stream()
+                    .distinct()
+                    .collect(Collectors.groupingBy(shardRouter::shardFor, LinkedHashMap::new, Collectors.toList()));
+            pages = idsByShard.entrySet().stream()
+                    .map(shard -> shardRouter.onShard(shard.getKey(),
+                            () -> availabilityService.findAvailableProperties(from, to, shard.getValue(), after, limit)))
+                    .toList();
+        } else {
+            pages = shardRouter.shards().stream()
+                    .map(shard -> shardRouter.onShard(shard,
+                            () -> availabilityService.findAvailableProperties(from, to, null, after, limit)))
+                    .toList();
+        }
+        return ResponseEntity.ok(merge(pages, from, to, limit));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0{0,3})?");
+            if ((name.equalsIgnoreCase("gzip") || name.equals("*")) && !refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Each shard returned its first {@code limit} free properties after the cursor, in id order. */
+    private static PropertySearchResponse merge(List<PropertySearchResponse> pages, LocalDate from, LocalDate to, int limit) {
+        List<String> found = pages.stream()
+                .flatMap(page -> page.getPropertyIds().stream())
+                .distinct()
+                .sorted()
+                .limit(limit)
+                .toList();
+        PropertySearchResponse response = new PropertySearchResponse();
+        response.setFrom(from);
+        response.setTo(to);
+        response.setPropertyIds(found);
+        response.setNextCursor(found.size() == limit ? found.get(found.size() - 1) : null);
+        return response;
+    }
+}
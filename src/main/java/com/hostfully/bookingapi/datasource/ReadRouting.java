@@ -0,0 +1,39 @@
+package com.hostfully.bookingapi.datasource;
+
+/**
+ * Per-thread hints consulted by {@link ReplicaRoutingDataSource}. A read-only service method marks
+ * its thread eligible for a replica, and a request from a client that has just written pins its
+ * thread to the primary.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_ELIGIBLE = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isReplicaEligible() {
+        return Boolean.TRUE.equals(REPLICA_ELIGIBLE.get());
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+
+    static void setReplicaEligible(boolean eligible) {
+        set(REPLICA_ELIGIBLE, eligible);
+    }
+
+    static void setPinnedToPrimary(boolean pinned) {
+        set(PRIMARY_PINNED, pinned);
+    }
+
+    private static void set(ThreadLocal<Boolean> flag, boolean value) {
+        if (value) {
+            flag.set(Boolean.TRUE);
+        } else {
+            flag.remove();
+        }
+    }
+}
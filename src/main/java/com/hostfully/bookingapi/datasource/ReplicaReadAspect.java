@@ -0,0 +1,39 @@
+package com.hostfully.bookingapi.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Marks the calling thread eligible for a replica while an application method annotated with
+ * {@code @Transactional(readOnly = true)} runs. Read-only transactions that Spring Data opens
+ * around individual repository calls are not marked, so internal reads such as index rebuilds
+ * and idempotency lookups keep seeing the primary.
+ * <p>
+ * Methods that are also {@code @Cacheable} read from the primary: a cached result outlives the
+ * replica's lag, so a stale row read from a replica would be served until the entry expires.
+ */
+@Aspect
+public class ReplicaReadAspect {
+
+    @Around("execution(* com.hostfully.bookingapi..*(..)) && @annotation(transactional)")
+    public Object routeReadOnly(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly()) {
+            return joinPoint.proceed();
+        }
+        boolean eligible = !((MethodSignature) joinPoint.getSignature()).getMethod().isAnnotationPresent(Cacheable.class);
+        boolean previous = ReadRouting.isReplicaEligible();
+        if (eligible == previous) {
+            return joinPoint.proceed();
+        }
+        ReadRouting.setReplicaEligible(eligible);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadRouting.setReplicaEligible(previous);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.hostfully.bookingapi.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AvailabilityResponse {
+
+    private String propertyId;
+    private LocalDate from;
+    private LocalDate to;
+    private int freeNights;
+    private List<AvailabilitySegment> segments;
+
+    public String getPropertyId() { return propertyId; }
+    public void setPropertyId(String propertyId) { this.propertyId = propertyId; }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public int getFreeNights() { return freeNights; }
+    public void setFreeNights(int freeNights) { this.freeNights = freeNights; }
+
+    public List<AvailabilitySegment> getSegments() { return segments; }
+    public void setSegments(List<AvailabilitySegment> segments) { this.segments = segments; }
+}
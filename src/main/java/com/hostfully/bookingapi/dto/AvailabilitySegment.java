@@ -0,0 +1,28 @@
+package com.hostfully.bookingapi.dto;
+
+import com.hostfully.bookingapi.enums.NightStatus;
+import java.time.LocalDate;
+
+public class AvailabilitySegment {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private NightStatus status;
+
+    public AvailabilitySegment() {}
+
+    public AvailabilitySegment(LocalDate startDate, LocalDate endDate, NightStatus status) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.status = status;
+    }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public NightStatus getStatus() { return status; }
+    public void setStatus(NightStatus status) { this.status = status; }
+}
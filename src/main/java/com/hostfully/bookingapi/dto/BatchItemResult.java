@@ -0,0 +1,39 @@
+package com.hostfully.bookingapi.dto;
+
+import com.hostfully.bookingapi.enums.BatchItemStatus;
+
+public class BatchItemResult<T> {
+
+    private int index;
+    private BatchItemStatus status;
+    private T result;
+    private String error;
+
+    public static <T> BatchItemResult<T> created(int index, T result) {
+        BatchItemResult<T> item = new BatchItemResult<>();
+        item.setIndex(index);
+        item.setStatus(BatchItemStatus.CREATED);
+        item.setResult(result);
+        return item;
+    }
+
+    public static <T> BatchItemResult<T> rejected(int index, String error) {
+        BatchItemResult<T> item = new BatchItemResult<>();
+        item.setIndex(index);
+        item.setStatus(BatchItemStatus.REJECTED);
+        item.setError(error);
+        return item;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public BatchItemStatus getStatus() { return status; }
+    public void setStatus(BatchItemStatus status) { this.status = status; }
+
+    public T getResult() { return result; }
+    public void setResult(T result) { this.result = result; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,29 @@
+package com.hostfully.bookingapi.dto;
+
+import com.hostfully.bookingapi.enums.BatchItemStatus;
+import java.util.List;
+
+public class BatchResponse<T> {
+
+    private int created;
+    private int rejected;
+    private List<BatchItemResult<T>> items;
+
+    public static <T> BatchResponse<T> of(List<BatchItemResult<T>> items) {
+        BatchResponse<T> response = new BatchResponse<>();
+        int created = (int) items.stream().filter(item -> item.getStatus() == BatchItemStatus.CREATED).count();
+        response.setCreated(created);
+        response.setRejected(items.size() - created);
+        response.setItems(items);
+        return response;
+    }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public List<BatchItemResult<T>> getItems() { return items; }
+    public void setItems(List<BatchItemResult<T>> items) { this.items = items; }
+}
@@ -20,6 +20,9 @@ public class BlockRequest {
     @NotNull(message = "endDate is required")
     private LocalDate endDate;
 
+    /** Optional RRULE, such as {@code FREQ=WEEKLY;COUNT=52}, repeating the block from startDate. */
+    private String recurrence;
+
     public String getPropertyId() { return propertyId; }
     public void setPropertyId(String propertyId) { this.propertyId = propertyId; }
 
@@ -31,4 +34,7 @@ public class BlockRequest {
 
     public LocalDate getEndDate() { return endDate; }
     public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
 }
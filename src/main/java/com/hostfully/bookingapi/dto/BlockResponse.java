@@ -1,27 +1,14 @@
 package com.hostfully.bookingapi.dto;
 
+import com.hostfully.bookingapi.entity.Block;
 import java.time.LocalDate;
 
-public class BlockResponse {
+/** Immutable, so a cached instance can be shared by concurrent requests. */
+public record BlockResponse(Long id, String propertyId, String reason, LocalDate startDate, LocalDate endDate,
+                            String recurrence, LocalDate seriesEnd, Long version) {
 
-    private Long id;
-    private String propertyId;
-    private String reason;
-    private LocalDate startDate;
-    private LocalDate endDate;
-
-    public Long getId() { return id; }
-    public void setId(Long id) { this.id = id; }
-
-    public String getPropertyId() { return propertyId; }
-    public void setPropertyId(String propertyId) { this.propertyId = propertyId; }
-
-    public String getReason() { return reason; }
-    public void setReason(String reason) { this.reason = reason; }
-
-    public LocalDate getStartDate() { return startDate; }
-    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
-
-    public LocalDate getEndDate() { return endDate; }
-    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+    public static BlockResponse of(Block block) {
+        return new BlockResponse(block.getId(), block.getPropertyId(), block.getReason(), block.getStartDate(),
+                block.getEndDate(), block.getRecurrence(), block.getSeriesEnd(), block.getVersion());
+    }
 }
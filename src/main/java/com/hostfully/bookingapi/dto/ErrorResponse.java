@@ -0,0 +1,4 @@
+package com.hostfully.bookingapi.dto;
+
+public record ErrorResponse(String error) {
+}
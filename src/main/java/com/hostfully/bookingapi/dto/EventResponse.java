@@ -0,0 +1,43 @@
+package com.hostfully.bookingapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.hostfully.bookingapi.enums.EventType;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import java.time.Instant;
+
+public class EventResponse {
+
+    private Long position;
+    private Long eventId;
+    private EventType eventType;
+    private OccupancyType aggregateType;
+    private Long aggregateId;
+    private String propertyId;
+    private Instant occurredAt;
+    @JsonRawValue
+    private String payload;
+
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+
+    public Long getEventId() { return eventId; }
+    public void setEventId(Long eventId) { this.eventId = eventId; }
+
+    public EventType getEventType() { return eventType; }
+    public void setEventType(EventType eventType) { this.eventType = eventType; }
+
+    public OccupancyType getAggregateType() { return aggregateType; }
+    public void setAggregateType(OccupancyType aggregateType) { this.aggregateType = aggregateType; }
+
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+
+    public String getPropertyId() { return propertyId; }
+    public void setPropertyId(String propertyId) { this.propertyId = propertyId; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+}
@@ -0,0 +1,35 @@
+package com.hostfully.bookingapi.dto;
+
+import java.util.List;
+
+public class IndexConsistencyResponse {
+
+    private boolean consistent;
+    private int indexedBookings;
+    private int indexedBlocks;
+    private int storedBookings;
+    private int storedBlocks;
+    private List<String> missing;
+    private List<String> stale;
+
+    public boolean isConsistent() { return consistent; }
+    public void setConsistent(boolean consistent) { this.consistent = consistent; }
+
+    public int getIndexedBookings() { return indexedBookings; }
+    public void setIndexedBookings(int indexedBookings) { this.indexedBookings = indexedBookings; }
+
+    public int getIndexedBlocks() { return indexedBlocks; }
+    public void setIndexedBlocks(int indexedBlocks) { this.indexedBlocks = indexedBlocks; }
+
+    public int getStoredBookings() { return storedBookings; }
+    public void setStoredBookings(int storedBookings) { this.storedBookings = storedBookings; }
+
+    public int getStoredBlocks() { return storedBlocks; }
+    public void setStoredBlocks(int storedBlocks) { this.storedBlocks = storedBlocks; }
+
+    public List<String> getMissing() { return missing; }
+    public void setMissing(List<String> missing) { this.missing = missing; }
+
+    public List<String> getStale() { return stale; }
+    public void setStale(List<String> stale) { this.stale = stale; }
+}
@@ -0,0 +1,24 @@
+package com.hostfully.bookingapi.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class PropertySearchResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private List<String> propertyIds;
+    private String nextCursor;
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public List<String> getPropertyIds() { return propertyIds; }
+    public void setPropertyIds(List<String> propertyIds) { this.propertyIds = propertyIds; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
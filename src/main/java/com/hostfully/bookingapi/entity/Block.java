@@ -4,11 +4,15 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "blocks")
+@Table(name = "blocks", indexes = {
+        @Index(name = "idx_blocks_property_dates", columnList = "propertyId, startDate, endDate"),
+        @Index(name = "idx_blocks_property_start_id", columnList = "propertyId, startDate, id"),
+        @Index(name = "idx_blocks_property_series_end", columnList = "propertyId, seriesEnd")
+})
 public class Block {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(nullable = false)
@@ -23,6 +27,16 @@ public class Block {
     @Column(nullable = false)
     private LocalDate endDate;
 
+    /** RRULE repeating the first occurrence held in startDate and endDate; null for one-off blocks. */
+    private String recurrence;
+
+    /** End of the last occurrence of a recurring block; null for one-off blocks. */
+    private LocalDate seriesEnd;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Block() {}
 
     public Long getId() { return id; }
@@ -39,4 +53,13 @@ public class Block {
 
     public LocalDate getEndDate() { return endDate; }
     public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+
+    public LocalDate getSeriesEnd() { return seriesEnd; }
+    public void setSeriesEnd(LocalDate seriesEnd) { this.seriesEnd = seriesEnd; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -5,11 +5,14 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_property_status_dates", columnList = "propertyId, status, startDate, endDate"),
+        @Index(name = "idx_bookings_property_start_id", columnList = "propertyId, startDate, id")
+})
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(nullable = false)
@@ -31,6 +34,10 @@ public class Booking {
     @Column(nullable = false)
     private BookingStatus status = BookingStatus.ACTIVE;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Booking() {}
 
     public Long getId() { return id; }
@@ -53,4 +60,7 @@ public class Booking {
 
     public BookingStatus getStatus() { return status; }
     public void setStatus(BookingStatus status) { this.status = status; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,54 @@
+package com.hostfully.bookingapi.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "createdAt")
+})
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 300)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    private Integer statusCode;
+
+    @Column(length = 64)
+    private String etag;
+
+    @Column(length = 4000)
+    private String responseBody;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant renewedAt;
+
+    public IdempotencyRecord() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public Integer getStatusCode() { return statusCode; }
+    public void setStatusCode(Integer statusCode) { this.statusCode = statusCode; }
+
+    public String getEtag() { return etag; }
+    public void setEtag(String etag) { this.etag = etag; }
+
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getRenewedAt() { return renewedAt; }
+    public void setRenewedAt(Instant renewedAt) { this.renewedAt = renewedAt; }
+}
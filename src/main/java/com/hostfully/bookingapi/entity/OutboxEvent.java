@@ -0,0 +1,72 @@
+package com.hostfully.bookingapi.entity;
+
+import com.hostfully.bookingapi.enums.EventType;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_position_id", columnList = "position, id"),
+        @Index(name = "idx_outbox_events_published_position", columnList = "publishedAt, position")
+})
+public class OutboxEvent {
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OccupancyType aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false)
+    private String propertyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EventType eventType;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    @Column(unique = true)
+    private Long position;
+
+    private Instant publishedAt;
+
+    public OutboxEvent() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public OccupancyType getAggregateType() { return aggregateType; }
+    public void setAggregateType(OccupancyType aggregateType) { this.aggregateType = aggregateType; }
+
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+
+    public String getPropertyId() { return propertyId; }
+    public void setPropertyId(String propertyId) { this.propertyId = propertyId; }
+
+    public EventType getEventType() { return eventType; }
+    public void setEventType(EventType eventType) { this.eventType = eventType; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+
+    public Instant getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(Instant publishedAt) { this.publishedAt = publishedAt; }
+}
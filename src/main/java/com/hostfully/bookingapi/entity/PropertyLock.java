@@ -0,0 +1,16 @@
+package com.hostfully.bookingapi.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "property_locks")
+public class PropertyLock {
+
+    @Id
+    private String propertyId;
+
+    public PropertyLock() {}
+
+    public String getPropertyId() { return propertyId; }
+    public void setPropertyId(String propertyId) { this.propertyId = propertyId; }
+}
@@ -0,0 +1,17 @@
+package com.hostfully.bookingapi.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the id in memory with {@link SnowflakeIdGenerator}, so ids are unique across every
+ * node and shard without a shared database sequence.
+ */
+@IdGeneratorType(SnowflakeIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
@@ -0,0 +1,73 @@
+package com.hostfully.bookingapi.entity;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import java.lang.reflect.Member;
+import java.time.Instant;
+import java.util.EnumSet;
+
+/**
+ * Snowflake-style ids that fit in 53 bits, so JavaScript clients can hold them as numbers
+ * without losing precision. From the top: 41 bits of milliseconds since 2024-01-01 UTC, good for
+ * 69 years; 5 bits of node id; 7 bits of per-millisecond sequence. A node hands out up to 128
+ * ids per millisecond. Past that, and when the wall clock steps back, it borrows from the next
+ * millisecond, so ids from one node always increase.
+ */
+public class SnowflakeIdGenerator implements BeforeExecutionGenerator {
+
+    /** Hibernate setting holding this node's id, from 0 to 31. */
+    public static final String NODE_ID_SETTING = "booking.ids.node-id";
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 5;
+    static final int SEQUENCE_BITS = 7;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeBits;
+    private long lastTick = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        this(nodeId(context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(NODE_ID_SETTING)));
+    }
+
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException(NODE_ID_SETTING + " must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    public synchronized long next() {
+        long tick = System.currentTimeMillis() - EPOCH_MILLIS;
+        if (tick > lastTick) {
+            lastTick = tick;
+            sequence = 0;
+        } else if (++sequence > SEQUENCE_MASK) {
+            lastTick++;
+            sequence = 0;
+        }
+        return (lastTick << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+
+    private static long nodeId(Object setting) {
+        return setting == null ? 0 : Long.parseLong(setting.toString().trim());
+    }
+}
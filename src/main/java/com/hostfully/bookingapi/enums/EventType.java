@@ -0,0 +1,9 @@
+package com.hostfully.bookingapi.enums;
+
+public enum EventType {
+    CREATED,
+    UPDATED,
+    CANCELED,
+    REBOOKED,
+    DELETED
+}
@@ -0,0 +1,7 @@
+package com.hostfully.bookingapi.enums;
+
+public enum NightStatus {
+    FREE,
+    BOOKED,
+    BLOCKED
+}
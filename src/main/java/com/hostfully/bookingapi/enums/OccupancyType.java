@@ -0,0 +1,6 @@
+package com.hostfully.bookingapi.enums;
+
+public enum OccupancyType {
+    BOOKING,
+    BLOCK
+}
@@ -1,44 +1,115 @@
 package com.hostfully.bookingapi.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Maps service exceptions to error responses and counts each outcome as {@code booking.api.errors},
+ * tagged by outcome and status.
+ *
+ * <p>Overlap, idempotency and concurrent-modification errors have constant messages and are
+ * frequent under contention, so their bodies are serialized once and the bytes are reused.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final Counter notFound;
+    private final Counter overlap;
+    private final Counter idempotencyConflict;
+    private final Counter preconditionFailed;
+    private final Counter concurrentModification;
+    private final Counter invalid;
+    private final Counter validation;
+    private final ObjectMapper objectMapper;
+    private final Map<String, byte[]> constantBodies = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.notFound = errorCounter(meterRegistry, "not_found", HttpStatus.NOT_FOUND);
+        this.overlap = errorCounter(meterRegistry, "overlap", HttpStatus.CONFLICT);
+        this.idempotencyConflict = errorCounter(meterRegistry, "idempotency_conflict", HttpStatus.CONFLICT);
+        this.preconditionFailed = errorCounter(meterRegistry, "precondition_failed", HttpStatus.PRECONDITION_FAILED);
+        this.concurrentModification = errorCounter(meterRegistry, "concurrent_modification", HttpStatus.CONFLICT);
+        this.invalid = errorCounter(meterRegistry, "invalid", HttpStatus.BAD_REQUEST);
+        this.validation = errorCounter(meterRegistry, "validation", HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Map<String, String>> handleNotFound(ResourceNotFoundException ex) {
-        Map<String, String> body = new HashMap<>();
-        body.put("error", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    public ResponseEntity<ErrorResponse> handleNotFound(ResourceNotFoundException ex) {
+        notFound.increment();
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(ex.getMessage()));
     }
 
     @ExceptionHandler(OverlapException.class)
-    public ResponseEntity<Map<String, String>> handleOverlap(OverlapException ex) {
-        Map<String, String> body = new HashMap<>();
-        body.put("error", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    public ResponseEntity<byte[]> handleOverlap(OverlapException ex) {
+        overlap.increment();
+        return constantError(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<byte[]> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        idempotencyConflict.increment();
+        return constantError(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex) {
+        preconditionFailed.increment();
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(new ErrorResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<byte[]> handleConcurrentModification(OptimisticLockingFailureException ex) {
+        concurrentModification.increment();
+        return constantError(HttpStatus.CONFLICT, "Resource was modified concurrently; reload and retry");
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException ex) {
-        Map<String, String> body = new HashMap<>();
-        body.put("error", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    public ResponseEntity<ErrorResponse> handleBadRequest(IllegalArgumentException ex) {
+        invalid.increment();
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(ex.getMessage()));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
-        Map<String, Object> body = new HashMap<>();
+        validation.increment();
         Map<String, String> fieldErrors = new HashMap<>();
         ex.getBindingResult().getFieldErrors().forEach(error ->
                 fieldErrors.put(error.getField(), error.getDefaultMessage()));
-        body.put("errors", fieldErrors);
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("errors", fieldErrors));
+    }
+
+    private ResponseEntity<byte[]> constantError(HttpStatus status, String message) {
+        byte[] body = constantBodies.computeIfAbsent(message, this::serialize);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private byte[] serialize(String message) {
+        try {
+            return objectMapper.writeValueAsBytes(new ErrorResponse(message));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Counter errorCounter(MeterRegistry meterRegistry, String outcome, HttpStatus status) {
+        return Counter.builder("booking.api.errors")
+                .tag("outcome", outcome)
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry);
     }
 }
@@ -1,8 +1,12 @@
 package com.hostfully.bookingapi.exception;
 
+/**
+ * A conflict with an existing booking or block. It is an expected outcome rather than a fault, so
+ * no stack trace is captured.
+ */
 public class OverlapException extends RuntimeException {
 
     public OverlapException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
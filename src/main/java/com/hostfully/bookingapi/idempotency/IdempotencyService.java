@@ -0,0 +1,258 @@
+package com.hostfully.bookingapi.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hostfully.bookingapi.entity.IdempotencyRecord;
+import com.hostfully.bookingapi.exception.IdempotencyConflictException;
+import com.hostfully.bookingapi.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a create at most once per Idempotency-Key and replays its response to retries.
+ *
+ * <p>A bounded, expiring in-memory map holds one future per key, so duplicates arriving on this
+ * node while the original is in flight wait for it instead of executing again. Keys are also
+ * reserved in the idempotency_keys table, which lets a retry that lands on another node, or after
+ * a restart, replay the stored response. A key still in flight on another node is answered with
+ * 409. Only successful responses are stored; a request whose action fails releases its key so
+ * it can be retried.
+ *
+ * <p>Once the action has committed the key is never released. While this node holds a reservation
+ * it renews a lease on the row, and other nodes reclaim the key only after the lease has gone
+ * unrenewed for {@code booking.idempotency.in-flight-timeout}, which means this node stopped. A
+ * response that could not be stored is kept in memory and stored again on the next renewal. A
+ * response that could not even be serialized is stored as a bodyless 500, which retries replay.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inFlightTimeout;
+    private final Cache<String, CompletableFuture<StoredResponse>> inMemory;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Set<String> leases = ConcurrentHashMap.newKeySet();
+    private final Map<String, StoredResponse> unstored = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${booking.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${booking.idempotency.in-flight-timeout:30s}") Duration inFlightTimeout,
+                              @Value("${booking.idempotency.maximum-size:10000}") long maximumSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.inFlightTimeout = inFlightTimeout;
+        this.inMemory = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.executed = Counter.builder("booking.idempotency.requests").tag("outcome", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("booking.idempotency.requests").tag("outcome", "replayed").register(meterRegistry);
+    }
+
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String requestHash = hash(request);
+
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> inFlight = inMemory.asMap().putIfAbsent(id, pending);
+        if (inFlight != null) {
+            return replay(await(inFlight), requestHash, responseType);
+        }
+
+        Optional<StoredResponse> stored;
+        try {
+            stored = reserve(id, requestHash);
+        } catch (RuntimeException e) {
+            inMemory.asMap().remove(id, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        if (stored.isPresent()) {
+            pending.complete(stored.get());
+            return replay(stored.get(), requestHash, responseType);
+        }
+
+        leases.add(id);
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // The action rolled back, so the key is released for the retry.
+            inMemory.asMap().remove(id, pending);
+            pending.completeExceptionally(e);
+            leases.remove(id);
+            idempotencyRecordRepository.deleteById(id);
+            throw e;
+        }
+
+        // From here on the action has committed: the reservation must outlive any failure below,
+        // or a retry would execute it again.
+        StoredResponse completed;
+        try {
+            completed = new StoredResponse(requestHash, response.getStatusCode().value(),
+                    response.getHeaders().getETag(), toJson(response.getBody()));
+        } catch (RuntimeException e) {
+            // The response is lost, so the key settles on a bodyless 500 that retries replay.
+            inMemory.asMap().remove(id, pending);
+            pending.completeExceptionally(e);
+            store(id, new StoredResponse(requestHash, HttpStatus.INTERNAL_SERVER_ERROR.value(), null, ""));
+            throw e;
+        }
+        pending.complete(completed);
+        executed.increment();
+        store(id, completed);
+        return response;
+    }
+
+    /**
+     * Renews the leases of keys this node is executing, and retries storing responses whose first
+     * write failed. Runs well within {@code booking.idempotency.in-flight-timeout} so that other
+     * nodes only reclaim a key once this node has stopped.
+     */
+    @Scheduled(fixedDelayString = "${booking.idempotency.renew-interval-ms:10000}")
+    public void renewLeases() {
+        unstored.forEach(this::store);
+        if (!leases.isEmpty()) {
+            idempotencyRecordRepository.renew(List.copyOf(leases), Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(ttl));
+    }
+
+    /**
+     * Claims the key in the database, returning the stored response when another node or an
+     * earlier run already completed it. Expired keys and reservations whose lease has lapsed are
+     * reclaimed.
+     */
+    private Optional<StoredResponse> reserve(String id, String requestHash) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                if (idempotencyRecordRepository.reserve(id, requestHash, Instant.now()) == 1) {
+                    return Optional.empty();
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Another node claimed the key between the existence check and the insert.
+            }
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+            if (existing.isEmpty()) {
+                continue;
+            }
+            IdempotencyRecord record = existing.get();
+            Instant now = Instant.now();
+            if (idempotencyRecordRepository.deleteIfReclaimable(id, now.minus(ttl), now.minus(inFlightTimeout)) == 1) {
+                continue;
+            }
+            if (record.getStatusCode() == null) {
+                throw new IdempotencyConflictException("A request with this " + HEADER + " is still in progress");
+            }
+            return Optional.of(new StoredResponse(record.getRequestHash(), record.getStatusCode(),
+                    record.getEtag(), record.getResponseBody()));
+        }
+        throw new IdempotencyConflictException("A request with this " + HEADER + " is still in progress");
+    }
+
+    /** Stores the completed response, keeping the lease and retrying on the next renewal if that fails. */
+    private void store(String id, StoredResponse completed) {
+        try {
+            idempotencyRecordRepository.complete(id, completed.statusCode(), completed.etag(), completed.body());
+            unstored.remove(id);
+            leases.remove(id);
+        } catch (RuntimeException e) {
+            unstored.put(id, completed);
+            log.warn("Could not store the response for idempotency key {}, retrying on next renewal", id, e);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+        replayed.increment();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.statusCode())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.etag() != null) {
+            response.header(HttpHeaders.ETAG, stored.etag());
+        }
+        if (stored.body().isEmpty()) {
+            return response.build();
+        }
+        try {
+            return response.body(objectMapper.readValue(stored.body(), responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response", e);
+        }
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store response", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int statusCode, String etag, String body) {
+    }
+}
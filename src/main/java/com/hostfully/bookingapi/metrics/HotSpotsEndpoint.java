@@ -0,0 +1,33 @@
+package com.hostfully.bookingapi.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Exposes the most write-contended properties at {@code /actuator/hotspots}. */
+@Component
+@Endpoint(id = "hotspots")
+public class HotSpotsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final PropertyHotSpots propertyHotSpots;
+
+    public HotSpotsEndpoint(PropertyHotSpots propertyHotSpots) {
+        this.propertyHotSpots = propertyHotSpots;
+    }
+
+    @ReadOperation
+    public List<PropertyHotSpots.HotSpot> top(@Nullable Integer limit) {
+        return propertyHotSpots.top(limit == null ? DEFAULT_LIMIT : Math.max(limit, 1));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        propertyHotSpots.reset();
+    }
+}
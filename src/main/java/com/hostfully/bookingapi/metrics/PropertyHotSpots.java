@@ -0,0 +1,101 @@
+package com.hostfully.bookingapi.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the properties that spend the most time waiting on their write lock, in bounded memory.
+ * Uses the Space-Saving algorithm: at most {@code capacity} properties are tracked, and a newcomer
+ * replaces the least contended one, inheriting its weight as an error bound. Any property whose
+ * true wait exceeds total wait / capacity is guaranteed to be tracked. Property ids are never
+ * used as metric tags, so this is exposed through the {@code hotspots} actuator endpoint instead.
+ */
+@Component
+public class PropertyHotSpots {
+
+    private final int capacity;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PropertyHotSpots(@Value("${booking.metrics.hot-spots.capacity:64}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("booking.metrics.hot-spots.capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /** Records one write lock acquisition for the property. */
+    public void record(String propertyId, long waitNanos, boolean contended) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(propertyId);
+            if (entry == null) {
+                entry = new Entry();
+                if (entries.size() >= capacity) {
+                    Map.Entry<String, Entry> min = entries.entrySet().stream()
+                            .min(Comparator.comparingLong(e -> e.getValue().waitNanos))
+                            .orElseThrow();
+                    entries.remove(min.getKey());
+                    entry.waitNanos = min.getValue().waitNanos;
+                    entry.errorNanos = min.getValue().waitNanos;
+                }
+                entries.put(propertyId, entry);
+            }
+            entry.waitNanos += waitNanos;
+            entry.writes++;
+            if (contended) {
+                entry.contendedWrites++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The most contended properties, highest lock wait first. */
+    public List<HotSpot> top(int limit) {
+        lock.lock();
+        try {
+            return entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().waitNanos).reversed())
+                    .limit(limit)
+                    .map(e -> new HotSpot(e.getKey(),
+                            TimeUnit.NANOSECONDS.toMillis(e.getValue().waitNanos),
+                            TimeUnit.NANOSECONDS.toMillis(e.getValue().errorNanos),
+                            e.getValue().writes,
+                            e.getValue().contendedWrites))
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void reset() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lock wait attributed to a property. {@code lockWaitMillis} may overstate the true value by
+     * up to {@code errorMillis}; write counts cover only the time since the property was tracked.
+     */
+    public record HotSpot(String propertyId, long lockWaitMillis, long errorMillis, long writes, long contendedWrites) {
+    }
+
+    private static final class Entry {
+        private long waitNanos;
+        private long errorNanos;
+        private long writes;
+        private long contendedWrites;
+    }
+}
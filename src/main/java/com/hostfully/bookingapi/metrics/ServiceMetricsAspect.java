@@ -0,0 +1,79 @@
+package com.hostfully.bookingapi.metrics;
+
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.exception.PreconditionFailedException;
+import com.hostfully.bookingapi.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public operation of the booking and block services as {@code booking.service},
+ * tagged by service, operation and outcome. It runs outside the caching and transactional advice,
+ * so timings include cache hits and the commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    public static final String TIMER = "booking.service";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.hostfully.bookingapi.service.BookingService.*(..))")
+    public Object timeBookingService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("booking", joinPoint);
+    }
+
+    @Around("execution(public * com.hostfully.bookingapi.service.BlockService.*(..))")
+    public Object timeBlockService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("block", joinPoint);
+    }
+
+    private Object time(String service, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .tag("service", service)
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String outcome(Throwable ex) {
+        if (ex instanceof OverlapException) {
+            return "overlap";
+        }
+        if (ex instanceof PreconditionFailedException) {
+            return "precondition_failed";
+        }
+        if (ex instanceof OptimisticLockingFailureException) {
+            return "concurrent_modification";
+        }
+        if (ex instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,25 @@
+package com.hostfully.bookingapi.outbox;
+
+import com.hostfully.bookingapi.dto.EventResponse;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/** Publishes each event to in-process {@code @EventListener}s for {@link EventResponse}. */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ApplicationEventSink implements EventSink {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ApplicationEventSink(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Override
+    public void publish(List<EventResponse> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+    }
+}
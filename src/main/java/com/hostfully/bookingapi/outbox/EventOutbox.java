@@ -0,0 +1,90 @@
+package com.hostfully.bookingapi.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.EventResponse;
+import com.hostfully.bookingapi.dto.PageResponse;
+import com.hostfully.bookingapi.entity.OutboxEvent;
+import com.hostfully.bookingapi.enums.EventType;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records booking and block changes in the outbox table as part of the writing transaction, so an
+ * event exists exactly when its change committed. Publishing happens later in {@link OutboxRelay};
+ * the write path only pays for one more batched insert.
+ */
+@Service
+public class EventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxListLimit;
+
+    public EventOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                       @Value("${booking.list.max-limit:500}") int maxListLimit) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.maxListLimit = maxListLimit;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OccupancyType aggregateType, Long aggregateId, String propertyId,
+                       EventType eventType, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setPropertyId(propertyId);
+        event.setEventType(eventType);
+        event.setPayload(toJson(payload));
+        event.setOccurredAt(Instant.now());
+        outboxEventRepository.save(event);
+    }
+
+    /**
+     * Returns published-order events after the given position. Pass the returned cursor back as
+     * {@code after} to resume; it is null when the page is empty.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<EventResponse> feed(long after, int limit) {
+        if (limit < 1 || limit > maxListLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxListLimit);
+        }
+        if (after < 0) {
+            throw new IllegalArgumentException("after must not be negative");
+        }
+        List<EventResponse> events = outboxEventRepository.findFeed(after, PageRequest.of(0, limit)).stream()
+                .map(EventOutbox::toResponse)
+                .toList();
+        String nextCursor = events.isEmpty() ? null : String.valueOf(events.get(events.size() - 1).getPosition());
+        return new PageResponse<>(events, nextCursor);
+    }
+
+    static EventResponse toResponse(OutboxEvent event) {
+        EventResponse response = new EventResponse();
+        response.setPosition(event.getPosition());
+        response.setEventId(event.getId());
+        response.setEventType(event.getEventType());
+        response.setAggregateType(event.getAggregateType());
+        response.setAggregateId(event.getAggregateId());
+        response.setPropertyId(event.getPropertyId());
+        response.setOccurredAt(event.getOccurredAt());
+        response.setPayload(event.getPayload());
+        return response;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event payload", e);
+        }
+    }
+}
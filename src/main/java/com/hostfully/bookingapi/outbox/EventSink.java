@@ -0,0 +1,14 @@
+package com.hostfully.bookingapi.outbox;
+
+import com.hostfully.bookingapi.dto.EventResponse;
+import java.util.List;
+
+/**
+ * Destination for relayed events. Batches arrive in position order. Delivery is at least once: a
+ * batch is retried, to every sink, until all sinks accept it, so sinks should ignore event ids
+ * they have already seen.
+ */
+public interface EventSink {
+
+    void publish(List<EventResponse> events);
+}
@@ -0,0 +1,40 @@
+package com.hostfully.bookingapi.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.EventResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/** Appends each event as one JSON line to {@code booking.outbox.file.path}. */
+@Component
+@ConditionalOnProperty("booking.outbox.file.path")
+public class FileEventSink implements EventSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileEventSink(@Value("${booking.outbox.file.path}") Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<EventResponse> events) {
+        try (Writer writer = Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (EventResponse event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append events to " + path, e);
+        }
+    }
+}
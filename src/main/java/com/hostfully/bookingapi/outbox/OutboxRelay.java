@@ -0,0 +1,145 @@
+package com.hostfully.bookingapi.outbox;
+
+import com.hostfully.bookingapi.dto.EventResponse;
+import com.hostfully.bookingapi.entity.OutboxEvent;
+import com.hostfully.bookingapi.repository.OutboxEventRepository;
+import com.hostfully.bookingapi.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves committed outbox events to the feed and the sinks in batches, off the request path. Each
+ * pass first assigns feed positions to newly committed events, then delivers positioned but
+ * unpublished events to every {@link EventSink} and marks them published. A failing sink leaves
+ * the batch unpublished, and the next pass retries it.
+ *
+ * <p>When sharded, each shard's outbox is drained in turn, and positions continue from the
+ * highest position on any shard so that the merged feed has a single order.
+ *
+ * <p>Every node runs a relay, so a pass holds the {@code outbox-relay} row of
+ * {@code maintenance_locks} on the first shard until it finishes. Passes on other nodes wait for
+ * it, and then find the events already positioned and published.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String LOCK_NAME = "outbox-relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<EventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final ReentrantLock running = new ReentrantLock();
+    private long lastPosition;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<EventSink> sinks,
+                       TransactionTemplate transactionTemplate, ShardRouter shardRouter, DataSource dataSource,
+                       @Value("${booking.outbox.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("booking.outbox.batch-size must be positive");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:500}")
+    public void poll() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay pass failed, retrying on next poll", e);
+        }
+    }
+
+    /** Runs relay passes until the outbox is drained, returning the number of events published. */
+    public int relay() {
+        running.lock();
+        // A plain connection rather than a Spring transaction, opened outside any shard so that it
+        // reaches the first shard: the passes' own transactions must commit while it holds the lock.
+        try (Connection lock = dataSource.getConnection()) {
+            lock.setAutoCommit(false);
+            try (PreparedStatement statement = lock.prepareStatement(
+                    "SELECT name FROM maintenance_locks WHERE name = ? FOR UPDATE")) {
+                statement.setString(1, LOCK_NAME);
+                statement.executeQuery().close();
+                return drainAll();
+            } finally {
+                lock.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not take the outbox relay lock", e);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private int drainAll() {
+        lastPosition = shardRouter.shards().stream()
+                .mapToLong(shard -> shardRouter.onShard(shard, outboxEventRepository::findMaxPosition))
+                .max()
+                .orElse(0);
+        int published = 0;
+        for (String shard : shardRouter.shards()) {
+            published += shardRouter.onShard(shard, this::drain);
+        }
+        return published;
+    }
+
+    private int drain() {
+        int published = 0;
+        boolean more = true;
+        while (more) {
+            int sequenced = sequence();
+            int delivered = deliver();
+            published += delivered;
+            more = sequenced == batchSize || delivered == batchSize;
+        }
+        return published;
+    }
+
+    private int sequence() {
+        Integer sequenced = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.findUnsequenced(PageRequest.of(0, batchSize));
+            long next = Math.max(lastPosition, outboxEventRepository.findMaxPosition()) + 1;
+            for (OutboxEvent event : events) {
+                event.setPosition(next++);
+            }
+            lastPosition = next - 1;
+            return events.size();
+        });
+        return sequenced == null ? 0 : sequenced;
+    }
+
+    private int deliver() {
+        List<OutboxEvent> events = outboxEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<EventResponse> batch = events.stream().map(EventOutbox::toResponse).toList();
+        for (EventSink sink : sinks) {
+            sink.publish(batch);
+        }
+        List<Long> ids = events.stream().map(OutboxEvent::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markPublished(ids, Instant.now()));
+        return events.size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.hostfully.bookingapi.outbox;
+
+import com.hostfully.bookingapi.dto.EventResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import java.time.Duration;
+import java.util.List;
+
+/** POSTs each batch as a JSON array to {@code booking.outbox.webhook.url}; non-2xx responses are retried. */
+@Component
+@ConditionalOnProperty("booking.outbox.webhook.url")
+public class WebhookEventSink implements EventSink {
+
+    private final RestClient restClient;
+
+    public WebhookEventSink(RestClient.Builder restClientBuilder,
+                            @Value("${booking.outbox.webhook.url}") String url,
+                            @Value("${booking.outbox.webhook.timeout:5s}") Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = restClientBuilder.baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public void publish(List<EventResponse> events) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(events)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
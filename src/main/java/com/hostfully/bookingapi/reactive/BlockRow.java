@@ -0,0 +1,59 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.dto.BlockResponse;
+import com.hostfully.bookingapi.service.Recurrence;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+import java.time.LocalDate;
+
+/** A row of {@code blocks} as mapped by R2DBC. */
+@Table("blocks")
+public class BlockRow {
+
+    @Id
+    private Long id;
+    private String propertyId;
+    private String reason;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String recurrence;
+    private LocalDate seriesEnd;
+    @Version
+    private Long version;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPropertyId() { return propertyId; }
+    public void setPropertyId(String propertyId) { this.propertyId = propertyId; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+
+    public LocalDate getSeriesEnd() { return seriesEnd; }
+    public void setSeriesEnd(LocalDate seriesEnd) { this.seriesEnd = seriesEnd; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    /** Returns whether the block, or any occurrence of it when it recurs, overlaps [from, to). */
+    boolean overlaps(LocalDate from, LocalDate to) {
+        return recurrence == null
+                ? startDate.isBefore(to) && endDate.isAfter(from)
+                : Recurrence.parse(recurrence).overlaps(startDate, endDate, from, to);
+    }
+
+    BlockResponse toResponse() {
+        return new BlockResponse(id, propertyId, reason, startDate, endDate, recurrence, seriesEnd, version);
+    }
+}
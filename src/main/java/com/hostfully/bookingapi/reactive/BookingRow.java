@@ -0,0 +1,52 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+import java.time.LocalDate;
+
+/** A row of {@code bookings} as mapped by R2DBC. */
+@Table("bookings")
+public class BookingRow {
+
+    @Id
+    private Long id;
+    private String propertyId;
+    private String guestName;
+    private String guestEmail;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BookingStatus status = BookingStatus.ACTIVE;
+    @Version
+    private Long version;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPropertyId() { return propertyId; }
+    public void setPropertyId(String propertyId) { this.propertyId = propertyId; }
+
+    public String getGuestName() { return guestName; }
+    public void setGuestName(String guestName) { this.guestName = guestName; }
+
+    public String getGuestEmail() { return guestEmail; }
+    public void setGuestEmail(String guestEmail) { this.guestEmail = guestEmail; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public BookingStatus getStatus() { return status; }
+    public void setStatus(BookingStatus status) { this.status = status; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    BookingResponse toResponse() {
+        return new BookingResponse(id, propertyId, guestName, guestEmail, startDate, endDate, status, version);
+    }
+}
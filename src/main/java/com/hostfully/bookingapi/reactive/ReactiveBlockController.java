@@ -0,0 +1,43 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.controller.ETags;
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BlockResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/blocks")
+public class ReactiveBlockController {
+
+    private final ReactiveBlockService blockService;
+
+    public ReactiveBlockController(ReactiveBlockService blockService) {
+        this.blockService = blockService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<BlockResponse>> create(@Valid @RequestBody BlockRequest request) {
+        return blockService.create(request)
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(created.version())).body(created));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<BlockResponse>> update(@PathVariable Long id,
+                                                      @Valid @RequestBody BlockRequest request,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return blockService.update(id, request, ETags.parseIfMatch(ifMatch))
+                .map(updated -> ResponseEntity.ok().eTag(ETags.of(updated.version())).body(updated));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return blockService.delete(id, ETags.parseIfMatch(ifMatch))
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+}
@@ -0,0 +1,21 @@
+package com.hostfully.bookingapi.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import java.time.LocalDate;
+
+/** The R2DBC counterpart of {@link com.hostfully.bookingapi.repository.BlockRepository}. */
+public interface ReactiveBlockRepository extends R2dbcRepository<BlockRow, Long> {
+
+    /**
+     * The blocks whose first occurrence overlaps [startDate, endDate) and the recurring blocks
+     * whose series spans part of it; callers keep those for which {@link BlockRow#overlaps} holds.
+     */
+    @Query("SELECT * FROM blocks WHERE property_id = :propertyId " +
+           "AND start_date < :endDate AND (end_date > :startDate OR series_end > :startDate)")
+    Flux<BlockRow> findOverlapping(@Param("propertyId") String propertyId,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,142 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BlockResponse;
+import com.hostfully.bookingapi.entity.SnowflakeIdGenerator;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.enums.EventType;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.exception.ResourceNotFoundException;
+import com.hostfully.bookingapi.service.OccupancyRules;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import java.time.LocalDate;
+
+/**
+ * Block writes with the rules of {@link com.hostfully.bookingapi.service.BlockService}, for
+ * one-off blocks only: creating or updating a recurring block is rejected rather than done
+ * without its checks. One-off blocks are still checked against every occurrence of recurring
+ * ones, and recurring blocks can be deleted. Each write maintains the block's occupancy rows and
+ * records its outbox event in its transaction.
+ */
+@Service
+public class ReactiveBlockService {
+
+    private final ReactiveBlockRepository blockRepository;
+    private final ReactiveBookingRepository bookingRepository;
+    private final ReactivePropertyLocks propertyLocks;
+    private final ReactiveNightOccupancy nightOccupancy;
+    private final ReactiveEventOutbox eventOutbox;
+    private final SnowflakeIdGenerator ids;
+
+    public ReactiveBlockService(ReactiveBlockRepository blockRepository, ReactiveBookingRepository bookingRepository,
+                                ReactivePropertyLocks propertyLocks, ReactiveNightOccupancy nightOccupancy,
+                                ReactiveEventOutbox eventOutbox, SnowflakeIdGenerator ids) {
+        this.blockRepository = blockRepository;
+        this.bookingRepository = bookingRepository;
+        this.propertyLocks = propertyLocks;
+        this.nightOccupancy = nightOccupancy;
+        this.eventOutbox = eventOutbox;
+        this.ids = ids;
+    }
+
+    @Transactional
+    public Mono<BlockResponse> create(BlockRequest request) {
+        return Mono.fromRunnable(() -> validate(request))
+                .then(propertyLocks.lock(request.getPropertyId()))
+                .then(checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), null))
+                .then(Mono.defer(() -> blockRepository.save(newBlock(request))))
+                .flatMap(saved -> occupyNights(saved).then(publish(EventType.CREATED, saved)));
+    }
+
+    @Transactional
+    public Mono<BlockResponse> update(Long id, BlockRequest request, Long expectedVersion) {
+        return Mono.fromRunnable(() -> validate(request))
+                .then(findBlockOrError(id))
+                .flatMap(block -> propertyLocks.lock(block.getPropertyId(), request.getPropertyId())
+                        .then(Mono.fromRunnable(() -> {
+                            checkVersion(block, expectedVersion);
+                            if (block.getRecurrence() != null) {
+                                throw new IllegalArgumentException("Recurring blocks are not supported by the reactive API");
+                            }
+                        }))
+                        .then(checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), id))
+                        .then(Mono.defer(() -> {
+                            block.setPropertyId(request.getPropertyId());
+                            block.setReason(request.getReason());
+                            block.setStartDate(request.getStartDate());
+                            block.setEndDate(request.getEndDate());
+                            return blockRepository.save(block);
+                        }))
+                        .flatMap(saved -> nightOccupancy.release(OccupancyType.BLOCK, id)
+                                .then(occupyNights(saved))
+                                .then(publish(EventType.UPDATED, saved))));
+    }
+
+    @Transactional
+    public Mono<Void> delete(Long id, Long expectedVersion) {
+        return findBlockOrError(id)
+                .flatMap(block -> {
+                    checkVersion(block, expectedVersion);
+                    return blockRepository.delete(block)
+                            .then(nightOccupancy.release(OccupancyType.BLOCK, id))
+                            .then(publish(EventType.DELETED, block));
+                })
+                .then();
+    }
+
+    private Mono<Void> checkForOverlaps(String propertyId, LocalDate startDate, LocalDate endDate, Long excludeBlockId) {
+        Mono<Boolean> bookingOverlaps = bookingRepository.existsOverlapping(propertyId, startDate, endDate,
+                BookingStatus.ACTIVE, ReactiveBookingRepository.NO_ID);
+        Mono<Boolean> blockOverlaps = blockRepository.findOverlapping(propertyId, startDate, endDate)
+                .filter(block -> !block.getId().equals(excludeBlockId) && block.overlaps(startDate, endDate))
+                .hasElements();
+        return overlapError(bookingOverlaps, OccupancyType.BOOKING)
+                .then(overlapError(blockOverlaps, OccupancyType.BLOCK));
+    }
+
+    private Mono<Void> overlapError(Mono<Boolean> overlaps, OccupancyType holder) {
+        return overlaps.flatMap(overlapping -> overlapping
+                ? Mono.error(new OverlapException(OccupancyRules.blockOverlapMessage(holder)))
+                : Mono.empty());
+    }
+
+    private Mono<Void> occupyNights(BlockRow block) {
+        return nightOccupancy.occupy(OccupancyType.BLOCK, block.getId(), block.getPropertyId(),
+                block.getStartDate(), block.getEndDate(), OccupancyRules::blockOverlapMessage);
+    }
+
+    private Mono<BlockResponse> publish(EventType eventType, BlockRow block) {
+        BlockResponse response = block.toResponse();
+        return eventOutbox.record(OccupancyType.BLOCK, block.getId(), block.getPropertyId(), eventType, response)
+                .thenReturn(response);
+    }
+
+    private BlockRow newBlock(BlockRequest request) {
+        BlockRow block = new BlockRow();
+        block.setId(ids.next());
+        block.setPropertyId(request.getPropertyId());
+        block.setReason(request.getReason());
+        block.setStartDate(request.getStartDate());
+        block.setEndDate(request.getEndDate());
+        return block;
+    }
+
+    private void checkVersion(BlockRow block, Long expectedVersion) {
+        OccupancyRules.checkVersion(OccupancyType.BLOCK, block.getId(), block.getVersion(), expectedVersion);
+    }
+
+    private Mono<BlockRow> findBlockOrError(Long id) {
+        return blockRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Block not found with id: " + id)));
+    }
+
+    private static void validate(BlockRequest request) {
+        OccupancyRules.validateDates(request.getStartDate(), request.getEndDate());
+        if (request.getRecurrence() != null) {
+            throw new IllegalArgumentException("Recurring blocks are not supported by the reactive API");
+        }
+    }
+}
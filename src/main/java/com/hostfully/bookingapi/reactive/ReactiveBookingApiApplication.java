@@ -0,0 +1,33 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.entity.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * The {@code /api/bookings} and {@code /api/blocks} contract on WebFlux and R2DBC, as a separate
+ * application. It scans only this package and runs with the {@code reactive} profile; Flyway
+ * still migrates the schema over JDBC before the first request.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+public class ReactiveBookingApiApplication {
+
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveBookingApiApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE)
+                .run(args);
+    }
+
+    @Bean
+    SnowflakeIdGenerator snowflakeIdGenerator(@Value("${booking.ids.node-id:0}") long nodeId) {
+        return new SnowflakeIdGenerator(nodeId);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.controller.ETags;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.BookingResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/bookings")
+public class ReactiveBookingController {
+
+    private final ReactiveBookingService bookingService;
+
+    public ReactiveBookingController(ReactiveBookingService bookingService) {
+        this.bookingService = bookingService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<BookingResponse>> create(@Valid @RequestBody BookingRequest request) {
+        return bookingService.create(request)
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(created.version())).body(created));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BookingResponse>> getById(@PathVariable Long id, ServerWebExchange exchange) {
+        return bookingService.getById(id).map(booking -> {
+            String etag = ETags.of(booking.version());
+            if (exchange.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(booking);
+        });
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<BookingResponse>> update(@PathVariable Long id,
+                                                        @Valid @RequestBody BookingRequest request,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return bookingService.update(id, request, ETags.parseIfMatch(ifMatch)).map(this::withETag);
+    }
+
+    @PatchMapping("/{id}/cancel")
+    public Mono<ResponseEntity<BookingResponse>> cancel(@PathVariable Long id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return bookingService.cancel(id, ETags.parseIfMatch(ifMatch)).map(this::withETag);
+    }
+
+    @PatchMapping("/{id}/rebook")
+    public Mono<ResponseEntity<BookingResponse>> rebook(@PathVariable Long id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return bookingService.rebook(id, ETags.parseIfMatch(ifMatch)).map(this::withETag);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return bookingService.delete(id, ETags.parseIfMatch(ifMatch))
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    private ResponseEntity<BookingResponse> withETag(BookingResponse booking) {
+        return ResponseEntity.ok().eTag(ETags.of(booking.version())).body(booking);
+    }
+}
@@ -0,0 +1,23 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.enums.BookingStatus;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Mono;
+import java.time.LocalDate;
+
+/** The R2DBC counterpart of {@link com.hostfully.bookingapi.repository.BookingRepository}. */
+public interface ReactiveBookingRepository extends R2dbcRepository<BookingRow, Long> {
+
+    /** Never a generated id: passed as {@code excludeId} when no booking is to be excluded. */
+    long NO_ID = 0;
+
+    @Query("SELECT EXISTS (SELECT 1 FROM bookings WHERE property_id = :propertyId AND status = :status " +
+           "AND start_date < :endDate AND end_date > :startDate AND id <> :excludeId)")
+    Mono<Boolean> existsOverlapping(@Param("propertyId") String propertyId,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate,
+                                    @Param("status") BookingStatus status,
+                                    @Param("excludeId") long excludeId);
+}
@@ -0,0 +1,175 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.entity.SnowflakeIdGenerator;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.enums.EventType;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.exception.ResourceNotFoundException;
+import com.hostfully.bookingapi.service.OccupancyRules;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import java.time.LocalDate;
+
+/**
+ * Booking writes with the rules of {@link com.hostfully.bookingapi.service.BookingService}: the
+ * same date and version checks, the property lock, and an overlap check against active bookings
+ * and then blocks inside the transaction that inserts the row. The same transaction maintains the
+ * booking's occupancy rows and records its outbox event.
+ */
+@Service
+public class ReactiveBookingService {
+
+    private final ReactiveBookingRepository bookingRepository;
+    private final ReactiveBlockRepository blockRepository;
+    private final ReactivePropertyLocks propertyLocks;
+    private final ReactiveNightOccupancy nightOccupancy;
+    private final ReactiveEventOutbox eventOutbox;
+    private final SnowflakeIdGenerator ids;
+
+    public ReactiveBookingService(ReactiveBookingRepository bookingRepository, ReactiveBlockRepository blockRepository,
+                                  ReactivePropertyLocks propertyLocks, ReactiveNightOccupancy nightOccupancy,
+                                  ReactiveEventOutbox eventOutbox, SnowflakeIdGenerator ids) {
+        this.bookingRepository = bookingRepository;
+        this.blockRepository = blockRepository;
+        this.propertyLocks = propertyLocks;
+        this.nightOccupancy = nightOccupancy;
+        this.eventOutbox = eventOutbox;
+        this.ids = ids;
+    }
+
+    @Transactional
+    public Mono<BookingResponse> create(BookingRequest request) {
+        return Mono.fromRunnable(() -> OccupancyRules.validateDates(request.getStartDate(), request.getEndDate()))
+                .then(propertyLocks.lock(request.getPropertyId()))
+                .then(checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), null))
+                .then(Mono.defer(() -> bookingRepository.save(newBooking(request))))
+                .flatMap(saved -> occupyNights(saved).then(publish(EventType.CREATED, saved)));
+    }
+
+    @Transactional(readOnly = true)
+    public Mono<BookingResponse> getById(Long id) {
+        return findBookingOrError(id).map(BookingRow::toResponse);
+    }
+
+    @Transactional
+    public Mono<BookingResponse> update(Long id, BookingRequest request, Long expectedVersion) {
+        return Mono.fromRunnable(() -> OccupancyRules.validateDates(request.getStartDate(), request.getEndDate()))
+                .then(findBookingOrError(id))
+                .flatMap(booking -> propertyLocks.lock(booking.getPropertyId(), request.getPropertyId())
+                        .then(Mono.fromRunnable(() -> {
+                            checkVersion(booking, expectedVersion);
+                            if (booking.getStatus() == BookingStatus.CANCELED) {
+                                throw new IllegalArgumentException("Cannot update a canceled booking");
+                            }
+                        }))
+                        .then(checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), id))
+                        .then(Mono.defer(() -> {
+                            booking.setPropertyId(request.getPropertyId());
+                            booking.setGuestName(request.getGuestName());
+                            booking.setGuestEmail(request.getGuestEmail());
+                            booking.setStartDate(request.getStartDate());
+                            booking.setEndDate(request.getEndDate());
+                            return bookingRepository.save(booking);
+                        }))
+                        .flatMap(saved -> nightOccupancy.release(OccupancyType.BOOKING, id)
+                                .then(occupyNights(saved))
+                                .then(publish(EventType.UPDATED, saved))));
+    }
+
+    @Transactional
+    public Mono<BookingResponse> cancel(Long id, Long expectedVersion) {
+        return findBookingOrError(id)
+                .flatMap(booking -> {
+                    checkVersion(booking, expectedVersion);
+                    if (booking.getStatus() == BookingStatus.CANCELED) {
+                        throw new IllegalArgumentException("Booking is already canceled");
+                    }
+                    booking.setStatus(BookingStatus.CANCELED);
+                    return bookingRepository.save(booking);
+                })
+                .flatMap(saved -> nightOccupancy.release(OccupancyType.BOOKING, id)
+                        .then(publish(EventType.CANCELED, saved)));
+    }
+
+    @Transactional
+    public Mono<BookingResponse> rebook(Long id, Long expectedVersion) {
+        return findBookingOrError(id)
+                .flatMap(booking -> propertyLocks.lock(booking.getPropertyId())
+                        .then(Mono.fromRunnable(() -> {
+                            checkVersion(booking, expectedVersion);
+                            if (booking.getStatus() != BookingStatus.CANCELED) {
+                                throw new IllegalArgumentException("Only canceled bookings can be rebooked");
+                            }
+                        }))
+                        .then(checkForOverlaps(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate(), id))
+                        .then(Mono.defer(() -> {
+                            booking.setStatus(BookingStatus.ACTIVE);
+                            return bookingRepository.save(booking);
+                        }))
+                        .flatMap(saved -> occupyNights(saved).then(publish(EventType.REBOOKED, saved))));
+    }
+
+    @Transactional
+    public Mono<Void> delete(Long id, Long expectedVersion) {
+        return findBookingOrError(id)
+                .flatMap(booking -> {
+                    checkVersion(booking, expectedVersion);
+                    return bookingRepository.delete(booking)
+                            .then(nightOccupancy.release(OccupancyType.BOOKING, id))
+                            .then(publish(EventType.DELETED, booking));
+                })
+                .then();
+    }
+
+    private Mono<Void> checkForOverlaps(String propertyId, LocalDate startDate, LocalDate endDate, Long excludeBookingId) {
+        Mono<Boolean> bookingOverlaps = bookingRepository.existsOverlapping(propertyId, startDate, endDate,
+                BookingStatus.ACTIVE, excludeBookingId == null ? ReactiveBookingRepository.NO_ID : excludeBookingId);
+        Mono<Boolean> blockOverlaps = blockRepository.findOverlapping(propertyId, startDate, endDate)
+                .filter(block -> block.overlaps(startDate, endDate))
+                .hasElements();
+        return overlapError(bookingOverlaps, OccupancyType.BOOKING)
+                .then(overlapError(blockOverlaps, OccupancyType.BLOCK));
+    }
+
+    private Mono<Void> overlapError(Mono<Boolean> overlaps, OccupancyType holder) {
+        return overlaps.flatMap(overlapping -> overlapping
+                ? Mono.error(new OverlapException(OccupancyRules.bookingOverlapMessage(holder)))
+                : Mono.empty());
+    }
+
+    private Mono<Void> occupyNights(BookingRow booking) {
+        return nightOccupancy.occupy(OccupancyType.BOOKING, booking.getId(), booking.getPropertyId(),
+                booking.getStartDate(), booking.getEndDate(), OccupancyRules::bookingOverlapMessage);
+    }
+
+    private Mono<BookingResponse> publish(EventType eventType, BookingRow booking) {
+        BookingResponse response = booking.toResponse();
+        return eventOutbox.record(OccupancyType.BOOKING, booking.getId(), booking.getPropertyId(), eventType, response)
+                .thenReturn(response);
+    }
+
+    private BookingRow newBooking(BookingRequest request) {
+        BookingRow booking = new BookingRow();
+        booking.setId(ids.next());
+        booking.setPropertyId(request.getPropertyId());
+        booking.setGuestName(request.getGuestName());
+        booking.setGuestEmail(request.getGuestEmail());
+        booking.setStartDate(request.getStartDate());
+        booking.setEndDate(request.getEndDate());
+        booking.setStatus(BookingStatus.ACTIVE);
+        return booking;
+    }
+
+    private void checkVersion(BookingRow booking, Long expectedVersion) {
+        OccupancyRules.checkVersion(OccupancyType.BOOKING, booking.getId(), booking.getVersion(), expectedVersion);
+    }
+
+    private Mono<BookingRow> findBookingOrError(Long id) {
+        return bookingRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Booking not found with id: " + id)));
+    }
+}
@@ -0,0 +1,57 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.entity.SnowflakeIdGenerator;
+import com.hostfully.bookingapi.enums.EventType;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Records reactive booking and block changes in {@code outbox_events} in the writing transaction,
+ * with the same payloads as {@link com.hostfully.bookingapi.outbox.EventOutbox}. This application
+ * has no relay: the servlet application's relay positions and publishes the events.
+ */
+@Component
+public class ReactiveEventOutbox {
+
+    private static final String INSERT =
+            "INSERT INTO outbox_events (id, aggregate_type, aggregate_id, property_id, event_type, payload, occurred_at) " +
+            "VALUES (:id, :aggregateType, :aggregateId, :propertyId, :eventType, :payload, :occurredAt)";
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+    private final SnowflakeIdGenerator ids;
+
+    public ReactiveEventOutbox(DatabaseClient databaseClient, ObjectMapper objectMapper, SnowflakeIdGenerator ids) {
+        this.databaseClient = databaseClient;
+        this.objectMapper = objectMapper;
+        this.ids = ids;
+    }
+
+    public Mono<Void> record(OccupancyType aggregateType, Long aggregateId, String propertyId,
+                             EventType eventType, Object payload) {
+        return Mono.fromCallable(() -> toJson(payload))
+                .flatMap(json -> databaseClient.sql(INSERT)
+                        .bind("id", ids.next())
+                        .bind("aggregateType", aggregateType.name())
+                        .bind("aggregateId", aggregateId)
+                        .bind("propertyId", propertyId)
+                        .bind("eventType", eventType.name())
+                        .bind("payload", json)
+                        .bind("occurredAt", OffsetDateTime.now(ZoneOffset.UTC))
+                        .then());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event payload", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.hostfully.bookingapi.reactive;
+
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.exception.OverlapException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps the rows of the {@code occupancy} table in step with the reactive writes, as
+ * {@link com.hostfully.bookingapi.service.NightOccupancy} does for the servlet services, so that
+ * both can write to one database. Each range is claimed with one set-based insert in the caller's
+ * transaction. Checks still use the range queries; the table only adds its primary key. With
+ * {@code booking.occupancy-table.enabled} off nothing is written.
+ */
+@Component
+public class ReactiveNightOccupancy {
+
+    private static final String INSERT =
+            "INSERT INTO occupancy (property_id, night, occupancy_type, occupant_id) " +
+            "SELECT CAST(:propertyId AS VARCHAR(255)), DATEADD(DAY, X, CAST(:startDate AS DATE)), " +
+            "CAST(:type AS VARCHAR(255)), CAST(:id AS BIGINT) FROM SYSTEM_RANGE(0, CAST(:nights AS BIGINT) - 1)";
+    private static final String DELETE = "DELETE FROM occupancy WHERE occupancy_type = :type AND occupant_id = :id";
+    private static final String FIND_HOLDER =
+            "SELECT occupancy_type FROM occupancy WHERE property_id = :propertyId AND night >= :startDate " +
+            "AND night < :endDate AND NOT (occupancy_type = :type AND occupant_id = :id) FETCH FIRST 1 ROWS ONLY";
+
+    private final DatabaseClient databaseClient;
+    private final boolean enabled;
+
+    public ReactiveNightOccupancy(DatabaseClient databaseClient,
+                                  @Value("${booking.occupancy-table.enabled:false}") boolean enabled) {
+        this.databaseClient = databaseClient;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Claims the nights of [startDate, endDate). When another booking or block already holds one
+     * of them, fails with an {@link OverlapException} carrying the message the caller uses for a
+     * conflict of that type; the transaction must then roll back.
+     */
+    public Mono<Void> occupy(OccupancyType type, Long id, String propertyId, LocalDate startDate, LocalDate endDate,
+                             Function<OccupancyType, String> conflictMessage) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(INSERT)
+                .bind("propertyId", propertyId)
+                .bind("startDate", startDate)
+                .bind("type", type.name())
+                .bind("id", id)
+                .bind("nights", ChronoUnit.DAYS.between(startDate, endDate))
+                .then()
+                .onErrorResume(DataIntegrityViolationException.class, e -> databaseClient.sql(FIND_HOLDER)
+                        .bind("propertyId", propertyId)
+                        .bind("startDate", startDate)
+                        .bind("endDate", endDate)
+                        .bind("type", type.name())
+                        .bind("id", id)
+                        .map(row -> OccupancyType.valueOf(row.get("occupancy_type", String.class)))
+                        .first()
+                        .defaultIfEmpty(OccupancyType.BOOKING)
+                        .flatMap(holder -> Mono.error(new OverlapException(conflictMessage.apply(holder)))));
+    }
+
+    public Mono<Void> release(OccupancyType type, Long id) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(DELETE)
+                .bind("type", type.name())
+                .bind("id", id)
+                .then();
+    }
+}
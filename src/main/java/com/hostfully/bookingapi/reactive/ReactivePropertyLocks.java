@@ -0,0 +1,44 @@
+package com.hostfully.bookingapi.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Serializes writes per property with the same {@code property_locks} row lock as
+ * {@link com.hostfully.bookingapi.service.PropertyLockManager}, held until the current R2DBC
+ * transaction ends. There is no in-process lock in front of it: waiting happens in the database,
+ * without holding a thread.
+ */
+@Component
+public class ReactivePropertyLocks {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactivePropertyLocks(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /** Locks the given properties in a fixed order, so writers touching the same pair cannot deadlock. */
+    public Mono<Void> lock(String... propertyIds) {
+        return Flux.fromStream(Arrays.stream(propertyIds).filter(Objects::nonNull).distinct().sorted())
+                .concatMap(this::lockOne)
+                .then();
+    }
+
+    private Mono<Void> lockOne(String propertyId) {
+        return databaseClient.sql("MERGE INTO property_locks t USING (VALUES (:propertyId)) s(property_id) " +
+                        "ON t.property_id = s.property_id " +
+                        "WHEN NOT MATCHED THEN INSERT (property_id) VALUES (s.property_id)")
+                .bind("propertyId", propertyId)
+                .then()
+                .then(databaseClient.sql("SELECT property_id FROM property_locks WHERE property_id = :propertyId FOR UPDATE")
+                        .bind("propertyId", propertyId)
+                        .fetch()
+                        .all()
+                        .then());
+    }
+}
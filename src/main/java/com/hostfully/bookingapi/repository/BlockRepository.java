@@ -1,17 +1,50 @@
 package com.hostfully.bookingapi.repository;
 
 import com.hostfully.bookingapi.entity.Block;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BlockRepository extends JpaRepository<Block, Long> {
 
-    @Query("SELECT b FROM Block b WHERE b.propertyId = :propertyId " +
-           "AND b.startDate < :endDate AND b.endDate > :startDate")
-    List<Block> findOverlapping(@Param("propertyId") String propertyId,
-                                @Param("startDate") LocalDate startDate,
-                                @Param("endDate") LocalDate endDate);
+    String LIST_FILTER = "SELECT b FROM Block b WHERE (:propertyId IS NULL OR b.propertyId = :propertyId) " +
+                         "AND (:from IS NULL OR COALESCE(b.seriesEnd, b.endDate) > :from) AND (:to IS NULL OR b.startDate < :to) ";
+
+    String LIST_ORDER = "ORDER BY b.propertyId, b.startDate, b.id";
+
+    @Query("SELECT new com.hostfully.bookingapi.repository.StoredRange(b.id, b.startDate, b.endDate) " +
+           "FROM Block b WHERE b.propertyId = :propertyId AND b.startDate < :endDate AND b.endDate > :startDate")
+    List<StoredRange> findOverlappingRanges(@Param("propertyId") String propertyId,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT b FROM Block b WHERE b.propertyId = :propertyId AND b.recurrence IS NOT NULL " +
+           "AND b.seriesEnd > :after ORDER BY b.startDate")
+    List<Block> findRecurring(@Param("propertyId") String propertyId, @Param("after") LocalDate after);
+
+    @Query(LIST_FILTER +
+           "AND (:afterPropertyId IS NULL OR b.propertyId > :afterPropertyId " +
+           "OR (b.propertyId = :afterPropertyId AND (b.startDate > :afterStartDate " +
+           "OR (b.startDate = :afterStartDate AND b.id > :afterId)))) " +
+           LIST_ORDER)
+    List<Block> findPage(@Param("propertyId") String propertyId,
+                         @Param("from") LocalDate from,
+                         @Param("to") LocalDate to,
+                         @Param("afterPropertyId") String afterPropertyId,
+                         @Param("afterStartDate") LocalDate afterStartDate,
+                         @Param("afterId") Long afterId,
+                         Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(LIST_FILTER + LIST_ORDER)
+    Stream<Block> streamAll(@Param("propertyId") String propertyId,
+                            @Param("from") LocalDate from,
+                            @Param("to") LocalDate to);
 }
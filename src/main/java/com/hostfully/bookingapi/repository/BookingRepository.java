@@ -2,18 +2,89 @@ package com.hostfully.bookingapi.repository;
 
 import com.hostfully.bookingapi.entity.Booking;
 import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    @Query("SELECT b FROM Booking b WHERE b.propertyId = :propertyId AND b.status = :status " +
+    String LIST_FILTER = "SELECT b FROM Booking b WHERE (:propertyId IS NULL OR b.propertyId = :propertyId) " +
+                         "AND (:status IS NULL OR b.status = :status) " +
+                         "AND (:from IS NULL OR b.endDate > :from) AND (:to IS NULL OR b.startDate < :to) ";
+
+    String LIST_ORDER = "ORDER BY b.propertyId, b.startDate, b.id";
+
+    @Query("SELECT new com.hostfully.bookingapi.repository.StoredRange(b.id, b.startDate, b.endDate) " +
+           "FROM Booking b WHERE b.propertyId = :propertyId AND b.status = :status " +
            "AND b.startDate < :endDate AND b.endDate > :startDate")
-    List<Booking> findOverlapping(@Param("propertyId") String propertyId,
+    List<StoredRange> findOverlappingRanges(@Param("propertyId") String propertyId,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate,
+                                            @Param("status") BookingStatus status);
+
+    /**
+     * Checks active bookings and blocks in a single round trip, returning the kind of the first
+     * overlapping entry or null when the range is free.
+     */
+    @Query("SELECT CASE " +
+           "WHEN EXISTS (SELECT 1 FROM Booking b WHERE b.propertyId = :propertyId " +
+           "AND b.status = com.hostfully.bookingapi.enums.BookingStatus.ACTIVE " +
+           "AND b.startDate < :endDate AND b.endDate > :startDate " +
+           "AND (:excludeBookingId IS NULL OR b.id <> :excludeBookingId)) " +
+           "THEN com.hostfully.bookingapi.enums.OccupancyType.BOOKING " +
+           "WHEN EXISTS (SELECT 1 FROM Block k WHERE k.propertyId = :propertyId " +
+           "AND k.startDate < :endDate AND k.endDate > :startDate " +
+           "AND (:excludeBlockId IS NULL OR k.id <> :excludeBlockId)) " +
+           "THEN com.hostfully.bookingapi.enums.OccupancyType.BLOCK " +
+           "ELSE NULL END")
+    OccupancyType findOverlapType(@Param("propertyId") String propertyId,
                                   @Param("startDate") LocalDate startDate,
                                   @Param("endDate") LocalDate endDate,
-                                  @Param("status") BookingStatus status);
+                                  @Param("excludeBookingId") Long excludeBookingId,
+                                  @Param("excludeBlockId") Long excludeBlockId);
+
+    List<Booking> findByStatus(BookingStatus status);
+
+    @Query(value = "SELECT p.property_id FROM " +
+                   "(SELECT property_id FROM bookings UNION SELECT property_id FROM blocks) p " +
+                   "WHERE (:after IS NULL OR p.property_id > :after) " +
+                   "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.property_id = p.property_id " +
+                   "AND b.status = 'ACTIVE' AND b.start_date < :endDate AND b.end_date > :startDate) " +
+                   "AND NOT EXISTS (SELECT 1 FROM blocks k WHERE k.property_id = p.property_id " +
+                   "AND k.start_date < :endDate AND k.end_date > :startDate) " +
+                   "ORDER BY p.property_id LIMIT :limit",
+           nativeQuery = true)
+    List<String> findFreePropertyIds(@Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate,
+                                     @Param("after") String after,
+                                     @Param("limit") int limit);
+
+    @Query(LIST_FILTER +
+           "AND (:afterPropertyId IS NULL OR b.propertyId > :afterPropertyId " +
+           "OR (b.propertyId = :afterPropertyId AND (b.startDate > :afterStartDate " +
+           "OR (b.startDate = :afterStartDate AND b.id > :afterId)))) " +
+           LIST_ORDER)
+    List<Booking> findPage(@Param("propertyId") String propertyId,
+                           @Param("status") BookingStatus status,
+                           @Param("from") LocalDate from,
+                           @Param("to") LocalDate to,
+                           @Param("afterPropertyId") String afterPropertyId,
+                           @Param("afterStartDate") LocalDate afterStartDate,
+                           @Param("afterId") Long afterId,
+                           Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(LIST_FILTER + LIST_ORDER)
+    Stream<Booking> streamAll(@Param("propertyId") String propertyId,
+                              @Param("status") BookingStatus status,
+                              @Param("from") LocalDate from,
+                              @Param("to") LocalDate to);
 }
@@ -0,0 +1,54 @@
+package com.hostfully.bookingapi.repository;
+
+import com.hostfully.bookingapi.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.Collection;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claims the key, returning 0 when it is already taken. Two nodes racing for the same new key
+     * can still fail with a DataIntegrityViolationException.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, request_hash, created_at, renewed_at) " +
+                   "SELECT :id, :requestHash, :createdAt, :createdAt " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM idempotency_keys WHERE id = :id)",
+           nativeQuery = true)
+    int reserve(@Param("id") String id, @Param("requestHash") String requestHash, @Param("createdAt") Instant createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.etag = :etag, r.responseBody = :responseBody " +
+           "WHERE r.id = :id")
+    int complete(@Param("id") String id, @Param("statusCode") int statusCode, @Param("etag") String etag,
+                 @Param("responseBody") String responseBody);
+
+    /** Extends the lease on reservations this node is still working on. */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.renewedAt = :renewedAt WHERE r.id IN :ids AND r.statusCode IS NULL")
+    int renew(@Param("ids") Collection<String> ids, @Param("renewedAt") Instant renewedAt);
+
+    /**
+     * Deletes the key if it expired, or if it is a reservation whose lease was last renewed before
+     * leaseCutoff. Checking both in the delete keeps two nodes from reclaiming the same key.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND (r.createdAt < :expiryCutoff " +
+           "OR (r.statusCode IS NULL AND COALESCE(r.renewedAt, r.createdAt) < :leaseCutoff))")
+    int deleteIfReclaimable(@Param("id") String id, @Param("expiryCutoff") Instant expiryCutoff,
+                            @Param("leaseCutoff") Instant leaseCutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
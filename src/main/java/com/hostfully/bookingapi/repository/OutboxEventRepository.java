@@ -0,0 +1,30 @@
+package com.hostfully.bookingapi.repository;
+
+import com.hostfully.bookingapi.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position IS NULL ORDER BY e.id")
+    List<OutboxEvent> findUnsequenced(Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM OutboxEvent e")
+    long findMaxPosition();
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.position IS NOT NULL ORDER BY e.position")
+    List<OutboxEvent> findUnpublished(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position > :after ORDER BY e.position")
+    List<OutboxEvent> findFeed(@Param("after") long after, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package com.hostfully.bookingapi.repository;
+
+import com.hostfully.bookingapi.entity.PropertyLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Optional;
+
+public interface PropertyLockRepository extends JpaRepository<PropertyLock, String> {
+
+    @Modifying
+    @Query(value = "MERGE INTO property_locks t USING (VALUES (:propertyId)) s(property_id) " +
+                   "ON t.property_id = s.property_id " +
+                   "WHEN NOT MATCHED THEN INSERT (property_id) VALUES (s.property_id)",
+           nativeQuery = true)
+    void ensureExists(@Param("propertyId") String propertyId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PropertyLock p WHERE p.propertyId = :propertyId")
+    Optional<PropertyLock> findForUpdate(@Param("propertyId") String propertyId);
+}
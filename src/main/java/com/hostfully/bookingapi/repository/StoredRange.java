@@ -0,0 +1,7 @@
+package com.hostfully.bookingapi.repository;
+
+import java.time.LocalDate;
+
+/** The id and dates of a stored booking or block, for checks that need nothing else of the row. */
+public record StoredRange(Long id, LocalDate startDate, LocalDate endDate) {
+}
@@ -0,0 +1,177 @@
+package com.hostfully.bookingapi.service;
+
+import com.hostfully.bookingapi.dto.AvailabilityResponse;
+import com.hostfully.bookingapi.dto.AvailabilitySegment;
+import com.hostfully.bookingapi.dto.PropertySearchResponse;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.enums.NightStatus;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.repository.BlockRepository;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.service.OccupancyIndex.OccupiedRange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class AvailabilityService {
+
+    private final OccupancyIndex occupancyIndex;
+    private final BookingRepository bookingRepository;
+    private final BlockRepository blockRepository;
+    private final RecurringBlocks recurringBlocks;
+    private final int maxRangeDays;
+    private final int maxSearchLimit;
+
+    public AvailabilityService(OccupancyIndex occupancyIndex, BookingRepository bookingRepository,
+                               BlockRepository blockRepository, RecurringBlocks recurringBlocks,
+                               @Value("${booking.availability.max-range-days:731}") int maxRangeDays,
+                               @Value("${booking.availability.max-search-limit:1000}") int maxSearchLimit) {
+        this.occupancyIndex = occupancyIndex;
+        this.bookingRepository = bookingRepository;
+        this.blockRepository = blockRepository;
+        this.recurringBlocks = recurringBlocks;
+        this.maxRangeDays = maxRangeDays;
+        this.maxSearchLimit = maxSearchLimit;
+    }
+
+    /**
+     * Returns an entity tag for the availability of the property over [from, to), or empty
+     * when the occupancy index is disabled and no cheap version is available.
+     */
+    public Optional<String> getETag(String propertyId, LocalDate from, LocalDate to) {
+        if (!occupancyIndex.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.of("\"" + occupancyIndex.versionTag(propertyId) + "-" + from + "-" + to + "\"");
+    }
+
+    @Transactional(readOnly = true)
+    public AvailabilityResponse getAvailability(String propertyId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+
+        List<OccupiedRange> ranges = new ArrayList<>(occupancyIndex.isEnabled()
+                ? occupancyIndex.findRanges(propertyId, from, to)
+                : loadRanges(propertyId, from, to));
+        ranges.addAll(recurringBlocks.occurrences(propertyId, from, to));
+        ranges.sort(Comparator.comparing(OccupiedRange::startDate));
+
+        List<AvailabilitySegment> segments = new ArrayList<>();
+        LocalDate cursor = from;
+        int freeNights = 0;
+        for (OccupiedRange range : ranges) {
+            LocalDate start = range.startDate().isBefore(cursor) ? cursor : range.startDate();
+            LocalDate end = range.endDate().isAfter(to) ? to : range.endDate();
+            if (!start.isBefore(end)) {
+                continue;
+            }
+            if (cursor.isBefore(start)) {
+                segments.add(new AvailabilitySegment(cursor, start, NightStatus.FREE));
+                freeNights += (int) ChronoUnit.DAYS.between(cursor, start);
+            }
+            segments.add(new AvailabilitySegment(start, end,
+                    range.type() == OccupancyType.BOOKING ? NightStatus.BOOKED : NightStatus.BLOCKED));
+            cursor = end;
+        }
+        if (cursor.isBefore(to)) {
+            segments.add(new AvailabilitySegment(cursor, to, NightStatus.FREE));
+            freeNights += (int) ChronoUnit.DAYS.between(cursor, to);
+        }
+
+        AvailabilityResponse response = new AvailabilityResponse();
+        response.setPropertyId(propertyId);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setFreeNights(freeNights);
+        response.setSegments(segments);
+        return response;
+    }
+
+    /**
+     * Finds properties with no active booking or block overlapping [from, to), one page at a
+     * time in property id order. Without a property filter only properties that have had a
+     * booking or block are considered; pages of free properties are read until enough of them
+     * are also clear of recurring blocks.
+     */
+    @Transactional(readOnly = true)
+    public PropertySearchResponse findAvailableProperties(LocalDate from, LocalDate to, List<String> propertyIds,
+                                                          String after, int limit) {
+        validateRange(from, to);
+        if (limit < 1 || limit > maxSearchLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxSearchLimit);
+        }
+
+        List<String> found;
+        if (propertyIds != null && !propertyIds.isEmpty()) {
+            found = propertyIds.stream()
+                    .distinct()
+                    .sorted()
+                    .filter(propertyId -> after == null || propertyId.compareTo(after) > 0)
+                    .filter(propertyId -> isFree(propertyId, from, to))
+                    .limit(limit)
+                    .toList();
+        } else {
+            found = findFreeProperties(from, to, after, limit);
+        }
+
+        PropertySearchResponse response = new PropertySearchResponse();
+        response.setFrom(from);
+        response.setTo(to);
+        response.setPropertyIds(found);
+        response.setNextCursor(found.size() == limit ? found.get(found.size() - 1) : null);
+        return response;
+    }
+
+    private List<String> findFreeProperties(LocalDate from, LocalDate to, String after, int limit) {
+        List<String> found = new ArrayList<>();
+        String cursor = after;
+        while (found.size() < limit) {
+            List<String> page = occupancyIndex.isEnabled()
+                    ? occupancyIndex.findFreeProperties(from, to, cursor, limit)
+                    : bookingRepository.findFreePropertyIds(from, to, cursor, limit);
+            for (String propertyId : page) {
+                if (found.size() < limit && !recurringBlocks.overlaps(propertyId, from, to, null)) {
+                    found.add(propertyId);
+                }
+            }
+            if (page.size() < limit) {
+                break;
+            }
+            cursor = page.get(page.size() - 1);
+        }
+        return found;
+    }
+
+    private boolean isFree(String propertyId, LocalDate from, LocalDate to) {
+        boolean free = occupancyIndex.isEnabled()
+                ? occupancyIndex.findOverlap(propertyId, from, to, null, null).isEmpty()
+                : bookingRepository.findOverlapType(propertyId, from, to, null, null) == null;
+        return free && !recurringBlocks.overlaps(propertyId, from, to, null);
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxRangeDays) {
+            throw new IllegalArgumentException("Availability range must not exceed " + maxRangeDays + " days");
+        }
+    }
+
+    private List<OccupiedRange> loadRanges(String propertyId, LocalDate from, LocalDate to) {
+        List<OccupiedRange> ranges = new ArrayList<>();
+        bookingRepository.findOverlappingRanges(propertyId, from, to, BookingStatus.ACTIVE).forEach(booking ->
+                ranges.add(new OccupiedRange(OccupancyType.BOOKING, booking.id(), propertyId,
+                        booking.startDate(), booking.endDate())));
+        blockRepository.findOverlappingRanges(propertyId, from, to).forEach(block ->
+                ranges.add(new OccupiedRange(OccupancyType.BLOCK, block.id(), propertyId,
+                        block.startDate(), block.endDate())));
+        return ranges;
+    }
+}
@@ -0,0 +1,158 @@
+package com.hostfully.bookingapi.service;
+
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.repository.BlockRepository;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Validates batch imports as a whole: each item is checked against its bean constraints, then
+ * the items of every property are sorted by start date and swept against the ranges already
+ * stored for that property, including the occurrences of its recurring blocks within the
+ * batch's dates. Items that pass are then checked against each other: in start order for batch
+ * imports, and in index order for group commits, where of two overlapping creates the one queued
+ * first must win.
+ */
+@Component
+public class BatchValidator {
+
+    public enum Conflict {
+        BOOKING,
+        BLOCK,
+        BATCH
+    }
+
+    public record Candidate(int index, String propertyId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private record Occupied(Conflict conflict, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private final BookingRepository bookingRepository;
+    private final BlockRepository blockRepository;
+    private final RecurringBlocks recurringBlocks;
+    private final Validator validator;
+    private final int maxSize;
+
+    public BatchValidator(BookingRepository bookingRepository, BlockRepository blockRepository,
+                          RecurringBlocks recurringBlocks, Validator validator,
+                          @Value("${booking.batch.max-size:5000}") int maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.blockRepository = blockRepository;
+        this.recurringBlocks = recurringBlocks;
+        this.validator = validator;
+        this.maxSize = maxSize;
+    }
+
+    public void checkSize(List<?> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one item");
+        }
+        if (requests.size() > maxSize) {
+            throw new IllegalArgumentException("Batch must not contain more than " + maxSize + " items");
+        }
+    }
+
+    public <T> Optional<String> validate(T request, Function<T, LocalDate> startDate, Function<T, LocalDate> endDate) {
+        if (request == null) {
+            return Optional.of("item is required");
+        }
+        String violations = validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if (!violations.isEmpty()) {
+            return Optional.of(violations);
+        }
+        if (!startDate.apply(request).isBefore(endDate.apply(request))) {
+            return Optional.of("startDate must be before endDate");
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the conflict found for every rejected candidate, keyed by candidate index.
+     * Candidates not present in the result can be inserted. Callers must hold the property
+     * locks of all candidates.
+     */
+    public Map<Integer, Conflict> findConflicts(List<Candidate> candidates) {
+        return findConflicts(candidates, Comparator.comparing(Candidate::startDate).thenComparing(Candidate::index));
+    }
+
+    /**
+     * Like {@link #findConflicts(List)}, but of two overlapping candidates the one with the lower
+     * index is accepted, whichever starts first.
+     */
+    public Map<Integer, Conflict> findConflictsInOrder(List<Candidate> candidates) {
+        return findConflicts(candidates, Comparator.comparingInt(Candidate::index));
+    }
+
+    private Map<Integer, Conflict> findConflicts(List<Candidate> candidates, Comparator<Candidate> acceptOrder) {
+        Map<String, List<Candidate>> byProperty = candidates.stream()
+                .sorted(Comparator.comparing(Candidate::propertyId)
+                        .thenComparing(Candidate::startDate)
+                        .thenComparing(Candidate::index))
+                .collect(Collectors.groupingBy(Candidate::propertyId, LinkedHashMap::new, Collectors.toList()));
+
+        Map<Integer, Conflict> conflicts = new HashMap<>();
+        byProperty.forEach((propertyId, items) -> sweep(items, loadOccupied(propertyId, items), acceptOrder, conflicts));
+        return conflicts;
+    }
+
+    private void sweep(List<Candidate> items, List<Occupied> occupied, Comparator<Candidate> acceptOrder,
+                       Map<Integer, Conflict> conflicts) {
+        int next = 0;
+        for (Candidate item : items) {
+            while (next < occupied.size() && !occupied.get(next).endDate().isAfter(item.startDate())) {
+                next++;
+            }
+            if (next < occupied.size() && occupied.get(next).startDate().isBefore(item.endDate())) {
+                conflicts.put(item.index(), occupied.get(next).conflict());
+            }
+        }
+
+        // Accepted items never overlap, so the one starting last before an item ends is the only
+        // one that can overlap it.
+        TreeMap<LocalDate, LocalDate> accepted = new TreeMap<>();
+        items.stream()
+                .filter(item -> !conflicts.containsKey(item.index()))
+                .sorted(acceptOrder)
+                .forEach(item -> {
+                    Map.Entry<LocalDate, LocalDate> previous = accepted.lowerEntry(item.endDate());
+                    if (previous != null && previous.getValue().isAfter(item.startDate())) {
+                        conflicts.put(item.index(), Conflict.BATCH);
+                    } else {
+                        accepted.put(item.startDate(), item.endDate());
+                    }
+                });
+    }
+
+    private List<Occupied> loadOccupied(String propertyId, List<Candidate> items) {
+        LocalDate from = items.get(0).startDate();
+        LocalDate to = items.stream().map(Candidate::endDate).max(Comparator.naturalOrder()).orElseThrow();
+
+        List<Occupied> occupied = new ArrayList<>();
+        bookingRepository.findOverlappingRanges(propertyId, from, to, BookingStatus.ACTIVE).forEach(booking ->
+                occupied.add(new Occupied(Conflict.BOOKING, booking.startDate(), booking.endDate())));
+        blockRepository.findOverlappingRanges(propertyId, from, to).forEach(block ->
+                occupied.add(new Occupied(Conflict.BLOCK, block.startDate(), block.endDate())));
+        recurringBlocks.occurrences(propertyId, from, to).forEach(range ->
+                occupied.add(new Occupied(Conflict.BLOCK, range.startDate(), range.endDate())));
+        occupied.sort(Comparator.comparing(Occupied::startDate));
+        return occupied;
+    }
+}
@@ -1,96 +1,316 @@
 package com.hostfully.bookingapi.service;
 
+import com.hostfully.bookingapi.dto.BatchItemResult;
+import com.hostfully.bookingapi.dto.BatchResponse;
 import com.hostfully.bookingapi.dto.BlockRequest;
 import com.hostfully.bookingapi.dto.BlockResponse;
+import com.hostfully.bookingapi.dto.PageResponse;
 import com.hostfully.bookingapi.entity.Block;
 import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.enums.EventType;
+import com.hostfully.bookingapi.enums.OccupancyType;
 import com.hostfully.bookingapi.exception.OverlapException;
 import com.hostfully.bookingapi.exception.ResourceNotFoundException;
+import com.hostfully.bookingapi.outbox.EventOutbox;
 import com.hostfully.bookingapi.repository.BlockRepository;
 import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.service.OccupancyIndex.OccupiedRange;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BlockService {
 
     private final BlockRepository blockRepository;
     private final BookingRepository bookingRepository;
+    private final OccupancyIndex occupancyIndex;
+    private final NightOccupancy nightOccupancy;
+    private final PropertyLockManager propertyLockManager;
+    private final BatchValidator batchValidator;
+    private final RecurringBlocks recurringBlocks;
+    private final OverlapCache overlapCache;
+    private final EventOutbox eventOutbox;
+    private final EntityManager entityManager;
+    private final int maxListLimit;
 
-    public BlockService(BlockRepository blockRepository, BookingRepository bookingRepository) {
+    public BlockService(BlockRepository blockRepository, BookingRepository bookingRepository,
+                        OccupancyIndex occupancyIndex, NightOccupancy nightOccupancy,
+                        PropertyLockManager propertyLockManager,
+                        BatchValidator batchValidator, RecurringBlocks recurringBlocks, OverlapCache overlapCache, EventOutbox eventOutbox,
+                        EntityManager entityManager,
+                        @Value("${booking.list.max-limit:500}") int maxListLimit) {
         this.blockRepository = blockRepository;
         this.bookingRepository = bookingRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.nightOccupancy = nightOccupancy;
+        this.propertyLockManager = propertyLockManager;
+        this.batchValidator = batchValidator;
+        this.recurringBlocks = recurringBlocks;
+        this.overlapCache = overlapCache;
+        this.eventOutbox = eventOutbox;
+        this.entityManager = entityManager;
+        this.maxListLimit = maxListLimit;
     }
 
+    @Transactional
     public BlockResponse create(BlockRequest request) {
         validateDates(request.getStartDate(), request.getEndDate());
-        checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), null);
+        Recurrence recurrence = parseRecurrence(request);
+        propertyLockManager.lock(request.getPropertyId());
+        checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), recurrence, null);
 
-        Block block = new Block();
-        block.setPropertyId(request.getPropertyId());
-        block.setReason(request.getReason());
-        block.setStartDate(request.getStartDate());
-        block.setEndDate(request.getEndDate());
+        Block saved = save(newBlock(request, recurrence));
+        occupyNights(List.of(saved));
+        return publish(EventType.CREATED, saved);
+    }
+
+    @Transactional
+    public BatchResponse<BlockResponse> createBatch(List<BlockRequest> requests) {
+        batchValidator.checkSize(requests);
+
+        List<BatchItemResult<BlockResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        List<BatchValidator.Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BlockRequest request = requests.get(i);
+            Optional<String> error = batchValidator.validate(request, BlockRequest::getStartDate, BlockRequest::getEndDate);
+            if (error.isEmpty() && request.getRecurrence() != null) {
+                error = Optional.of("Recurring blocks must be created one at a time");
+            }
+            if (error.isPresent()) {
+                results.set(i, BatchItemResult.rejected(i, error.get()));
+            } else {
+                candidates.add(new BatchValidator.Candidate(
+                        i, request.getPropertyId(), request.getStartDate(), request.getEndDate()));
+            }
+        }
+
+        propertyLockManager.lock(candidates.stream().map(BatchValidator.Candidate::propertyId).toArray(String[]::new));
+        Map<Integer, BatchValidator.Conflict> conflicts = batchValidator.findConflicts(candidates);
+
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Block> accepted = new ArrayList<>();
+        for (BatchValidator.Candidate candidate : candidates) {
+            BatchValidator.Conflict conflict = conflicts.get(candidate.index());
+            if (conflict != null) {
+                results.set(candidate.index(), BatchItemResult.rejected(candidate.index(), batchConflictMessage(conflict)));
+            } else {
+                acceptedIndexes.add(candidate.index());
+                accepted.add(newBlock(requests.get(candidate.index()), null));
+            }
+        }
+
+        List<Block> saved = blockRepository.saveAll(accepted);
+        occupyNights(saved);
+        for (int i = 0; i < saved.size(); i++) {
+            occupancyIndex.indexBlock(saved.get(i));
+            overlapCache.invalidate(saved.get(i).getPropertyId());
+            results.set(acceptedIndexes.get(i),
+                    BatchItemResult.created(acceptedIndexes.get(i), publish(EventType.CREATED, saved.get(i))));
+        }
+        return BatchResponse.of(results);
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<BlockResponse> list(String propertyId, LocalDate from, LocalDate to, String cursor, int limit) {
+        if (limit < 1 || limit > maxListLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxListLimit);
+        }
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+
+        List<Block> page = blockRepository.findPage(propertyId, from, to,
+                after == null ? null : after.propertyId(),
+                after == null ? null : after.startDate(),
+                after == null ? null : after.id(),
+                PageRequest.of(0, limit));
+
+        String nextCursor = null;
+        if (page.size() == limit) {
+            Block last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getPropertyId(), last.getStartDate(), last.getId()).encode();
+        }
+        return new PageResponse<>(page.stream().map(BlockResponse::of).toList(), nextCursor);
+    }
 
-        return toResponse(blockRepository.save(block));
+    @Transactional(readOnly = true)
+    public void stream(String propertyId, LocalDate from, LocalDate to, Consumer<BlockResponse> sink) {
+        try (Stream<Block> blocks = blockRepository.streamAll(propertyId, from, to)) {
+            blocks.forEach(block -> {
+                sink.accept(BlockResponse.of(block));
+                entityManager.detach(block);
+            });
+        }
     }
 
-    public BlockResponse update(Long id, BlockRequest request) {
+    @Transactional
+    public BlockResponse update(Long id, BlockRequest request, Long expectedVersion) {
         validateDates(request.getStartDate(), request.getEndDate());
+        Recurrence recurrence = parseRecurrence(request);
         Block block = findBlockOrThrow(id);
+        propertyLockManager.lock(block.getPropertyId(), request.getPropertyId());
+        checkVersion(block, expectedVersion);
 
-        checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), id);
+        checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), recurrence, id);
 
+        overlapCache.invalidate(block.getPropertyId());
+        recurringBlocks.invalidate(block.getPropertyId());
         block.setPropertyId(request.getPropertyId());
         block.setReason(request.getReason());
         block.setStartDate(request.getStartDate());
         block.setEndDate(request.getEndDate());
+        setRecurrence(block, recurrence);
 
-        return toResponse(blockRepository.save(block));
+        Block saved = save(block);
+        nightOccupancy.release(OccupancyType.BLOCK, id);
+        occupyNights(List.of(saved));
+        return publish(EventType.UPDATED, saved);
     }
 
-    public void delete(Long id) {
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
         Block block = findBlockOrThrow(id);
+        checkVersion(block, expectedVersion);
+        publish(EventType.DELETED, block);
         blockRepository.delete(block);
+        nightOccupancy.release(OccupancyType.BLOCK, id);
+        occupancyIndex.removeBlock(id);
+        overlapCache.invalidate(block.getPropertyId());
+        recurringBlocks.invalidate(block.getPropertyId());
+    }
+
+    private Block save(Block block) {
+        Block saved = blockRepository.saveAndFlush(block);
+        occupancyIndex.indexBlock(saved);
+        overlapCache.invalidate(saved.getPropertyId());
+        recurringBlocks.invalidate(saved.getPropertyId());
+        return saved;
+    }
+
+    private void occupyNights(List<Block> blocks) {
+        nightOccupancy.occupy(blocks.stream().map(NightOccupancy::toRange).toList(), this::overlapMessage);
+    }
+
+    private BlockResponse publish(EventType eventType, Block block) {
+        BlockResponse response = BlockResponse.of(block);
+        eventOutbox.record(OccupancyType.BLOCK, block.getId(), block.getPropertyId(), eventType, response);
+        return response;
     }
 
-    private void checkForOverlaps(String propertyId, java.time.LocalDate startDate,
-                                  java.time.LocalDate endDate, Long excludeBlockId) {
-        if (!bookingRepository.findOverlapping(propertyId, startDate, endDate, BookingStatus.ACTIVE).isEmpty()) {
-            throw new OverlapException("Block overlaps with an existing active booking");
+    private void checkForOverlaps(String propertyId, LocalDate startDate, LocalDate endDate,
+                                  Recurrence recurrence, Long excludeBlockId) {
+        if (recurrence != null) {
+            checkSeriesForOverlaps(propertyId, startDate, endDate, recurrence, excludeBlockId);
+            return;
+        }
+        Optional<OccupancyType> overlap;
+        if (occupancyIndex.isEnabled()) {
+            overlap = occupancyIndex.findOverlap(propertyId, startDate, endDate, OccupancyType.BLOCK, excludeBlockId);
+        } else if (nightOccupancy.isEnabled()) {
+            overlap = nightOccupancy.findOverlap(propertyId, startDate, endDate, OccupancyType.BLOCK, excludeBlockId);
+        } else {
+            overlap = Optional.ofNullable(overlapCache.findOverlap(propertyId, startDate, endDate, null, excludeBlockId,
+                    () -> bookingRepository.findOverlapType(propertyId, startDate, endDate, null, excludeBlockId)));
+        }
+        if (overlap.isEmpty() && recurringBlocks.overlaps(propertyId, startDate, endDate, excludeBlockId)) {
+            overlap = Optional.of(OccupancyType.BLOCK);
         }
 
-        List<Block> overlappingBlocks = blockRepository.findOverlapping(propertyId, startDate, endDate);
+        overlap.ifPresent(type -> {
+            throw new OverlapException(overlapMessage(type));
+        });
+    }
 
-        if (excludeBlockId != null) {
-            overlappingBlocks = overlappingBlocks.stream()
-                    .filter(b -> !b.getId().equals(excludeBlockId))
-                    .toList();
+    /**
+     * Checks every occurrence of a recurring block without expanding the series: each booking and
+     * block stored within the series' dates is tested against the one occurrence that could
+     * overlap it, then the occurrences are checked against the property's other recurring blocks.
+     */
+    private void checkSeriesForOverlaps(String propertyId, LocalDate startDate, LocalDate endDate,
+                                        Recurrence recurrence, Long excludeBlockId) {
+        OccupancyType overlap = null;
+        for (OccupiedRange range : storedRanges(propertyId, startDate, recurrence.seriesEnd(startDate, endDate))) {
+            boolean self = range.type() == OccupancyType.BLOCK && range.id().equals(excludeBlockId);
+            if (!self && recurrence.overlaps(startDate, endDate, range.startDate(), range.endDate())) {
+                overlap = range.type();
+                if (overlap == OccupancyType.BOOKING) {
+                    break;
+                }
+            }
         }
+        if (overlap == null && recurringBlocks.overlaps(propertyId, startDate, endDate, recurrence, excludeBlockId)) {
+            overlap = OccupancyType.BLOCK;
+        }
+        if (overlap != null) {
+            throw new OverlapException(overlapMessage(overlap));
+        }
+    }
 
-        if (!overlappingBlocks.isEmpty()) {
-            throw new OverlapException("Block overlaps with an existing block");
+    private List<OccupiedRange> storedRanges(String propertyId, LocalDate from, LocalDate to) {
+        if (occupancyIndex.isEnabled()) {
+            return occupancyIndex.findRanges(propertyId, from, to);
         }
+        List<OccupiedRange> ranges = new ArrayList<>();
+        bookingRepository.findOverlappingRanges(propertyId, from, to, BookingStatus.ACTIVE).forEach(booking ->
+                ranges.add(new OccupiedRange(OccupancyType.BOOKING, booking.id(), propertyId,
+                        booking.startDate(), booking.endDate())));
+        blockRepository.findOverlappingRanges(propertyId, from, to).forEach(block ->
+                ranges.add(new OccupiedRange(OccupancyType.BLOCK, block.id(), propertyId,
+                        block.startDate(), block.endDate())));
+        return ranges;
+    }
+
+    private String overlapMessage(OccupancyType type) {
+        return OccupancyRules.blockOverlapMessage(type);
+    }
+
+    private String batchConflictMessage(BatchValidator.Conflict conflict) {
+        return switch (conflict) {
+            case BOOKING -> overlapMessage(OccupancyType.BOOKING);
+            case BLOCK -> overlapMessage(OccupancyType.BLOCK);
+            case BATCH -> "Block overlaps with another block in the batch";
+        };
     }
 
     private void validateDates(java.time.LocalDate startDate, java.time.LocalDate endDate) {
-        if (!startDate.isBefore(endDate)) {
-            throw new IllegalArgumentException("startDate must be before endDate");
-        }
+        OccupancyRules.validateDates(startDate, endDate);
+    }
+
+    private Recurrence parseRecurrence(BlockRequest request) {
+        return request.getRecurrence() == null ? null
+                : recurringBlocks.parse(request.getRecurrence(), request.getStartDate(), request.getEndDate());
+    }
+
+    private Block newBlock(BlockRequest request, Recurrence recurrence) {
+        Block block = new Block();
+        block.setPropertyId(request.getPropertyId());
+        block.setReason(request.getReason());
+        block.setStartDate(request.getStartDate());
+        block.setEndDate(request.getEndDate());
+        setRecurrence(block, recurrence);
+        return block;
+    }
+
+    private static void setRecurrence(Block block, Recurrence recurrence) {
+        block.setRecurrence(recurrence == null ? null : recurrence.format());
+        block.setSeriesEnd(recurrence == null ? null : recurrence.seriesEnd(block.getStartDate(), block.getEndDate()));
+    }
+
+    private void checkVersion(Block block, Long expectedVersion) {
+        OccupancyRules.checkVersion(OccupancyType.BLOCK, block.getId(), block.getVersion(), expectedVersion);
     }
 
     private Block findBlockOrThrow(Long id) {
         return blockRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Block not found with id: " + id));
     }
-
-    private BlockResponse toResponse(Block block) {
-        BlockResponse response = new BlockResponse();
-        response.setId(block.getId());
-        response.setPropertyId(block.getPropertyId());
-        response.setReason(block.getReason());
-        response.setStartDate(block.getStartDate());
-        response.setEndDate(block.getEndDate());
-        return response;
-    }
 }
@@ -1,49 +1,289 @@
 package com.hostfully.bookingapi.service;
 
+import com.hostfully.bookingapi.config.CacheConfig;
+import com.hostfully.bookingapi.dto.BatchItemResult;
+import com.hostfully.bookingapi.dto.BatchResponse;
 import com.hostfully.bookingapi.dto.BookingRequest;
 import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.dto.PageResponse;
 import com.hostfully.bookingapi.entity.Booking;
 import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.enums.EventType;
+import com.hostfully.bookingapi.enums.OccupancyType;
 import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.exception.PreconditionFailedException;
 import com.hostfully.bookingapi.exception.ResourceNotFoundException;
-import com.hostfully.bookingapi.repository.BlockRepository;
+import com.hostfully.bookingapi.outbox.EventOutbox;
 import com.hostfully.bookingapi.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
 
+    /** A create or cancel queued by {@link GroupCommitPipeline}. */
+    public sealed interface GroupWrite {
+    }
+
+    public record GroupCreate(BookingRequest request) implements GroupWrite {
+    }
+
+    public record GroupCancel(Long id, Long expectedVersion) implements GroupWrite {
+    }
+
+    /** The outcome of one write of a group: the response, or the exception the single-write call would have thrown. */
+    public record GroupResult(BookingResponse response, RuntimeException error) {
+
+        static GroupResult of(BookingResponse response) {
+            return new GroupResult(response, null);
+        }
+
+        static GroupResult failed(RuntimeException error) {
+            return new GroupResult(null, error);
+        }
+    }
+
     private final BookingRepository bookingRepository;
-    private final BlockRepository blockRepository;
+    private final OccupancyIndex occupancyIndex;
+    private final NightOccupancy nightOccupancy;
+    private final PropertyLockManager propertyLockManager;
+    private final BatchValidator batchValidator;
+    private final RecurringBlocks recurringBlocks;
+    private final OverlapCache overlapCache;
+    private final EventOutbox eventOutbox;
+    private final EntityManager entityManager;
+    private final Cache bookingCache;
+    private final int maxListLimit;
 
-    public BookingService(BookingRepository bookingRepository, BlockRepository blockRepository) {
+    public BookingService(BookingRepository bookingRepository, OccupancyIndex occupancyIndex,
+                          NightOccupancy nightOccupancy, PropertyLockManager propertyLockManager, BatchValidator batchValidator,
+                          RecurringBlocks recurringBlocks, OverlapCache overlapCache, EventOutbox eventOutbox, EntityManager entityManager,
+                          CacheManager cacheManager,
+                          @Value("${booking.list.max-limit:500}") int maxListLimit) {
         this.bookingRepository = bookingRepository;
-        this.blockRepository = blockRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.nightOccupancy = nightOccupancy;
+        this.propertyLockManager = propertyLockManager;
+        this.batchValidator = batchValidator;
+        this.recurringBlocks = recurringBlocks;
+        this.overlapCache = overlapCache;
+        this.eventOutbox = eventOutbox;
+        this.entityManager = entityManager;
+        this.bookingCache = cacheManager.getCache(CacheConfig.BOOKINGS);
+        this.maxListLimit = maxListLimit;
     }
 
+    @Transactional
     public BookingResponse create(BookingRequest request) {
         validateDates(request.getStartDate(), request.getEndDate());
+        propertyLockManager.lock(request.getPropertyId());
         checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), null);
 
-        Booking reserva = new Booking();
-        reserva.setPropertyId(request.getPropertyId());
-        reserva.setGuestName(request.getGuestName());
-        reserva.setGuestEmail(request.getGuestEmail());
-        reserva.setStartDate(request.getStartDate());
-        reserva.setEndDate(request.getEndDate());
-        reserva.setStatus(BookingStatus.ACTIVE);
+        Booking saved = save(newBooking(request));
+        occupyNights(List.of(saved));
+        return publish(EventType.CREATED, saved);
+    }
+
+    @Transactional
+    public BatchResponse<BookingResponse> createBatch(List<BookingRequest> requests) {
+        batchValidator.checkSize(requests);
+
+        List<BatchItemResult<BookingResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        List<BatchValidator.Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            Optional<String> error = batchValidator.validate(request, BookingRequest::getStartDate, BookingRequest::getEndDate);
+            if (error.isPresent()) {
+                results.set(i, BatchItemResult.rejected(i, error.get()));
+            } else {
+                candidates.add(new BatchValidator.Candidate(
+                        i, request.getPropertyId(), request.getStartDate(), request.getEndDate()));
+            }
+        }
+
+        propertyLockManager.lock(candidates.stream().map(BatchValidator.Candidate::propertyId).toArray(String[]::new));
+        Map<Integer, BatchValidator.Conflict> conflicts = batchValidator.findConflicts(candidates);
 
-        return toResponse(bookingRepository.save(reserva));
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (BatchValidator.Candidate candidate : candidates) {
+            BatchValidator.Conflict conflict = conflicts.get(candidate.index());
+            if (conflict != null) {
+                results.set(candidate.index(), BatchItemResult.rejected(candidate.index(), batchConflictMessage(conflict)));
+            } else {
+                acceptedIndexes.add(candidate.index());
+                accepted.add(newBooking(requests.get(candidate.index())));
+            }
+        }
+
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        occupyNights(saved);
+        for (int i = 0; i < saved.size(); i++) {
+            occupancyIndex.indexBooking(saved.get(i));
+            overlapCache.invalidate(saved.get(i).getPropertyId());
+            results.set(acceptedIndexes.get(i),
+                    BatchItemResult.created(acceptedIndexes.get(i), publish(EventType.CREATED, saved.get(i))));
+        }
+        return BatchResponse.of(results);
     }
 
+    /**
+     * Applies a group of creates and cancels in one transaction and returns one result per write,
+     * in order. A write that would fail on its own gets that exception as its result, without
+     * rolling back the others: the properties of every write are locked first, and cancels are
+     * checked against their bookings as reloaded under those locks. Cancels are applied first, so
+     * a create in the same group may take the nights they free. Creates are checked against each
+     * other and against stored rows in memory, as in {@link #createBatch}, but in the order they
+     * were queued: one that overlaps an earlier create of the group is rejected as if that create
+     * had committed first, even when it starts later.
+     */
+    @Transactional
+    public List<GroupResult> commitGroup(List<GroupWrite> writes) {
+        GroupResult[] results = new GroupResult[writes.size()];
+        Map<Integer, Booking> toCancel = new LinkedHashMap<>();
+        List<BatchValidator.Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < writes.size(); i++) {
+            try {
+                if (writes.get(i) instanceof GroupCancel cancel) {
+                    toCancel.put(i, findBookingOrThrow(cancel.id()));
+                } else if (writes.get(i) instanceof GroupCreate create) {
+                    BookingRequest request = create.request();
+                    validateDates(request.getStartDate(), request.getEndDate());
+                    candidates.add(new BatchValidator.Candidate(
+                            i, request.getPropertyId(), request.getStartDate(), request.getEndDate()));
+                }
+            } catch (ResourceNotFoundException | IllegalArgumentException e) {
+                results[i] = GroupResult.failed(e);
+            }
+        }
+
+        String[] propertyIds = Stream.concat(toCancel.values().stream().map(Booking::getPropertyId),
+                candidates.stream().map(BatchValidator.Candidate::propertyId)).toArray(String[]::new);
+        if (propertyIds.length > 0) {
+            propertyLockManager.lock(propertyIds);
+        }
+
+        Map<Integer, Booking> canceled = new LinkedHashMap<>();
+        toCancel.forEach((index, booking) -> {
+            try {
+                // A write committed while this group waited for the locks must be seen here, not at flush.
+                entityManager.refresh(booking);
+                checkVersion(booking, ((GroupCancel) writes.get(index)).expectedVersion());
+                if (booking.getStatus() == BookingStatus.CANCELED) {
+                    throw new IllegalArgumentException("Booking is already canceled");
+                }
+                booking.setStatus(BookingStatus.CANCELED);
+                canceled.put(index, booking);
+            } catch (EntityNotFoundException e) {
+                results[index] = GroupResult.failed(new ResourceNotFoundException("Booking not found with id: " + booking.getId()));
+            } catch (PreconditionFailedException | IllegalArgumentException e) {
+                results[index] = GroupResult.failed(e);
+            }
+        });
+
+        if (!canceled.isEmpty()) {
+            bookingRepository.flush();
+            canceled.forEach((index, booking) -> {
+                nightOccupancy.release(OccupancyType.BOOKING, booking.getId());
+                occupancyIndex.indexBooking(booking);
+                overlapCache.invalidate(booking.getPropertyId());
+                bookingCache.evict(booking.getId());
+                results[index] = GroupResult.of(publish(EventType.CANCELED, booking));
+            });
+        }
+
+        if (!candidates.isEmpty()) {
+            Map<Integer, BatchValidator.Conflict> conflicts = batchValidator.findConflictsInOrder(candidates);
+            List<Integer> acceptedIndexes = new ArrayList<>();
+            List<Booking> accepted = new ArrayList<>();
+            for (BatchValidator.Candidate candidate : candidates) {
+                BatchValidator.Conflict conflict = conflicts.get(candidate.index());
+                if (conflict != null) {
+                    OccupancyType holder = conflict == BatchValidator.Conflict.BLOCK ? OccupancyType.BLOCK : OccupancyType.BOOKING;
+                    results[candidate.index()] = GroupResult.failed(new OverlapException(overlapMessage(holder)));
+                } else {
+                    acceptedIndexes.add(candidate.index());
+                    accepted.add(newBooking(((GroupCreate) writes.get(candidate.index())).request()));
+                }
+            }
+            List<Booking> saved = bookingRepository.saveAll(accepted);
+            occupyNights(saved);
+            for (int i = 0; i < saved.size(); i++) {
+                occupancyIndex.indexBooking(saved.get(i));
+                overlapCache.invalidate(saved.get(i).getPropertyId());
+                results[acceptedIndexes.get(i)] = GroupResult.of(publish(EventType.CREATED, saved.get(i)));
+            }
+        }
+        return List.of(results);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.BOOKINGS, key = "#id")
+    @Transactional(readOnly = true)
     public BookingResponse getById(Long id) {
-        return toResponse(findBookingOrThrow(id));
+        return BookingResponse.of(findBookingOrThrow(id));
     }
 
-    public BookingResponse update(Long id, BookingRequest request) {
+    @Transactional(readOnly = true)
+    public PageResponse<BookingResponse> list(String propertyId, BookingStatus status, LocalDate from, LocalDate to,
+                                              String cursor, int limit) {
+        if (limit < 1 || limit > maxListLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxListLimit);
+        }
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+
+        List<Booking> page = bookingRepository.findPage(propertyId, status, from, to,
+                after == null ? null : after.propertyId(),
+                after == null ? null : after.startDate(),
+                after == null ? null : after.id(),
+                PageRequest.of(0, limit));
+
+        String nextCursor = null;
+        if (page.size() == limit) {
+            Booking last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getPropertyId(), last.getStartDate(), last.getId()).encode();
+        }
+        return new PageResponse<>(page.stream().map(BookingResponse::of).toList(), nextCursor);
+    }
+
+    /**
+     * Feeds every matching booking to the sink in list order. Entities are detached as soon as
+     * they are mapped, so memory stays flat however many rows match.
+     */
+    @Transactional(readOnly = true)
+    public void stream(String propertyId, BookingStatus status, LocalDate from, LocalDate to,
+                       Consumer<BookingResponse> sink) {
+        try (Stream<Booking> bookings = bookingRepository.streamAll(propertyId, status, from, to)) {
+            bookings.forEach(booking -> {
+                sink.accept(BookingResponse.of(booking));
+                entityManager.detach(booking);
+            });
+        }
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.BOOKINGS, key = "#id")
+    @Transactional
+    public BookingResponse update(Long id, BookingRequest request, Long expectedVersion) {
         validateDates(request.getStartDate(), request.getEndDate());
         Booking booking = findBookingOrThrow(id);
+        propertyLockManager.lock(booking.getPropertyId(), request.getPropertyId());
+        checkVersion(booking, expectedVersion);
 
         if (booking.getStatus() == BookingStatus.CANCELED) {
             throw new IllegalArgumentException("Cannot update a canceled booking");
@@ -51,28 +291,41 @@ public class BookingService {
 
         checkForOverlaps(request.getPropertyId(), request.getStartDate(), request.getEndDate(), id);
 
+        overlapCache.invalidate(booking.getPropertyId());
         booking.setPropertyId(request.getPropertyId());
         booking.setGuestName(request.getGuestName());
         booking.setGuestEmail(request.getGuestEmail());
         booking.setStartDate(request.getStartDate());
         booking.setEndDate(request.getEndDate());
 
-        return toResponse(bookingRepository.save(booking));
+        Booking saved = save(booking);
+        nightOccupancy.release(OccupancyType.BOOKING, id);
+        occupyNights(List.of(saved));
+        return publish(EventType.UPDATED, saved);
     }
 
-    public BookingResponse cancel(Long id) {
+    @CacheEvict(cacheNames = CacheConfig.BOOKINGS, key = "#id")
+    @Transactional
+    public BookingResponse cancel(Long id, Long expectedVersion) {
         Booking booking = findBookingOrThrow(id);
+        checkVersion(booking, expectedVersion);
 
         if (booking.getStatus() == BookingStatus.CANCELED) {
             throw new IllegalArgumentException("Booking is already canceled");
         }
 
         booking.setStatus(BookingStatus.CANCELED);
-        return toResponse(bookingRepository.save(booking));
+        Booking saved = save(booking);
+        nightOccupancy.release(OccupancyType.BOOKING, id);
+        return publish(EventType.CANCELED, saved);
     }
 
-    public BookingResponse rebook(Long id) {
+    @CacheEvict(cacheNames = CacheConfig.BOOKINGS, key = "#id")
+    @Transactional
+    public BookingResponse rebook(Long id, Long expectedVersion) {
         Booking booking = findBookingOrThrow(id);
+        propertyLockManager.lock(booking.getPropertyId());
+        checkVersion(booking, expectedVersion);
 
         if (booking.getStatus() != BookingStatus.CANCELED) {
             throw new IllegalArgumentException("Only canceled bookings can be rebooked");
@@ -81,54 +334,97 @@ public class BookingService {
         checkForOverlaps(booking.getPropertyId(), booking.getStartDate(), booking.getEndDate(), id);
 
         booking.setStatus(BookingStatus.ACTIVE);
-        return toResponse(bookingRepository.save(booking));
+        Booking saved = save(booking);
+        occupyNights(List.of(saved));
+        return publish(EventType.REBOOKED, saved);
     }
 
-    public void delete(Long id) {
+    @CacheEvict(cacheNames = CacheConfig.BOOKINGS, key = "#id")
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
         Booking booking = findBookingOrThrow(id);
+        checkVersion(booking, expectedVersion);
+        publish(EventType.DELETED, booking);
         bookingRepository.delete(booking);
+        nightOccupancy.release(OccupancyType.BOOKING, id);
+        occupancyIndex.removeBooking(id);
+        overlapCache.invalidate(booking.getPropertyId());
+    }
+
+    private Booking save(Booking booking) {
+        Booking saved = bookingRepository.saveAndFlush(booking);
+        occupancyIndex.indexBooking(saved);
+        overlapCache.invalidate(saved.getPropertyId());
+        return saved;
+    }
+
+    private void occupyNights(List<Booking> bookings) {
+        nightOccupancy.occupy(bookings.stream().map(NightOccupancy::toRange).toList(), this::overlapMessage);
+    }
+
+    private BookingResponse publish(EventType eventType, Booking booking) {
+        BookingResponse response = BookingResponse.of(booking);
+        eventOutbox.record(OccupancyType.BOOKING, booking.getId(), booking.getPropertyId(), eventType, response);
+        return response;
     }
 
     private void checkForOverlaps(String propertyId, java.time.LocalDate startDate,
                                   java.time.LocalDate endDate, Long excludeBookingId) {
-        List<Booking> overlappingBookings = bookingRepository.findOverlapping(
-                propertyId, startDate, endDate, BookingStatus.ACTIVE);
-
-        if (excludeBookingId != null) {
-            overlappingBookings = overlappingBookings.stream()
-                    .filter(b -> !b.getId().equals(excludeBookingId))
-                    .toList();
+        Optional<OccupancyType> overlap;
+        if (occupancyIndex.isEnabled()) {
+            overlap = occupancyIndex.findOverlap(propertyId, startDate, endDate, OccupancyType.BOOKING, excludeBookingId);
+        } else if (nightOccupancy.isEnabled()) {
+            overlap = nightOccupancy.findOverlap(propertyId, startDate, endDate, OccupancyType.BOOKING, excludeBookingId);
+        } else {
+            overlap = Optional.ofNullable(overlapCache.findOverlap(propertyId, startDate, endDate, excludeBookingId, null,
+                    () -> bookingRepository.findOverlapType(propertyId, startDate, endDate, excludeBookingId, null)));
         }
-
-        if (!overlappingBookings.isEmpty()) {
-            throw new OverlapException("Booking overlaps with an existing booking");
+        if (overlap.isEmpty() && recurringBlocks.overlaps(propertyId, startDate, endDate, null)) {
+            overlap = Optional.of(OccupancyType.BLOCK);
         }
 
-        if (!blockRepository.findOverlapping(propertyId, startDate, endDate).isEmpty()) {
-            throw new OverlapException("Booking overlaps with an existing block");
-        }
+        overlap.ifPresent(type -> {
+            throw new OverlapException(overlapMessage(type));
+        });
+    }
+
+    private String overlapMessage(OccupancyType type) {
+        return OccupancyRules.bookingOverlapMessage(type);
+    }
+
+    private String batchConflictMessage(BatchValidator.Conflict conflict) {
+        return switch (conflict) {
+            case BOOKING -> overlapMessage(OccupancyType.BOOKING);
+            case BLOCK -> overlapMessage(OccupancyType.BLOCK);
+            case BATCH -> "Booking overlaps with another booking in the batch";
+        };
     }
 
     private void validateDates(java.time.LocalDate startDate, java.time.LocalDate endDate) {
-        if (!startDate.isBefore(endDate)) {
-            throw new IllegalArgumentException("startDate must be before endDate");
-        }
+        OccupancyRules.validateDates(startDate, endDate);
+    }
+
+    private Booking newBooking(BookingRequest request) {
+        Booking booking = new Booking();
+        booking.setPropertyId(request.getPropertyId());
+        booking.setGuestName(request.getGuestName());
+        booking.setGuestEmail(request.getGuestEmail());
+        booking.setStartDate(request.getStartDate());
+        booking.setEndDate(request.getEndDate());
+        booking.setStatus(BookingStatus.ACTIVE);
+        return booking;
+    }
+
+    /**
+     * Rejects the write when the client's If-Match version is stale. A concurrent write that
+     * commits after this check is still caught by the @Version check when the row is flushed.
+     */
+    private void checkVersion(Booking booking, Long expectedVersion) {
+        OccupancyRules.checkVersion(OccupancyType.BOOKING, booking.getId(), booking.getVersion(), expectedVersion);
     }
 
     private Booking findBookingOrThrow(Long id) {
         return bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
     }
-
-    private BookingResponse toResponse(Booking booking) {
-        BookingResponse response = new BookingResponse();
-        response.setId(booking.getId());
-        response.setPropertyId(booking.getPropertyId());
-        response.setGuestName(booking.getGuestName());
-        response.setGuestEmail(booking.getGuestEmail());
-        response.setStartDate(booking.getStartDate());
-        response.setEndDate(booking.getEndDate());
-        response.setStatus(booking.getStatus());
-        return response;
-    }
 }
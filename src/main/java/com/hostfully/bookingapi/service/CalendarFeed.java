@@ -0,0 +1,271 @@
+package com.hostfully.bookingapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hostfully.bookingapi.entity.Block;
+import com.hostfully.bookingapi.entity.Booking;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.repository.BlockRepository;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * iCalendar (RFC 5545) feeds of a property's active bookings and blocks, for channel partners
+ * that poll them. A rendered feed is kept gzip-compressed and served again until a write to the
+ * property commits on this node, or until {@code booking.calendar.max-staleness} passes, which
+ * bounds how long writes made through other nodes go unseen. Rows are streamed from the database
+ * straight into the compressor, so only the compressed feed is held in memory.
+ */
+@Service
+public class CalendarFeed {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    /**
+     * A rendered feed. The entity tag is a digest of the content without the DTSTAMP lines, so a
+     * feed rendered again with the same events keeps its tag and its last-modified time.
+     */
+    public record Rendered(long generation, byte[] gzip, String etag, Instant lastModified) {
+
+        public InputStream uncompressed() {
+            try {
+                return new GZIPInputStream(new ByteArrayInputStream(gzip));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private final BookingRepository bookingRepository;
+    private final BlockRepository blockRepository;
+    private final OverlapCache overlapCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter renders;
+    private final Cache<String, Rendered> feeds;
+    private final Map<String, CompletableFuture<Rendered>> rendering = new ConcurrentHashMap<>();
+
+    public CalendarFeed(BookingRepository bookingRepository, BlockRepository blockRepository, OverlapCache overlapCache,
+                        EntityManager entityManager, PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${booking.calendar.cache-size:64MB}") DataSize cacheSize,
+                        @Value("${booking.calendar.max-staleness:5m}") Duration maxStaleness) {
+        this.bookingRepository = bookingRepository;
+        this.blockRepository = blockRepository;
+        this.overlapCache = overlapCache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.renders = Counter.builder("booking.calendar.renders").register(meterRegistry);
+        this.feeds = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                .weigher((String propertyId, Rendered feed) -> feed.gzip().length)
+                .expireAfterWrite(maxStaleness)
+                .build();
+    }
+
+    /**
+     * Returns the property's feed, rendering it first if a write committed since it was last
+     * rendered. Concurrent requests for a stale feed wait for a single render. The render runs
+     * outside the cache's map locks, which are monitors, so waiting virtual threads are not
+     * pinned to their carriers; waiters park on the renderer's future instead.
+     */
+    public Rendered get(String propertyId) {
+        // Read before rendering: a write committing mid-render bumps it, so the next request renders again.
+        long generation = overlapCache.generation(propertyId);
+        while (true) {
+            Rendered cached = feeds.getIfPresent(propertyId);
+            if (cached != null && cached.generation() >= generation) {
+                return cached;
+            }
+            CompletableFuture<Rendered> pending = new CompletableFuture<>();
+            CompletableFuture<Rendered> inFlight = rendering.putIfAbsent(propertyId, pending);
+            if (inFlight == null) {
+                try {
+                    Rendered rendered = render(propertyId, generation, cached);
+                    feeds.asMap().merge(propertyId, rendered,
+                            (current, fresh) -> fresh.generation() >= current.generation() ? fresh : current);
+                    pending.complete(rendered);
+                    return rendered;
+                } catch (RuntimeException e) {
+                    pending.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    rendering.remove(propertyId, pending);
+                }
+            }
+            Rendered rendered = await(inFlight);
+            // A render started before this request's generation may miss a write it must see.
+            if (rendered.generation() >= generation) {
+                return rendered;
+            }
+        }
+    }
+
+    private static Rendered await(CompletableFuture<Rendered> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Rendered render(String propertyId, long generation, Rendered previous) {
+        renders.increment();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        MessageDigest digest = sha256();
+        try (ICalendarWriter writer = new ICalendarWriter(new BufferedOutputStream(new GZIPOutputStream(buffer)), digest)) {
+            writer.line("BEGIN:VCALENDAR");
+            writer.line("VERSION:2.0");
+            writer.line("PRODID:-//Hostfully//Booking API//EN");
+            writer.line("CALSCALE:GREGORIAN");
+            writer.line("METHOD:PUBLISH");
+            writer.line("X-WR-CALNAME:" + escape(propertyId));
+            String stamp = "DTSTAMP:" + TIMESTAMP.format(now);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Booking> bookings = bookingRepository.streamAll(propertyId, BookingStatus.ACTIVE, null, null)) {
+                    bookings.forEach(booking -> {
+                        writer.event("booking-" + booking.getId(), stamp, booking.getStartDate(), booking.getEndDate(),
+                                "Reserved", null);
+                        entityManager.detach(booking);
+                    });
+                }
+                try (Stream<Block> blocks = blockRepository.streamAll(propertyId, null, null)) {
+                    blocks.forEach(block -> {
+                        writer.event("block-" + block.getId(), stamp, block.getStartDate(), block.getEndDate(),
+                                "Blocked", block.getRecurrence());
+                        entityManager.detach(block);
+                    });
+                }
+            });
+            writer.line("END:VCALENDAR");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        String etag = "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        if (previous != null && previous.etag().equals(etag)) {
+            return new Rendered(generation, previous.gzip(), etag, previous.lastModified());
+        }
+        return new Rendered(generation, buffer.toByteArray(), etag, now);
+    }
+
+    /** Escapes a TEXT value: backslashes, semicolons, commas and line breaks. */
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Writes CRLF-terminated content lines, folded at 75 octets as RFC 5545 requires. */
+    private static final class ICalendarWriter implements AutoCloseable {
+
+        private static final int MAX_LINE_OCTETS = 75;
+        private static final byte[] CRLF = {'\r', '\n'};
+        private static final byte[] FOLD = {'\r', '\n', ' '};
+
+        private final OutputStream out;
+        private final MessageDigest digest;
+
+        ICalendarWriter(OutputStream out, MessageDigest digest) {
+            this.out = out;
+            this.digest = digest;
+        }
+
+        /** Writes one event; a recurring block is one event whose RRULE repeats it, as stored. */
+        void event(String uid, String stamp, LocalDate startDate, LocalDate endDate, String summary, String recurrence) {
+            try {
+                line("BEGIN:VEVENT");
+                line("UID:" + uid + "@booking-api");
+                write(stamp.getBytes(StandardCharsets.UTF_8));
+                line("DTSTART;VALUE=DATE:" + DATE.format(startDate));
+                line("DTEND;VALUE=DATE:" + DATE.format(endDate));
+                if (recurrence != null) {
+                    line("RRULE:" + recurrence);
+                }
+                line("SUMMARY:" + summary);
+                line("TRANSP:OPAQUE");
+                line("END:VEVENT");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void line(String content) throws IOException {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            digest.update(bytes);
+            digest.update(CRLF);
+            write(bytes);
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            int start = 0;
+            int limit = MAX_LINE_OCTETS;
+            while (bytes.length - start > limit) {
+                int end = start + limit;
+                // Never split a multi-byte UTF-8 character.
+                while ((bytes[end] & 0xC0) == 0x80) {
+                    end--;
+                }
+                out.write(bytes, start, end - start);
+                out.write(FOLD);
+                start = end;
+                limit = MAX_LINE_OCTETS - 1;
+            }
+            out.write(bytes, start, bytes.length - start);
+            out.write(CRLF);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.hostfully.bookingapi.service;
+
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.service.BookingService.GroupCancel;
+import com.hostfully.bookingapi.service.BookingService.GroupCreate;
+import com.hostfully.bookingapi.service.BookingService.GroupResult;
+import com.hostfully.bookingapi.service.BookingService.GroupWrite;
+import com.hostfully.bookingapi.sharding.ShardContext;
+import com.hostfully.bookingapi.sharding.ShardRouter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for booking creates and cancels. Callers queue their write and wait; a single
+ * committer thread takes the first queued write, keeps collecting for up to
+ * {@code booking.group-commit.window} or until {@code booking.group-commit.max-size} writes, and
+ * applies the group with {@link BookingService#commitGroup} in one transaction per shard. Each
+ * caller then gets its own response or the exception its write would have thrown alone; if a
+ * group's transaction fails as a whole, its writes are applied again one at a time. Under load,
+ * writes that arrive while a group commits form the next group, so one commit is paid per group
+ * instead of per write; an idle caller waits at most one window longer. A caller gives up after
+ * {@code booking.group-commit.timeout}; its write is dropped if the committer has not taken it yet.
+ */
+@Component
+public class GroupCommitPipeline {
+
+    private record Pending(String shard, GroupWrite write, CompletableFuture<BookingResponse> result) {
+    }
+
+    private final BookingService bookingService;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxSize;
+    private final Duration timeout;
+    private final DistributionSummary groupSizes;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread committer;
+
+    public GroupCommitPipeline(BookingService bookingService, ShardRouter shardRouter, MeterRegistry meterRegistry,
+                               @Value("${booking.group-commit.enabled:false}") boolean enabled,
+                               @Value("${booking.group-commit.window:2ms}") Duration window,
+                               @Value("${booking.group-commit.max-size:256}") int maxSize,
+                               @Value("${booking.group-commit.timeout:10s}") Duration timeout) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("booking.group-commit.max-size must be positive");
+        }
+        this.bookingService = bookingService;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.groupSizes = DistributionSummary.builder("booking.group-commit.size")
+                .description("Writes applied per group commit")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            running = true;
+            committer = new Thread(this::run, "booking-group-commit");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        running = false;
+        committer.interrupt();
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new IllegalStateException("Shutting down"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Creates the booking as part of the next group. Must be called on the property's shard. */
+    public BookingResponse create(BookingRequest request) {
+        return submit(new GroupCreate(request));
+    }
+
+    /** Cancels the booking as part of the next group. Must be called on the booking's shard. */
+    public BookingResponse cancel(Long id, Long expectedVersion) {
+        return submit(new GroupCancel(id, expectedVersion));
+    }
+
+    private BookingResponse submit(GroupWrite write) {
+        if (!running) {
+            throw new IllegalStateException("Group commit is not running");
+        }
+        Pending pending = new Pending(ShardContext.current(), write, new CompletableFuture<>());
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Shutting down");
+        }
+        try {
+            return pending.result().get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("Group commit did not start within " + timeout);
+            }
+            throw new IllegalStateException("Group commit did not finish within " + timeout
+                    + "; the write may still be applied");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Pending> group = new ArrayList<>();
+                group.add(first);
+                long deadline = System.nanoTime() + window.toNanos();
+                while (group.size() < maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void commit(List<Pending> group) {
+        groupSizes.record(group.size());
+        Map<String, List<Pending>> byShard = new LinkedHashMap<>();
+        group.forEach(pending -> byShard.computeIfAbsent(pending.shard(), key -> new ArrayList<>()).add(pending));
+        byShard.forEach(this::commit);
+    }
+
+    private void commit(String shard, List<Pending> part) {
+        List<GroupResult> results;
+        try {
+            results = shardRouter.onShard(shard,
+                    () -> bookingService.commitGroup(part.stream().map(Pending::write).toList()));
+        } catch (RuntimeException e) {
+            if (part.size() == 1) {
+                part.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // The whole group rolled back, for example on a row a single write changed meanwhile.
+            // Apply its writes one at a time so that only the one that fails gets the error.
+            part.forEach(pending -> commit(shard, List.of(pending)));
+            return;
+        }
+        for (int i = 0; i < part.size(); i++) {
+            GroupResult result = results.get(i);
+            if (result.error() == null) {
+                part.get(i).result().complete(result.response());
+            } else {
+                part.get(i).result().completeExceptionally(result.error());
+            }
+        }
+    }
+}
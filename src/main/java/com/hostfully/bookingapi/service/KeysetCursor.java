@@ -0,0 +1,31 @@
+package com.hostfully.bookingapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in (propertyId, startDate, id) order, encoded as an
+ * opaque URL-safe token.
+ */
+public record KeysetCursor(String propertyId, LocalDate startDate, Long id) {
+
+    public String encode() {
+        String raw = id + "|" + startDate + "|" + propertyId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(parts[2], LocalDate.parse(parts[1]), Long.parseLong(parts[0]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.hostfully.bookingapi.service;
+
+import com.hostfully.bookingapi.entity.Block;
+import com.hostfully.bookingapi.entity.Booking;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.service.OccupancyIndex.OccupiedRange;
+import com.hostfully.bookingapi.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Materializes every night held by an active booking or block as a row of the occupancy table,
+ * keyed by property and night. The primary key makes a double booking a constraint violation
+ * even for writers that bypass the property locks, and conflict checks are answered by a
+ * primary-key range scan over the requested nights. Rows are written with batched JDBC
+ * statements in the caller's transaction.
+ * <p>
+ * With the mode off the table is neither written nor read, so rows stored while it was off
+ * cannot fail on it. It is therefore rebuilt at startup when the mode is on; nodes starting
+ * together take turns through the {@code occupancy-rebuild} row of {@code maintenance_locks}.
+ */
+@Component
+public class NightOccupancy {
+
+    private static final Logger log = LoggerFactory.getLogger(NightOccupancy.class);
+
+    private static final String INSERT =
+            "INSERT INTO occupancy (property_id, night, occupancy_type, occupant_id) VALUES (?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM occupancy WHERE occupancy_type = ? AND occupant_id = ?";
+    private static final String FIND_OVERLAP =
+            "SELECT occupancy_type FROM occupancy WHERE property_id = ? AND night >= ? AND night < ? " +
+            "AND NOT (occupancy_type = ? AND occupant_id = ?) FETCH FIRST 1 ROWS ONLY";
+    private static final String LOCK_NAME = "occupancy-rebuild";
+    // Every stored night numbered per property and night, so that a night held twice, such as by
+    // rows written before the table existed, is kept once instead of failing the rebuild.
+    private static final String HOLDERS =
+            "WITH RECURSIVE nights (property_id, night, end_date, occupancy_type, occupant_id) AS (" +
+            "SELECT property_id, start_date, end_date, CAST('BOOKING' AS VARCHAR(255)), id FROM bookings WHERE status = 'ACTIVE' " +
+            "UNION ALL SELECT property_id, start_date, end_date, CAST('BLOCK' AS VARCHAR(255)), id FROM blocks " +
+            "UNION ALL SELECT property_id, DATEADD(DAY, 1, night), end_date, occupancy_type, occupant_id FROM nights " +
+            "WHERE DATEADD(DAY, 1, night) < end_date) " +
+            "SELECT property_id, night, occupancy_type, occupant_id FROM (" +
+            "SELECT property_id, night, occupancy_type, occupant_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY property_id, night ORDER BY occupant_id, occupancy_type) AS holder " +
+            "FROM nights WHERE night < end_date) held ";
+    private static final String BACKFILL =
+            "INSERT INTO occupancy (property_id, night, occupancy_type, occupant_id) " + HOLDERS + "WHERE holder = 1";
+    private static final String COUNT_SKIPPED = "SELECT COUNT(*) FROM (" + HOLDERS + "WHERE holder > 1) skipped";
+
+    private record Night(String propertyId, LocalDate night, OccupancyType type, Long occupantId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public NightOccupancy(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          ShardRouter shardRouter,
+                          @Value("${booking.occupancy-table.enabled:false}") boolean enabled,
+                          @Value("${booking.occupancy-table.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("booking.occupancy-table.batch-size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void rebuildIfEnabled() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Refills the table from the bookings and blocks tables in one set-based statement per shard.
+     * Writes keep the table current while the mode is on, so this is otherwise only needed after
+     * rows were changed without going through the services. A night that stored rows hold more
+     * than once keeps one holder and is logged; the overlap itself has to be resolved by hand.
+     */
+    public void rebuild() {
+        for (String shard : shardRouter.shards()) {
+            Integer skipped = shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForList("SELECT name FROM maintenance_locks WHERE name = ? FOR UPDATE",
+                        String.class, LOCK_NAME);
+                jdbcTemplate.update("DELETE FROM occupancy");
+                jdbcTemplate.update(BACKFILL);
+                return jdbcTemplate.queryForObject(COUNT_SKIPPED, Integer.class);
+            }));
+            if (skipped != null && skipped > 0) {
+                log.warn("{} nights on {} are held by more than one booking or block; kept one holder each", skipped, shard);
+            }
+        }
+    }
+
+    /**
+     * Claims the nights of the given ranges in one batch, when the mode is on. When another booking or block already
+     * holds one of them, the batch fails and an {@link OverlapException} is thrown with the
+     * message the caller uses for a conflict of that type; the transaction must then roll back.
+     */
+    public void occupy(List<OccupiedRange> ranges, Function<OccupancyType, String> conflictMessage) {
+        if (!enabled || ranges.isEmpty()) {
+            return;
+        }
+        try {
+            insert(ranges);
+        } catch (DuplicateKeyException e) {
+            OccupancyType holder = ranges.stream()
+                    .map(range -> findOverlap(range.propertyId(), range.startDate(), range.endDate(), range.type(), range.id()))
+                    .flatMap(Optional::stream)
+                    .findFirst()
+                    .orElse(OccupancyType.BOOKING);
+            throw new OverlapException(conflictMessage.apply(holder));
+        }
+    }
+
+    public void release(OccupancyType type, Long id) {
+        if (enabled) {
+            jdbcTemplate.update(DELETE, type.name(), id);
+        }
+    }
+
+    /**
+     * Returns the type of the booking or block holding any night of [startDate, endDate),
+     * ignoring the entry identified by excludeType and excludeId.
+     */
+    public Optional<OccupancyType> findOverlap(String propertyId, LocalDate startDate, LocalDate endDate,
+                                               OccupancyType excludeType, Long excludeId) {
+        return jdbcTemplate.query(FIND_OVERLAP, (rs, rowNum) -> OccupancyType.valueOf(rs.getString(1)),
+                        propertyId, Date.valueOf(startDate), Date.valueOf(endDate),
+                        excludeType == null ? "" : excludeType.name(), excludeId == null ? -1L : excludeId)
+                .stream()
+                .findFirst();
+    }
+
+    public static OccupiedRange toRange(Booking booking) {
+        return new OccupiedRange(OccupancyType.BOOKING, booking.getId(), booking.getPropertyId(),
+                booking.getStartDate(), booking.getEndDate());
+    }
+
+    public static OccupiedRange toRange(Block block) {
+        return new OccupiedRange(OccupancyType.BLOCK, block.getId(), block.getPropertyId(),
+                block.getStartDate(), block.getEndDate());
+    }
+
+    private void insert(List<OccupiedRange> ranges) {
+        List<Night> nights = ranges.stream()
+                .flatMap(NightOccupancy::nights)
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT, nights, batchSize, (ps, night) -> {
+            ps.setString(1, night.propertyId());
+            ps.setDate(2, Date.valueOf(night.night()));
+            ps.setString(3, night.type().name());
+            ps.setLong(4, night.occupantId());
+        });
+    }
+
+    private static Stream<Night> nights(OccupiedRange range) {
+        return range.startDate().datesUntil(range.endDate())
+                .map(night -> new Night(range.propertyId(), night, range.type(), range.id()));
+    }
+}
@@ -0,0 +1,464 @@
+package com.hostfully.bookingapi.service;
+
+import com.hostfully.bookingapi.dto.IndexConsistencyResponse;
+import com.hostfully.bookingapi.entity.Block;
+import com.hostfully.bookingapi.entity.Booking;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the nights occupied by active bookings and blocks, kept per property.
+ * Overlap checks are answered from a sorted set of ranges without going to the database.
+ * Changes made inside a transaction are applied once it commits.
+ * <p>
+ * The index is rebuilt at startup by reading the bookings and blocks tables in primary-key slices
+ * on {@code booking.occupancy-index.warm-up-threads} threads, with plain JDBC rows instead of
+ * entities, so a restart on persistent storage is ready to serve without a long single-threaded scan.
+ * <p>
+ * The index only sees writes committed through this node, so it is switched off when
+ * {@code booking.multi-node} is set and overlap checks go to the database under the property lock.
+ */
+@Component
+public class OccupancyIndex {
+
+    private static final Comparator<OccupiedRange> ORDER = Comparator.comparing(OccupiedRange::startDate)
+            .thenComparing(OccupiedRange::type)
+            .thenComparing(OccupiedRange::id);
+
+    /** Rows read by one warm-up query; keeps each result set small enough to stay in memory. */
+    private static final long SLICE_ROWS = 25_000;
+    private static final String PROPERTY_IDS = "SELECT DISTINCT property_id FROM bookings";
+    private static final String BOOKING_RANGES = "SELECT id, property_id, start_date, end_date FROM bookings " +
+            "WHERE status = 'ACTIVE' AND id BETWEEN ? AND ?";
+    private static final String BLOCK_RANGES = "SELECT id, property_id, start_date, end_date FROM blocks " +
+            "WHERE id BETWEEN ? AND ?";
+    private static final String STORED_PROPERTY_IDS = "SELECT property_id FROM bookings WHERE status = 'ACTIVE' " +
+            "UNION SELECT property_id FROM blocks";
+    private static final String STORED_BOOKING_RANGES = "SELECT id, start_date, end_date FROM bookings " +
+            "WHERE property_id = ? AND status = 'ACTIVE'";
+    private static final String STORED_BLOCK_RANGES = "SELECT id, start_date, end_date FROM blocks WHERE property_id = ?";
+    /** Stripes serializing updates to the same booking or block id. */
+    private static final int ID_LOCK_STRIPES = 64;
+
+    private final ShardRouter shardRouter;
+    private final PropertyLockManager propertyLockManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int warmUpThreads;
+    private volatile String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final NavigableMap<String, PropertyRanges> properties = new ConcurrentSkipListMap<>();
+    private final Map<Long, OccupiedRange> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, OccupiedRange> blocks = new ConcurrentHashMap<>();
+    private final ReentrantLock[] idLocks = new ReentrantLock[ID_LOCK_STRIPES];
+
+    public OccupancyIndex(ShardRouter shardRouter, PropertyLockManager propertyLockManager, JdbcTemplate jdbcTemplate,
+                          @Value("${booking.occupancy-index.enabled:true}") boolean enabled,
+                          @Value("${booking.multi-node:false}") boolean multiNode,
+                          @Value("${booking.occupancy-index.warm-up-threads:4}") int warmUpThreads) {
+        if (warmUpThreads <= 0) {
+            throw new IllegalArgumentException("booking.occupancy-index.warm-up-threads must be positive");
+        }
+        this.shardRouter = shardRouter;
+        this.propertyLockManager = propertyLockManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled && !multiNode;
+        this.warmUpThreads = warmUpThreads;
+        Arrays.setAll(idLocks, i -> new ReentrantLock());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        epoch = Long.toString(System.currentTimeMillis(), 36);
+        properties.clear();
+        bookings.clear();
+        blocks.clear();
+        // Tasks use only the JdbcTemplate: this runs while the bean is being created, and repository
+        // calls from other threads can block on the bean factory until that finishes.
+        List<Runnable> tasks = new ArrayList<>();
+        for (String shard : shardRouter.shards()) {
+            tasks.add(() -> shardRouter.onShard(shard, () -> jdbcTemplate.queryForList(PROPERTY_IDS, String.class))
+                    .forEach(this::rangesFor));
+            addSlices(tasks, shard, "bookings", BOOKING_RANGES, OccupancyType.BOOKING, bookings);
+            addSlices(tasks, shard, "blocks", BLOCK_RANGES, OccupancyType.BLOCK, blocks);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(warmUpThreads, tasks.size()));
+        try {
+            CompletableFuture.allOf(tasks.stream()
+                            .map(task -> CompletableFuture.runAsync(task, executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the table's id range into equal-width slices of about {@link #SLICE_ROWS} rows each,
+     * and at least one per warm-up thread, each loaded by its own task.
+     */
+    private void addSlices(List<Runnable> tasks, String shard, String table, String query,
+                           OccupancyType type, Map<Long, OccupiedRange> byId) {
+        long[] bounds = shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*), MIN(id), MAX(id) FROM " + table,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)}));
+        if (bounds[0] == 0) {
+            return;
+        }
+        long min = bounds[1];
+        long max = bounds[2];
+        long slices = Math.max(warmUpThreads, (bounds[0] + SLICE_ROWS - 1) / SLICE_ROWS);
+        long width = Math.max(1, (max - min) / slices + 1);
+        for (long from = min; from <= max; from += width) {
+            long lower = from;
+            long upper = Math.min(max, from + width - 1);
+            tasks.add(() -> shardRouter.onShard(shard, () -> {
+                jdbcTemplate.query(query, rs -> {
+                    OccupiedRange range = new OccupiedRange(type, rs.getLong(1), rs.getString(2),
+                            rs.getObject(3, LocalDate.class), rs.getObject(4, LocalDate.class));
+                    apply(byId, range.id(), range);
+                }, lower, upper);
+                return null;
+            }));
+            if (upper == max) {
+                break;
+            }
+        }
+    }
+
+    public void indexBooking(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        OccupiedRange range = booking.getStatus() == BookingStatus.ACTIVE ? toRange(booking) : null;
+        replace(bookings, booking.getId(), range);
+    }
+
+    public void removeBooking(Long id) {
+        if (enabled) {
+            replace(bookings, id, null);
+        }
+    }
+
+    public void indexBlock(Block block) {
+        if (enabled) {
+            replace(blocks, block.getId(), toRange(block));
+        }
+    }
+
+    public void removeBlock(Long id) {
+        if (enabled) {
+            replace(blocks, id, null);
+        }
+    }
+
+    /**
+     * Returns the type of the first active booking or block overlapping [startDate, endDate),
+     * ignoring the entry identified by excludeType and excludeId.
+     */
+    public Optional<OccupancyType> findOverlap(String propertyId, LocalDate startDate, LocalDate endDate,
+                                               OccupancyType excludeType, Long excludeId) {
+        PropertyRanges ranges = properties.get(propertyId);
+        if (ranges == null) {
+            return Optional.empty();
+        }
+        OccupiedRange overlap = ranges.findOverlap(startDate, endDate, excludeType, excludeId);
+        return overlap == null ? Optional.empty() : Optional.of(overlap.type());
+    }
+
+    /**
+     * Returns the active bookings and blocks of a property overlapping [from, to), ordered by start date.
+     */
+    public List<OccupiedRange> findRanges(String propertyId, LocalDate from, LocalDate to) {
+        PropertyRanges ranges = properties.get(propertyId);
+        return ranges == null ? List.of() : ranges.between(from, to);
+    }
+
+    /**
+     * Returns up to limit properties, in id order after the given cursor, that have no active
+     * booking or block overlapping [from, to). Only properties that have ever had a booking or
+     * block are known to the index.
+     */
+    public List<String> findFreeProperties(LocalDate from, LocalDate to, String after, int limit) {
+        Map<String, PropertyRanges> candidates = after == null ? properties : properties.tailMap(after, false);
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, PropertyRanges> entry : candidates.entrySet()) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (entry.getValue().findOverlap(from, to, null, null) == null) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a tag that changes whenever the occupancy of the property changes, including
+     * across index rebuilds and restarts.
+     */
+    public String versionTag(String propertyId) {
+        PropertyRanges ranges = properties.get(propertyId);
+        return epoch + "-" + (ranges == null ? 0 : ranges.version());
+    }
+
+    /**
+     * Compares the index with the stored rows one property at a time, holding the property's
+     * stripe so that writes in flight on this node are either fully visible in both or in neither.
+     * Rows are read as (id, start, end) projections rather than entities.
+     */
+    public IndexConsistencyResponse verify() {
+        IndexConsistencyResponse response = new IndexConsistencyResponse();
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        Set<String> unchecked = new HashSet<>(properties.keySet());
+        for (String shard : shardRouter.shards()) {
+            for (String propertyId : shardRouter.onShard(shard,
+                    () -> jdbcTemplate.queryForList(STORED_PROPERTY_IDS, String.class))) {
+                unchecked.remove(propertyId);
+                propertyLockManager.withStripe(propertyId, () -> shardRouter.onShard(shard,
+                        () -> verifyProperty(propertyId, response, missing, stale)));
+            }
+        }
+        // Properties the index knows but no shard stores anything for: all their ranges are stale.
+        for (String propertyId : unchecked) {
+            propertyLockManager.withStripe(propertyId, () -> {
+                compare(List.of(), indexedRanges(propertyId), response, missing, stale);
+                return null;
+            });
+        }
+        response.setConsistent(missing.isEmpty() && stale.isEmpty());
+        response.setMissing(missing);
+        response.setStale(stale);
+        return response;
+    }
+
+    private Void verifyProperty(String propertyId, IndexConsistencyResponse response,
+                                List<String> missing, List<String> stale) {
+        List<OccupiedRange> stored = new ArrayList<>(storedRanges(STORED_BOOKING_RANGES, OccupancyType.BOOKING, propertyId));
+        stored.addAll(storedRanges(STORED_BLOCK_RANGES, OccupancyType.BLOCK, propertyId));
+        compare(stored, indexedRanges(propertyId), response, missing, stale);
+        return null;
+    }
+
+    private static void compare(List<OccupiedRange> stored, List<OccupiedRange> indexed, IndexConsistencyResponse response,
+                                List<String> missing, List<String> stale) {
+        Map<String, OccupiedRange> remaining = new HashMap<>();
+        for (OccupiedRange range : indexed) {
+            remaining.put(key(range.type(), range.id()), range);
+            if (range.type() == OccupancyType.BOOKING) {
+                response.setIndexedBookings(response.getIndexedBookings() + 1);
+            } else {
+                response.setIndexedBlocks(response.getIndexedBlocks() + 1);
+            }
+        }
+        for (OccupiedRange range : stored) {
+            if (range.type() == OccupancyType.BOOKING) {
+                response.setStoredBookings(response.getStoredBookings() + 1);
+            } else {
+                response.setStoredBlocks(response.getStoredBlocks() + 1);
+            }
+            String key = key(range.type(), range.id());
+            OccupiedRange match = remaining.remove(key);
+            if (match == null) {
+                missing.add(key);
+            } else if (!match.equals(range)) {
+                stale.add(key);
+            }
+        }
+        stale.addAll(remaining.keySet());
+    }
+
+    private List<OccupiedRange> storedRanges(String query, OccupancyType type, String propertyId) {
+        return jdbcTemplate.query(query, (rs, rowNum) -> new OccupiedRange(type, rs.getLong(1), propertyId,
+                rs.getObject(2, LocalDate.class), rs.getObject(3, LocalDate.class)), propertyId);
+    }
+
+    private List<OccupiedRange> indexedRanges(String propertyId) {
+        PropertyRanges ranges = properties.get(propertyId);
+        return ranges == null ? List.of() : ranges.all();
+    }
+
+    private void replace(Map<Long, OccupiedRange> byId, Long id, OccupiedRange range) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(byId, id, range);
+                }
+            });
+        } else {
+            apply(byId, id, range);
+        }
+    }
+
+    /**
+     * Swaps the entry's range under its id stripe rather than inside {@code ConcurrentHashMap.compute}:
+     * the bin lock there is a monitor, and taking the property's read-write lock while holding it
+     * would pin a virtual thread to its carrier.
+     */
+    private void apply(Map<Long, OccupiedRange> byId, Long id, OccupiedRange range) {
+        ReentrantLock lock = idLocks[Math.floorMod(id.hashCode(), idLocks.length)];
+        lock.lock();
+        try {
+            OccupiedRange previous = range == null ? byId.remove(id) : byId.put(id, range);
+            if (previous != null) {
+                rangesFor(previous.propertyId()).remove(previous);
+            }
+            if (range != null) {
+                rangesFor(range.propertyId()).add(range);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PropertyRanges rangesFor(String propertyId) {
+        return properties.computeIfAbsent(propertyId, id -> new PropertyRanges());
+    }
+
+    private static String key(OccupancyType type, Long id) {
+        return type + ":" + id;
+    }
+
+    private static OccupiedRange toRange(Booking booking) {
+        return new OccupiedRange(OccupancyType.BOOKING, booking.getId(), booking.getPropertyId(),
+                booking.getStartDate(), booking.getEndDate());
+    }
+
+    private static OccupiedRange toRange(Block block) {
+        return new OccupiedRange(OccupancyType.BLOCK, block.getId(), block.getPropertyId(),
+                block.getStartDate(), block.getEndDate());
+    }
+
+    public record OccupiedRange(OccupancyType type, Long id, String propertyId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    /**
+     * Guarded by a read-write lock rather than monitors, so virtual threads waiting on it
+     * unmount from their carrier instead of pinning it.
+     */
+    private static final class PropertyRanges {
+
+        private final NavigableSet<OccupiedRange> ranges = new TreeSet<>(ORDER);
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private long version;
+
+        void add(OccupiedRange range) {
+            lock.writeLock().lock();
+            try {
+                ranges.add(range);
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(OccupiedRange range) {
+            lock.writeLock().lock();
+            try {
+                ranges.remove(range);
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        long version() {
+            lock.readLock().lock();
+            try {
+                return version;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<OccupiedRange> all() {
+            lock.readLock().lock();
+            try {
+                return new ArrayList<>(ranges);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<OccupiedRange> between(LocalDate from, LocalDate to) {
+            lock.readLock().lock();
+            try {
+                List<OccupiedRange> result = new ArrayList<>();
+                OccupiedRange first = ranges.lower(probe(from));
+                if (first != null && first.endDate().isAfter(from)) {
+                    result.add(first);
+                }
+                result.addAll(ranges.subSet(probe(from), true, probe(to), false));
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        OccupiedRange findOverlap(LocalDate startDate, LocalDate endDate,
+                                  OccupancyType excludeType, Long excludeId) {
+            lock.readLock().lock();
+            try {
+                Iterator<OccupiedRange> candidates = ranges.headSet(probe(endDate), false).descendingIterator();
+                while (candidates.hasNext()) {
+                    OccupiedRange candidate = candidates.next();
+                    if (candidate.type() == excludeType && Objects.equals(candidate.id(), excludeId)) {
+                        continue;
+                    }
+                    // Active ranges never overlap each other, so only the latest one starting
+                    // before endDate can reach past startDate.
+                    return candidate.endDate().isAfter(startDate) ? candidate : null;
+                }
+                return null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /** Sorts before every range starting on the given date. */
+        private static OccupiedRange probe(LocalDate date) {
+            return new OccupiedRange(OccupancyType.BOOKING, Long.MIN_VALUE, null, date, date);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hostfully.bookingapi.service;
+
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.exception.PreconditionFailedException;
+import java.time.LocalDate;
+
+/**
+ * Date, overlap and version rules for bookings and blocks, shared by the services and the
+ * reactive variant so both reject the same writes with the same messages.
+ */
+public final class OccupancyRules {
+
+    private OccupancyRules() {
+    }
+
+    public static void validateDates(LocalDate startDate, LocalDate endDate) {
+        if (!startDate.isBefore(endDate)) {
+            throw new IllegalArgumentException("startDate must be before endDate");
+        }
+    }
+
+    /** The message for a booking whose nights are held by an entry of the given kind. */
+    public static String bookingOverlapMessage(OccupancyType holder) {
+        return holder == OccupancyType.BOOKING
+                ? "Booking overlaps with an existing booking"
+                : "Booking overlaps with an existing block";
+    }
+
+    /** The message for a block whose nights are held by an entry of the given kind. */
+    public static String blockOverlapMessage(OccupancyType holder) {
+        return holder == OccupancyType.BOOKING
+                ? "Block overlaps with an existing active booking"
+                : "Block overlaps with an existing block";
+    }
+
+    /** Rejects the write when the client's If-Match version is not the current one. */
+    public static void checkVersion(OccupancyType type, Long id, Long currentVersion, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            String kind = type == OccupancyType.BOOKING ? "Booking " : "Block ";
+            throw new PreconditionFailedException(kind + id + " has been modified; current version is " + currentVersion);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.hostfully.bookingapi.service;
+
+import com.hostfully.bookingapi.config.CacheConfig;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the conflicts found by database overlap checks, so clients retrying a rejected
+ * request are answered without a query. Keys carry a per-property generation that is bumped
+ * after every committed write to the property, which invalidates all of its entries at once.
+ * Free ranges are never cached: a write committed by another node could have taken them.
+ * Conflicts are cached for {@code booking.overlap-cache.expire-after-write} at most, since a
+ * cancel committed on another node does not bump this node's generation; with
+ * {@code booking.multi-node} set they are not cached at all. The generation is also exposed for
+ * other per-property caches, such as calendar feeds.
+ */
+@Component
+public class OverlapCache {
+
+    private final Cache cache;
+    private final boolean multiNode;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public OverlapCache(CacheManager cacheManager, @Value("${booking.multi-node:false}") boolean multiNode) {
+        Cache overlaps = cacheManager.getCache(CacheConfig.OVERLAPS);
+        // Conflicts are found inside transactions that roll back, so entries must not wait for a commit.
+        this.cache = overlaps instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : overlaps;
+        this.multiNode = multiNode;
+    }
+
+    public OccupancyType findOverlap(String propertyId, LocalDate startDate, LocalDate endDate,
+                                     Long excludeBookingId, Long excludeBlockId, Supplier<OccupancyType> loader) {
+        if (multiNode) {
+            return loader.get();
+        }
+        String key = propertyId + "|" + generation(propertyId) + "|" + startDate + "|" + endDate
+                + "|" + excludeBookingId + "|" + excludeBlockId;
+        OccupancyType cached = cache.get(key, OccupancyType.class);
+        if (cached != null) {
+            return cached;
+        }
+        OccupancyType overlap = loader.get();
+        if (overlap != null) {
+            cache.put(key, overlap);
+        }
+        return overlap;
+    }
+
+    public void invalidate(String propertyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter(propertyId).incrementAndGet();
+                }
+            });
+        } else {
+            counter(propertyId).incrementAndGet();
+        }
+    }
+
+    /** Returns a number that changes after every committed write to the property on this node. */
+    public long generation(String propertyId) {
+        return counter(propertyId).get();
+    }
+
+    private AtomicLong counter(String propertyId) {
+        return generations.computeIfAbsent(propertyId, id -> new AtomicLong());
+    }
+}
@@ -0,0 +1,158 @@
+package com.hostfully.bookingapi.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * A bounded recurrence rule in the RFC 5545 RRULE syntax, limited to {@code FREQ=DAILY},
+ * {@code WEEKLY} or {@code MONTHLY} with an optional {@code INTERVAL} and exactly one of
+ * {@code COUNT} or {@code UNTIL}, for example {@code FREQ=WEEKLY;INTERVAL=2;COUNT=26}.
+ * <p>
+ * A series repeats its first occurrence, so every occurrence lasts as many nights as the first.
+ * Occurrences are found by arithmetic on the rule rather than by expanding the series: the
+ * occurrence nearest a date is estimated from the distance to the series start and corrected by
+ * at most a step, since monthly steps vary in length.
+ */
+public record Recurrence(Frequency frequency, int interval, int count, LocalDate until) {
+
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /** Parses a rule, rejecting parts outside the supported subset with an {@link IllegalArgumentException}. */
+    public static Recurrence parse(String rule) {
+        Frequency frequency = null;
+        int interval = 1;
+        int count = 0;
+        LocalDate until = null;
+        for (String part : rule.trim().split(";")) {
+            String[] pair = part.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid recurrence part: " + part);
+            }
+            String value = pair[1].trim();
+            try {
+                switch (pair[0].trim().toUpperCase(Locale.ROOT)) {
+                    case "FREQ" -> frequency = Frequency.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = LocalDate.parse(value, UNTIL_FORMAT);
+                    default -> throw new IllegalArgumentException("Unsupported recurrence part: " + pair[0].trim());
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid recurrence value: " + part);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence FREQ must be DAILY, WEEKLY or MONTHLY");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("Recurrence INTERVAL must be positive");
+        }
+        if ((count > 0) == (until != null)) {
+            throw new IllegalArgumentException("Recurrence must have exactly one of a positive COUNT or UNTIL");
+        }
+        return new Recurrence(frequency, interval, count, until);
+    }
+
+    /** Formats the rule in the canonical form it is stored and returned in. */
+    public String format() {
+        return "FREQ=" + frequency + ";INTERVAL=" + interval
+                + (until == null ? ";COUNT=" + count : ";UNTIL=" + UNTIL_FORMAT.format(until));
+    }
+
+    /**
+     * Checks that the series starting with [startDate, endDate) is well formed: occurrences must
+     * not overlap one another, monthly series must start on a day every month has, and the
+     * series must have between one and {@code maxOccurrences} occurrences.
+     */
+    public void validate(LocalDate startDate, LocalDate endDate, int maxOccurrences) {
+        long nights = ChronoUnit.DAYS.between(startDate, endDate);
+        long shortestStep = switch (frequency) {
+            case DAILY -> interval;
+            case WEEKLY -> 7L * interval;
+            case MONTHLY -> 28L * interval;
+        };
+        if (nights > shortestStep) {
+            throw new IllegalArgumentException("Recurring occurrences must not overlap one another");
+        }
+        if (frequency == Frequency.MONTHLY && startDate.getDayOfMonth() > 28) {
+            throw new IllegalArgumentException("Monthly recurrences must start on day 1 to 28 of the month");
+        }
+        if (until != null && until.isBefore(startDate)) {
+            throw new IllegalArgumentException("Recurrence UNTIL must not be before startDate");
+        }
+        if (occurrences(startDate) > maxOccurrences) {
+            throw new IllegalArgumentException("Recurrence must not have more than " + maxOccurrences + " occurrences");
+        }
+    }
+
+    /** The number of occurrences of the series starting on {@code startDate}. */
+    public int occurrences(LocalDate startDate) {
+        if (until == null) {
+            return count;
+        }
+        long steps = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(startDate, until) / interval;
+            case WEEKLY -> ChronoUnit.WEEKS.between(startDate, until) / interval;
+            case MONTHLY -> ChronoUnit.MONTHS.between(startDate, until) / interval;
+        };
+        return (int) Math.min(Integer.MAX_VALUE, steps + 1);
+    }
+
+    /** The start of occurrence {@code index}, counting the first occurrence as zero. */
+    public LocalDate occurrenceStart(LocalDate startDate, int index) {
+        long steps = (long) index * interval;
+        return switch (frequency) {
+            case DAILY -> startDate.plusDays(steps);
+            case WEEKLY -> startDate.plusWeeks(steps);
+            case MONTHLY -> startDate.plusMonths(steps);
+        };
+    }
+
+    /** The end of the last occurrence of the series starting with [startDate, endDate). */
+    public LocalDate seriesEnd(LocalDate startDate, LocalDate endDate) {
+        int last = occurrences(startDate) - 1;
+        return occurrenceStart(startDate, last).plusDays(ChronoUnit.DAYS.between(startDate, endDate));
+    }
+
+    /** Returns whether an occurrence of the series starting with [startDate, endDate) overlaps [from, to). */
+    public boolean overlaps(LocalDate startDate, LocalDate endDate, LocalDate from, LocalDate to) {
+        // Only the first occurrence ending after from can be the earliest to overlap.
+        int index = firstEndingAfter(startDate, endDate, from);
+        return index < occurrences(startDate) && occurrenceStart(startDate, index).isBefore(to);
+    }
+
+    /**
+     * Returns the index of the first occurrence ending after {@code date}, or the number of
+     * occurrences when the whole series ends on or before it.
+     */
+    public int firstEndingAfter(LocalDate startDate, LocalDate endDate, LocalDate date) {
+        long nights = ChronoUnit.DAYS.between(startDate, endDate);
+        int occurrences = occurrences(startDate);
+        LocalDate firstNight = date.minusDays(nights - 1);
+        if (!firstNight.isAfter(startDate)) {
+            return 0;
+        }
+        long estimate = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(startDate, firstNight) / interval;
+            case WEEKLY -> ChronoUnit.WEEKS.between(startDate, firstNight) / interval;
+            case MONTHLY -> ChronoUnit.MONTHS.between(startDate, firstNight) / interval;
+        };
+        int index = (int) Math.min(occurrences, estimate);
+        while (index > 0 && occurrenceStart(startDate, index - 1).plusDays(nights).isAfter(date)) {
+            index--;
+        }
+        while (index < occurrences && !occurrenceStart(startDate, index).plusDays(nights).isAfter(date)) {
+            index++;
+        }
+        return index;
+    }
+}
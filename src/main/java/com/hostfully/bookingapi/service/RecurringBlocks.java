@@ -0,0 +1,250 @@
+package com.hostfully.bookingapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hostfully.bookingapi.entity.Block;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.repository.BlockRepository;
+import com.hostfully.bookingapi.service.OccupancyIndex.OccupiedRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Overlap checks against recurring blocks, which are stored as one row per series rather than
+ * one per occurrence. The series of a property are loaded once and kept until a block write to
+ * the property commits; booking writes leave them cached. A check evaluates each series lazily,
+ * computing the single occurrence that could overlap the requested range.
+ * <p>
+ * Properties checked at least {@code booking.recurrence.expansion.hot-threshold} times get their
+ * occurrences for the next {@code booking.recurrence.expansion.horizon-days} expanded into sorted
+ * arrays, so checks inside that window are a binary search however many series they have. At most
+ * {@code booking.recurrence.expansion.cache-size} properties are kept. Series that ended before
+ * the day they were loaded are not considered; writes in the past are rejected anyway.
+ * <p>
+ * With {@code booking.multi-node} set, block writes committed through other nodes would not
+ * invalidate this node's copy, so nothing is cached: every check loads the series from the database.
+ */
+@Component
+public class RecurringBlocks {
+
+    /** One recurring block, as held in memory. */
+    private record Series(Long id, LocalDate startDate, LocalDate endDate, Recurrence recurrence, int occurrences) {
+
+        static Series of(Block block) {
+            Recurrence recurrence = Recurrence.parse(block.getRecurrence());
+            return new Series(block.getId(), block.getStartDate(), block.getEndDate(), recurrence,
+                    recurrence.occurrences(block.getStartDate()));
+        }
+
+        long nights() {
+            return ChronoUnit.DAYS.between(startDate, endDate);
+        }
+
+        boolean overlaps(LocalDate from, LocalDate to) {
+            return recurrence.overlaps(startDate, endDate, from, to);
+        }
+    }
+
+    /**
+     * The occurrences of all series of a property overlapping [from, to) in epoch days, sorted by
+     * start. Occurrences never overlap one another, so their ends are sorted as well.
+     */
+    private record Expansion(long from, long to, long[] starts, long[] ends, Long[] ids) {
+
+        boolean covers(LocalDate startDate, LocalDate endDate) {
+            return startDate.toEpochDay() >= from && endDate.toEpochDay() <= to;
+        }
+
+        boolean overlaps(LocalDate startDate, LocalDate endDate, Long excludeBlockId) {
+            long start = startDate.toEpochDay();
+            long end = endDate.toEpochDay();
+            // The first occurrence ending after start: the one ending the next day or the first that ends later.
+            int found = Arrays.binarySearch(ends, start + 1);
+            for (int i = found >= 0 ? found : -found - 1; i < starts.length && starts[i] < end; i++) {
+                if (!ids[i].equals(excludeBlockId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        private final long generation;
+        private final List<Series> series;
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile Expansion expansion;
+
+        Entry(long generation, List<Series> series) {
+            this.generation = generation;
+            this.series = series;
+        }
+    }
+
+    private final BlockRepository blockRepository;
+    private final int maxOccurrences;
+    private final int hotThreshold;
+    private final int horizonDays;
+    private final boolean multiNode;
+    private final Counter expansions;
+    private final Cache<String, Entry> entries;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public RecurringBlocks(BlockRepository blockRepository, MeterRegistry meterRegistry,
+                           @Value("${booking.recurrence.max-occurrences:520}") int maxOccurrences,
+                           @Value("${booking.recurrence.expansion.cache-size:1000}") long cacheSize,
+                           @Value("${booking.recurrence.expansion.hot-threshold:16}") int hotThreshold,
+                           @Value("${booking.recurrence.expansion.horizon-days:400}") int horizonDays,
+                           @Value("${booking.multi-node:false}") boolean multiNode) {
+        this.blockRepository = blockRepository;
+        this.maxOccurrences = maxOccurrences;
+        this.hotThreshold = hotThreshold;
+        this.horizonDays = horizonDays;
+        this.multiNode = multiNode;
+        this.expansions = Counter.builder("booking.recurrence.expansions").register(meterRegistry);
+        this.entries = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /** Parses a block's recurrence rule and checks that its series starting with [startDate, endDate) is allowed. */
+    public Recurrence parse(String rule, LocalDate startDate, LocalDate endDate) {
+        Recurrence recurrence = Recurrence.parse(rule);
+        recurrence.validate(startDate, endDate, maxOccurrences);
+        return recurrence;
+    }
+
+    /** Returns whether an occurrence of a recurring block of the property overlaps [startDate, endDate). */
+    public boolean overlaps(String propertyId, LocalDate startDate, LocalDate endDate, Long excludeBlockId) {
+        Entry entry = entry(propertyId);
+        if (entry.series.isEmpty()) {
+            return false;
+        }
+        Expansion expansion = expansionFor(propertyId, entry);
+        if (expansion != null && expansion.covers(startDate, endDate)) {
+            return expansion.overlaps(startDate, endDate, excludeBlockId);
+        }
+        for (Series series : entry.series) {
+            if (!series.id().equals(excludeBlockId) && series.overlaps(startDate, endDate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether any occurrence of the series starting with [startDate, endDate) overlaps an
+     * occurrence of a recurring block of the property.
+     */
+    public boolean overlaps(String propertyId, LocalDate startDate, LocalDate endDate, Recurrence recurrence,
+                            Long excludeBlockId) {
+        if (entry(propertyId).series.isEmpty()) {
+            return false;
+        }
+        long nights = ChronoUnit.DAYS.between(startDate, endDate);
+        int occurrences = recurrence.occurrences(startDate);
+        for (int index = 0; index < occurrences; index++) {
+            LocalDate start = recurrence.occurrenceStart(startDate, index);
+            if (overlaps(propertyId, start, start.plusDays(nights), excludeBlockId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Drops the property's cached series once the current transaction commits; called on every block write. */
+    public void invalidate(String propertyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter(propertyId).incrementAndGet();
+                }
+            });
+        } else {
+            counter(propertyId).incrementAndGet();
+        }
+    }
+
+    /** Returns the occurrences of the property's recurring blocks overlapping [from, to), sorted by start. */
+    public List<OccupiedRange> occurrences(String propertyId, LocalDate from, LocalDate to) {
+        return occurrences(propertyId, entry(propertyId).series, from, to);
+    }
+
+    private static List<OccupiedRange> occurrences(String propertyId, List<Series> seriesList, LocalDate from, LocalDate to) {
+        List<OccupiedRange> ranges = new ArrayList<>();
+        for (Series series : seriesList) {
+            int index = series.recurrence().firstEndingAfter(series.startDate(), series.endDate(), from);
+            for (; index < series.occurrences(); index++) {
+                LocalDate start = series.recurrence().occurrenceStart(series.startDate(), index);
+                if (!start.isBefore(to)) {
+                    break;
+                }
+                ranges.add(new OccupiedRange(OccupancyType.BLOCK, series.id(), propertyId, start,
+                        start.plusDays(series.nights())));
+            }
+        }
+        ranges.sort(Comparator.comparing(OccupiedRange::startDate));
+        return ranges;
+    }
+
+    private Entry entry(String propertyId) {
+        // Read before loading: a write committing mid-load bumps it, so the next check loads again.
+        long generation = counter(propertyId).get();
+        Entry cached = entries.getIfPresent(propertyId);
+        if (cached != null && cached.generation == generation) {
+            return cached;
+        }
+        Entry loaded = new Entry(generation, blockRepository.findRecurring(propertyId, LocalDate.now()).stream()
+                .map(Series::of)
+                .toList());
+        if (!multiNode) {
+            entries.put(propertyId, loaded);
+        }
+        return loaded;
+    }
+
+    private Expansion expansionFor(String propertyId, Entry entry) {
+        Expansion expansion = entry.expansion;
+        LocalDate today = LocalDate.now();
+        if (expansion != null && expansion.from() == today.toEpochDay()) {
+            return expansion;
+        }
+        if (multiNode || entry.lookups.incrementAndGet() < hotThreshold) {
+            return null;
+        }
+        expansion = expand(propertyId, entry.series, today, today.plusDays(horizonDays));
+        entry.expansion = expansion;
+        expansions.increment();
+        return expansion;
+    }
+
+    private static Expansion expand(String propertyId, List<Series> series, LocalDate from, LocalDate to) {
+        List<OccupiedRange> ranges = occurrences(propertyId, series, from, to);
+        long[] starts = new long[ranges.size()];
+        long[] ends = new long[ranges.size()];
+        Long[] ids = new Long[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            starts[i] = ranges.get(i).startDate().toEpochDay();
+            ends[i] = ranges.get(i).endDate().toEpochDay();
+            ids[i] = ranges.get(i).id();
+        }
+        return new Expansion(from.toEpochDay(), to.toEpochDay(), starts, ends, ids);
+    }
+
+    private AtomicLong counter(String propertyId) {
+        return generations.computeIfAbsent(propertyId, id -> new AtomicLong());
+    }
+}
@@ -0,0 +1,34 @@
+package com.hostfully.bookingapi.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's data access is routed to. It must be set before a transaction
+ * starts, because the transaction binds a connection from that shard for its whole lifetime.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /** Returns the current shard, or null when none was chosen and the default shard applies. */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    static <T> T call(String shard, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
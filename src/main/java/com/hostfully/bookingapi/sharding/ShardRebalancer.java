@@ -0,0 +1,110 @@
+package com.hostfully.bookingapi.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves every property stored on a shard that the ring no longer assigns it to, such as after a
+ * shard was added. Every node runs it at startup, so a run holds the {@code shard-rebalance} row of
+ * {@code maintenance_locks} on the first shard until it finishes; nodes starting together wait for
+ * it and then find nothing left to move.
+ * <p>
+ * A property is moved while its {@code property_locks} row on the source shard is locked, the same
+ * row writers on that shard lock, so no write can land between reading its rows and deleting them.
+ * The copy to the target commits first and clears the target beforehand, so a move interrupted
+ * before the source commits is simply repeated on the next run. Outbox events stay on the shard
+ * that recorded them.
+ */
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final List<String> TABLES = List.of("bookings", "blocks", "occupancy", "property_locks");
+    private static final String LOCK_NAME = "shard-rebalance";
+
+    private final Map<String, ? extends DataSource> shards;
+    private final ShardRing ring;
+
+    public ShardRebalancer(Map<String, ? extends DataSource> shards, ShardRing ring) {
+        this.shards = shards;
+        this.ring = ring;
+    }
+
+    /** Returns the number of properties moved. */
+    public int rebalance() {
+        int moved;
+        // A plain connection rather than a Spring transaction: moves on the first shard must commit
+        // on their own instead of joining the transaction that holds the lock.
+        try (Connection lock = shards.values().iterator().next().getConnection()) {
+            lock.setAutoCommit(false);
+            try (PreparedStatement statement = lock.prepareStatement(
+                    "SELECT name FROM maintenance_locks WHERE name = ? FOR UPDATE")) {
+                statement.setString(1, LOCK_NAME);
+                statement.executeQuery().close();
+                moved = moveMisplaced();
+            } finally {
+                lock.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not take the shard rebalance lock", e);
+        }
+        if (moved > 0) {
+            log.info("Moved {} properties to the shards that own them", moved);
+        }
+        return moved;
+    }
+
+    private int moveMisplaced() {
+        int moved = 0;
+        for (Map.Entry<String, ? extends DataSource> shard : shards.entrySet()) {
+            List<String> propertyIds = new JdbcTemplate(shard.getValue()).queryForList(
+                    "SELECT property_id FROM bookings UNION SELECT property_id FROM blocks", String.class);
+            for (String propertyId : propertyIds) {
+                String owner = ring.shardFor(propertyId);
+                if (!owner.equals(shard.getKey())) {
+                    move(propertyId, shard.getValue(), shards.get(owner));
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    private void move(String propertyId, DataSource from, DataSource to) {
+        JdbcTemplate source = new JdbcTemplate(from);
+        JdbcTemplate target = new JdbcTemplate(to);
+        new TransactionTemplate(new DataSourceTransactionManager(from)).executeWithoutResult(sourceStatus -> {
+            source.update("MERGE INTO property_locks t USING (VALUES (?)) s(property_id) " +
+                    "ON t.property_id = s.property_id " +
+                    "WHEN NOT MATCHED THEN INSERT (property_id) VALUES (s.property_id)", propertyId);
+            source.queryForList("SELECT property_id FROM property_locks WHERE property_id = ? FOR UPDATE",
+                    String.class, propertyId);
+            Map<String, List<Map<String, Object>>> rows = new LinkedHashMap<>();
+            for (String table : TABLES) {
+                rows.put(table, source.queryForList("SELECT * FROM " + table + " WHERE property_id = ?", propertyId));
+            }
+            new TransactionTemplate(new DataSourceTransactionManager(to)).executeWithoutResult(targetStatus -> {
+                for (String table : TABLES) {
+                    target.update("DELETE FROM " + table + " WHERE property_id = ?", propertyId);
+                    if (!rows.get(table).isEmpty()) {
+                        new SimpleJdbcInsert(target).withTableName(table).executeBatch(rows.get(table).toArray(new Map[0]));
+                    }
+                }
+            });
+            for (String table : TABLES) {
+                source.update("DELETE FROM " + table + " WHERE property_id = ?", propertyId);
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.hostfully.bookingapi.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring mapping property ids to shards. Each shard owns many points on the ring,
+ * so properties spread evenly. Adding a shard moves only the properties whose nearest point now
+ * belongs to the new shard, about 1/N of them, and moves nothing between existing shards.
+ */
+public class ShardRing {
+
+    static final int POINTS_PER_SHARD = 160;
+
+    private final List<String> shards;
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    public ShardRing(List<String> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("A shard ring needs at least one shard");
+        }
+        this.shards = List.copyOf(shards);
+        for (String shard : this.shards) {
+            for (int i = 0; i < POINTS_PER_SHARD; i++) {
+                points.put(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public String shardFor(String propertyId) {
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(propertyId));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    /** 64-bit FNV-1a followed by the MurmurHash3 finalizer, which spreads similar keys apart. */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
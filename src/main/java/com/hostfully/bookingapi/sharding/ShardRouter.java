@@ -0,0 +1,182 @@
+package com.hostfully.bookingapi.sharding;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hostfully.bookingapi.dto.BatchItemResult;
+import com.hostfully.bookingapi.dto.BatchResponse;
+import com.hostfully.bookingapi.dto.PageResponse;
+import com.hostfully.bookingapi.exception.ResourceNotFoundException;
+import com.hostfully.bookingapi.repository.BlockRepository;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.service.BatchValidator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs work on the shard that owns it. Single-property operations go to the property's shard, and
+ * operations by id go to the shard holding the row. Cross-property reads run on every shard, and
+ * the results are merged here. Without a {@link ShardRing} there is one shard and every method
+ * just runs the action.
+ *
+ * <p>Callers must route before opening a transaction, so this is used from the controllers.
+ */
+@Component
+public class ShardRouter {
+
+    public static final String DEFAULT_SHARD = "shard-0";
+
+    private final ShardRing ring;
+    private final BookingRepository bookingRepository;
+    private final BlockRepository blockRepository;
+    private final BatchValidator batchValidator;
+    private final Cache<Long, String> bookingShards;
+    private final Cache<Long, String> blockShards;
+
+    public ShardRouter(ObjectProvider<ShardRing> ring, BookingRepository bookingRepository,
+                       BlockRepository blockRepository, BatchValidator batchValidator,
+                       @Value("${booking.cache.maximum-size:10000}") long maximumSize) {
+        this.ring = ring.getIfAvailable();
+        this.bookingRepository = bookingRepository;
+        this.blockRepository = blockRepository;
+        this.batchValidator = batchValidator;
+        this.bookingShards = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        this.blockShards = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    public boolean isSharded() {
+        return ring != null;
+    }
+
+    public List<String> shards() {
+        return ring == null ? List.of(DEFAULT_SHARD) : ring.shards();
+    }
+
+    public String shardFor(String propertyId) {
+        return ring == null || propertyId == null ? DEFAULT_SHARD : ring.shardFor(propertyId);
+    }
+
+    /** The shards a read filtered by the given property has to visit: its own, or all when null. */
+    public List<String> shardsFor(String propertyId) {
+        return propertyId == null ? shards() : List.of(shardFor(propertyId));
+    }
+
+    public <T> T onShard(String shard, Supplier<T> action) {
+        return ring == null ? action.get() : ShardContext.call(shard, action);
+    }
+
+    public <T> T forProperty(String propertyId, Supplier<T> action) {
+        return onShard(shardFor(propertyId), action);
+    }
+
+    /**
+     * Runs the action on the shard holding the booking. Ids do not encode a shard, because
+     * rebalancing moves rows, so the first lookup asks each shard and the answer is cached. A node
+     * starting with a new ring can move the row while this one keeps running, so when the action
+     * finds nothing on the cached shard, the shards are asked again before the not-found stands.
+     */
+    public <T> T forBooking(Long id, Supplier<T> action) {
+        return onLocated(id, bookingShards, bookingRepository::existsById, action);
+    }
+
+    public <T> T forBlock(Long id, Supplier<T> action) {
+        return onLocated(id, blockShards, blockRepository::existsById, action);
+    }
+
+    /** Rejects moving an entry to a property stored on another shard than the current one. */
+    public void requireCurrentShard(String propertyId) {
+        if (ring != null && !Objects.equals(ShardContext.current(), ring.shardFor(propertyId))) {
+            throw new IllegalArgumentException("Cannot move to property " + propertyId + ", which is stored on another shard");
+        }
+    }
+
+    /**
+     * Splits a batch by shard and runs each part in its own transaction on its shard. Item
+     * indexes in the merged response refer to the original batch. A batch is atomic per shard,
+     * not across shards.
+     */
+    public <T, R> BatchResponse<R> batch(List<T> requests, Function<T, String> propertyOf,
+                                         Function<List<T>, BatchResponse<R>> action) {
+        if (ring == null) {
+            return action.apply(requests);
+        }
+        batchValidator.checkSize(requests);
+        Map<String, List<Integer>> indexesByShard = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            T request = requests.get(i);
+            String shard = shardFor(request == null ? null : propertyOf.apply(request));
+            indexesByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(i);
+        }
+        List<BatchItemResult<R>> items = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        indexesByShard.forEach((shard, indexes) -> {
+            List<T> part = indexes.stream().map(requests::get).toList();
+            for (BatchItemResult<R> item : onShard(shard, () -> action.apply(part)).getItems()) {
+                int original = indexes.get(item.getIndex());
+                item.setIndex(original);
+                items.set(original, item);
+            }
+        });
+        return BatchResponse.of(items);
+    }
+
+    /**
+     * Merges pages read from several shards. Each shard returned its first {@code limit} items
+     * after the cursor in {@code order}, so the first {@code limit} of their union are the first
+     * {@code limit} overall.
+     */
+    public <T> PageResponse<T> mergePages(List<PageResponse<T>> pages, Comparator<T> order, int limit,
+                                          Function<T, String> cursorOf) {
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+        List<T> items = pages.stream()
+                .flatMap(page -> page.getItems().stream())
+                .sorted(order)
+                .limit(limit)
+                .toList();
+        String nextCursor = items.size() == limit ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new PageResponse<>(items, nextCursor);
+    }
+
+    private <T> T onLocated(Long id, Cache<Long, String> located, Predicate<Long> exists, Supplier<T> action) {
+        if (ring == null) {
+            return action.get();
+        }
+        String cached = located.getIfPresent(id);
+        if (cached == null) {
+            String shard = locate(id, located, exists);
+            return ShardContext.call(shard == null ? DEFAULT_SHARD : shard, action);
+        }
+        try {
+            return ShardContext.call(cached, action);
+        } catch (ResourceNotFoundException e) {
+            located.invalidate(id);
+            String shard = locate(id, located, exists);
+            if (shard == null || shard.equals(cached)) {
+                throw e;
+            }
+            return ShardContext.call(shard, action);
+        }
+    }
+
+    /** Asks each shard for the row and caches the one holding it, or returns null when none does. */
+    private String locate(Long id, Cache<Long, String> located, Predicate<Long> exists) {
+        for (String shard : ring.shards()) {
+            if (ShardContext.call(shard, () -> exists.test(id))) {
+                located.put(id, shard);
+                return shard;
+            }
+        }
+        return null;
+    }
+}
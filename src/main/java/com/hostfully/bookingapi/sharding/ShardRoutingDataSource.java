@@ -0,0 +1,45 @@
+package com.hostfully.bookingapi.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections from the shard selected in {@link ShardContext}, or from the first shard
+ * when none is selected. The first shard also holds the tables that are not sharded, such as
+ * idempotency keys.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final Map<String, HikariDataSource> shards;
+    private final String defaultShard;
+
+    public ShardRoutingDataSource(Map<String, HikariDataSource> shards) {
+        this.shards = new LinkedHashMap<>(shards);
+        this.defaultShard = this.shards.keySet().iterator().next();
+        setTargetDataSources(new LinkedHashMap<>(this.shards));
+        setDefaultTargetDataSource(this.shards.get(defaultShard));
+    }
+
+    public List<String> shardNames() {
+        return List.copyOf(shards.keySet());
+    }
+
+    public Map<String, HikariDataSource> shards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.current();
+        return shard != null ? shard : defaultShard;
+    }
+
+    @Override
+    public void close() {
+        shards.values().forEach(HikariDataSource::close);
+    }
+}
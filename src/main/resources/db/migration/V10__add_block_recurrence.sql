@@ -0,0 +1,7 @@
+-- A recurring block is one row: start_date and end_date hold its first occurrence, recurrence
+-- the RRULE that repeats it and series_end the end of its last occurrence. Both are NULL for
+-- one-off blocks, so the index only grows with recurring ones.
+ALTER TABLE blocks ADD COLUMN recurrence VARCHAR(255);
+ALTER TABLE blocks ADD COLUMN series_end DATE;
+
+CREATE INDEX idx_blocks_property_series_end ON blocks (property_id, series_end);
@@ -0,0 +1,5 @@
+-- The node running a keyed request renews renewed_at while it holds the key. A reservation is
+-- only reclaimed once its lease has lapsed, so a slow request is not executed a second time.
+ALTER TABLE idempotency_keys ADD COLUMN renewed_at TIMESTAMP WITH TIME ZONE;
+
+UPDATE idempotency_keys SET renewed_at = created_at;
@@ -0,0 +1,4 @@
+-- The occupancy table is written only while booking.occupancy-table.enabled is on, and a node with
+-- it on rebuilds it from bookings and blocks at startup, so nothing is backfilled here. Clear what
+-- nodes of earlier versions left behind.
+DELETE FROM occupancy;
@@ -0,0 +1,7 @@
+-- One row per cluster-wide maintenance job. A node running the job holds the row lock for its
+-- whole run, so nodes starting together take turns instead of running it concurrently.
+CREATE TABLE maintenance_locks (
+    name VARCHAR(64) PRIMARY KEY
+);
+
+INSERT INTO maintenance_locks (name) VALUES ('shard-rebalance');
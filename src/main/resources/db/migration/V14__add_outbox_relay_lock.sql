@@ -0,0 +1,3 @@
+-- Relays on every node hold this row for a whole pass, so only one of them assigns feed
+-- positions and delivers at a time.
+INSERT INTO maintenance_locks (name) VALUES ('outbox-relay');
@@ -0,0 +1,2 @@
+-- Nodes starting with the occupancy table switched on rebuild it one at a time.
+INSERT INTO maintenance_locks (name) VALUES ('occupancy-rebuild');
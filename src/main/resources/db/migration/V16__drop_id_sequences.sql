@@ -0,0 +1,5 @@
+-- Bookings, blocks and outbox events take node-local Snowflake ids, so nothing draws from these
+-- sequences any more. Rows inserted by hand without an id still get one from the identity columns.
+DROP SEQUENCE bookings_seq;
+DROP SEQUENCE blocks_seq;
+DROP SEQUENCE outbox_events_seq;
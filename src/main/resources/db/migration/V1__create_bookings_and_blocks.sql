@@ -0,0 +1,17 @@
+CREATE TABLE bookings (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    property_id VARCHAR(255) NOT NULL,
+    guest_name  VARCHAR(255) NOT NULL,
+    guest_email VARCHAR(255) NOT NULL,
+    start_date  DATE         NOT NULL,
+    end_date    DATE         NOT NULL,
+    status      VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'CANCELED'))
+);
+
+CREATE TABLE blocks (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    property_id VARCHAR(255) NOT NULL,
+    reason      VARCHAR(255) NOT NULL,
+    start_date  DATE         NOT NULL,
+    end_date    DATE         NOT NULL
+);
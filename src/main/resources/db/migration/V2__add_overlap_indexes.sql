@@ -0,0 +1,3 @@
+CREATE INDEX idx_bookings_property_status_dates ON bookings (property_id, status, start_date, end_date);
+
+CREATE INDEX idx_blocks_property_dates ON blocks (property_id, start_date, end_date);
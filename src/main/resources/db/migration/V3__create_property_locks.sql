@@ -0,0 +1,3 @@
+CREATE TABLE property_locks (
+    property_id VARCHAR(255) PRIMARY KEY
+);
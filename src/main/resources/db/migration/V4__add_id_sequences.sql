@@ -0,0 +1,7 @@
+-- Hibernate's pooled optimizer hands out the 50 ids below each sequence value,
+-- so the sequences start one allocation above the highest existing id.
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE blocks_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM bookings);
+ALTER SEQUENCE blocks_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM blocks);
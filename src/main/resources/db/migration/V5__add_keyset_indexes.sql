@@ -0,0 +1,3 @@
+CREATE INDEX idx_bookings_property_start_id ON bookings (property_id, start_date, id);
+
+CREATE INDEX idx_blocks_property_start_id ON blocks (property_id, start_date, id);
@@ -0,0 +1,18 @@
+-- Events are inserted without a position; the relay assigns positions in the order it
+-- first sees them committed, so the feed never skips an event that committed late.
+CREATE TABLE outbox_events (
+    id             BIGINT                   PRIMARY KEY,
+    aggregate_type VARCHAR(255)             NOT NULL CHECK (aggregate_type IN ('BOOKING', 'BLOCK')),
+    aggregate_id   BIGINT                   NOT NULL,
+    property_id    VARCHAR(255)             NOT NULL,
+    event_type     VARCHAR(255)             NOT NULL CHECK (event_type IN ('CREATED', 'UPDATED', 'CANCELED', 'REBOOKED', 'DELETED')),
+    payload        VARCHAR(4000)            NOT NULL,
+    occurred_at    TIMESTAMP WITH TIME ZONE NOT NULL,
+    position       BIGINT                   UNIQUE,
+    published_at   TIMESTAMP WITH TIME ZONE
+);
+
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX idx_outbox_events_position_id ON outbox_events (position, id);
+CREATE INDEX idx_outbox_events_published_position ON outbox_events (published_at, position);
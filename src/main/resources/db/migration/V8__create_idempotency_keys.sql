@@ -0,0 +1,12 @@
+-- A row without a status code marks a request still in flight; completed rows keep the
+-- response so retries on any node can replay it until the key expires.
+CREATE TABLE idempotency_keys (
+    id            VARCHAR(300)             PRIMARY KEY,
+    request_hash  VARCHAR(64)              NOT NULL,
+    status_code   INT,
+    etag          VARCHAR(64),
+    response_body VARCHAR(4000),
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
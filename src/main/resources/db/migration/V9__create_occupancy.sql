@@ -0,0 +1,12 @@
+-- One row per night held by an active booking or block. The primary key turns a double booking
+-- into a constraint violation, and conflict checks become primary-key range lookups whose cost
+-- depends on the length of the stay rather than the property's history.
+CREATE TABLE occupancy (
+    property_id    VARCHAR(255) NOT NULL,
+    night          DATE         NOT NULL,
+    occupancy_type VARCHAR(255) NOT NULL CHECK (occupancy_type IN ('BOOKING', 'BLOCK')),
+    occupant_id    BIGINT       NOT NULL,
+    PRIMARY KEY (property_id, night)
+);
+
+CREATE INDEX idx_occupancy_occupant ON occupancy (occupancy_type, occupant_id);
@@ -12,6 +12,7 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -184,4 +185,79 @@ class BlockControllerTest {
         mockMvc.perform(delete("/api/blocks/999"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void shouldCreateBlockBatchWithPerItemResults() throws Exception {
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                                LocalDate.now().plusDays(10), LocalDate.now().plusDays(12)))))
+                .andExpect(status().isCreated());
+
+        List<BlockRequest> batch = List.of(
+                createBlockRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)),
+                createBlockRequest("prop-1", LocalDate.now().plusDays(3), LocalDate.now().plusDays(5)),
+                createBlockRequest("prop-1", LocalDate.now().plusDays(11), LocalDate.now().plusDays(13)),
+                createBlockRequest("prop-1", LocalDate.now().plusDays(6), LocalDate.now().plusDays(6)));
+
+        mockMvc.perform(post("/api/blocks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[2].error").value("Block overlaps with an existing active booking"))
+                .andExpect(jsonPath("$.items[3].error").value("startDate must be before endDate"));
+    }
+
+    @Test
+    void shouldRejectEmptyBlockBatch() throws Exception {
+        mockMvc.perform(post("/api/blocks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldListBlocksByProperty() throws Exception {
+        mockMvc.perform(post("/api/blocks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBlockRequest("prop-1",
+                        LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))));
+        mockMvc.perform(post("/api/blocks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBlockRequest("prop-2",
+                        LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))));
+
+        mockMvc.perform(get("/api/blocks").param("propertyId", "prop-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].propertyId").value("prop-2"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectBlockWritesWithStaleIfMatch() throws Exception {
+        String response = mockMvc.perform(post("/api/blocks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBlockRequest("prop-1",
+                                LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(response).get("id").asLong();
+
+        mockMvc.perform(put("/api/blocks/{id}", id)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBlockRequest("prop-1",
+                                LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(delete("/api/blocks/{id}", id).header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/blocks/{id}", id).header("If-Match", "\"1\""))
+                .andExpect(status().isNoContent());
+    }
 }
@@ -0,0 +1,135 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.config.CacheConfig;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.service.BookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "booking.occupancy-index.enabled=false")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private Long createBooking(BookingRequest request) throws Exception {
+        String response = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    @Test
+    void shouldNotServeStaleBookingAfterCancel() throws Exception {
+        Long id = createBooking(createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)));
+
+        mockMvc.perform(get("/api/bookings/{id}", id))
+                .andExpect(jsonPath("$.status").value("ACTIVE"));
+        mockMvc.perform(get("/api/bookings/{id}", id))
+                .andExpect(jsonPath("$.status").value("ACTIVE"));
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets")
+                        .param("tag", "cache:bookings")
+                        .param("tag", "result:hit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(1.0));
+
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/bookings/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELED"));
+    }
+
+    @Test
+    void shouldNotServeDeletedBooking() throws Exception {
+        Long id = createBooking(createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)));
+
+        mockMvc.perform(get("/api/bookings/{id}", id))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/bookings/{id}", id))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/bookings/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldInvalidateCachedConflictWhenPropertyChanges() throws Exception {
+        Long id = createBooking(createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)));
+        BookingRequest retried = createBookingRequest("prop-1", LocalDate.now().plusDays(2), LocalDate.now().plusDays(4));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/bookings")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(retried)))
+                    .andExpect(status().isConflict());
+        }
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets")
+                        .param("tag", "cache:overlaps")
+                        .param("tag", "result:hit"))
+                .andExpect(jsonPath("$.measurements[0].value").value(1.0));
+
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id))
+                .andExpect(status().isOk());
+
+        createBooking(retried);
+    }
+
+    @Test
+    void shouldNotCacheRowLoadedBeforeAWriteCommitted() throws Exception {
+        Long id = createBooking(createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)));
+        Cache bookings = cacheManager.getCache(CacheConfig.BOOKINGS);
+        BookingResponse loaded = bookingService.getById(id);
+        bookings.evict(id);
+
+        // A reader missed, loaded the row, and a writer's commit-time eviction ran before its put.
+        assertNull(bookings.get(id));
+        bookings.evict(id);
+        bookings.put(id, loaded);
+
+        assertNull(bookings.get(id));
+    }
+}
@@ -9,9 +9,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -235,4 +238,160 @@ class BookingControllerTest {
                         .content(objectMapper.writeValueAsString(request2)))
                 .andExpect(status().isCreated());
     }
+
+    @Test
+    void shouldCreateBatchWithPerItemResults() throws Exception {
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-3",
+                                LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))))
+                .andExpect(status().isCreated());
+
+        BookingRequest missingGuest = createBookingRequest("prop-2",
+                LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+        missingGuest.setGuestName(null);
+
+        List<BookingRequest> batch = List.of(
+                createBookingRequest("prop-1", LocalDate.now().plusDays(3), LocalDate.now().plusDays(7)),
+                createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(4)),
+                missingGuest,
+                createBookingRequest("prop-3", LocalDate.now().plusDays(4), LocalDate.now().plusDays(6)),
+                createBookingRequest("prop-2", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)));
+
+        mockMvc.perform(post("/api/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.items[0].status").value("REJECTED"))
+                .andExpect(jsonPath("$.items[0].error").value("Booking overlaps with another booking in the batch"))
+                .andExpect(jsonPath("$.items[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].result.id").exists())
+                .andExpect(jsonPath("$.items[2].error").value("guestName is required"))
+                .andExpect(jsonPath("$.items[3].error").value("Booking overlaps with an existing booking"))
+                .andExpect(jsonPath("$.items[4].status").value("CREATED"));
+
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-2",
+                                LocalDate.now().plusDays(2), LocalDate.now().plusDays(3)))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void shouldListBookingsWithKeysetPagination() throws Exception {
+        for (String propertyId : List.of("prop-2", "prop-1", "prop-3")) {
+            mockMvc.perform(post("/api/bookings")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createBookingRequest(propertyId,
+                            LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))));
+        }
+
+        String firstPage = mockMvc.perform(get("/api/bookings").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].propertyId").value("prop-1"))
+                .andExpect(jsonPath("$.items[1].propertyId").value("prop-2"))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/bookings").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].propertyId").value("prop-3"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/bookings")
+                        .param("propertyId", "prop-2")
+                        .param("status", "CANCELED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        mockMvc.perform(get("/api/bookings").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldStreamBookingsAsNdjson() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/bookings")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                            LocalDate.now().plusDays(1 + i * 5), LocalDate.now().plusDays(4 + i * 5)))));
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/bookings")
+                        .param("from", LocalDate.now().plusDays(5).toString())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(LocalDate.now().plusDays(6).toString(), objectMapper.readTree(lines[0]).get("startDate").asText());
+    }
+
+    @Test
+    void shouldReturnNotModifiedForCurrentETag() throws Exception {
+        String response = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                                LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(response).get("id").asLong();
+
+        mockMvc.perform(get("/api/bookings/{id}", id).header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(get("/api/bookings/{id}", id).header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.status").value("CANCELED"));
+    }
+
+    @Test
+    void shouldRejectWritesWithStaleIfMatch() throws Exception {
+        String response = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                                LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))))
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(response).get("id").asLong();
+        BookingRequest update = createBookingRequest("prop-1", LocalDate.now().plusDays(2), LocalDate.now().plusDays(6));
+
+        mockMvc.perform(put("/api/bookings/{id}", id)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id).header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/bookings/{id}", id).header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/bookings/{id}", id).header("If-Match", "not-a-tag"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/bookings/{id}", id))
+                .andExpect(jsonPath("$.status").value("ACTIVE"))
+                .andExpect(jsonPath("$.startDate").value(LocalDate.now().plusDays(2).toString()));
+        mockMvc.perform(delete("/api/bookings/{id}", id).header("If-Match", "W/\"1\""))
+                .andExpect(status().isNoContent());
+    }
 }
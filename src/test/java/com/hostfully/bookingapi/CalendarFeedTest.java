@@ -0,0 +1,204 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.service.CalendarFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CalendarFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CalendarFeed calendarFeed;
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private BlockRequest createBlockRequest(String propertyId, LocalDate start, LocalDate end) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Maintenance");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private Long create(String path, Object request) throws Exception {
+        String response = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private MockHttpServletResponse calendar(String propertyId) throws Exception {
+        return mockMvc.perform(get("/api/properties/{propertyId}/calendar.ics", propertyId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private double renders() {
+        return meterRegistry.counter("booking.calendar.renders").count();
+    }
+
+    private static String date(LocalDate date) {
+        return date.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    @Test
+    void shouldListActiveBookingsAndBlocks() throws Exception {
+        Long bookingId = create("/api/bookings", createBookingRequest("prop-1", start, start.plusDays(3)));
+        Long canceledId = create("/api/bookings", createBookingRequest("prop-1", start.plusDays(10), start.plusDays(12)));
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", canceledId)).andExpect(status().isOk());
+        Long blockId = create("/api/blocks", createBlockRequest("prop-1", start.plusDays(3), start.plusDays(5)));
+
+        MockHttpServletResponse response = calendar("prop-1");
+        String body = response.getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals("text/calendar;charset=UTF-8", response.getContentType());
+        assertTrue(response.getHeader(HttpHeaders.ETAG) != null);
+        assertTrue(response.getHeader(HttpHeaders.LAST_MODIFIED) != null);
+        assertTrue(body.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+        assertTrue(body.endsWith("END:VCALENDAR\r\n"));
+        assertTrue(body.contains("UID:booking-" + bookingId + "@booking-api\r\n"));
+        assertTrue(body.contains("DTSTART;VALUE=DATE:" + date(start) + "\r\nDTEND;VALUE=DATE:" + date(start.plusDays(3)) + "\r\n"));
+        assertTrue(body.contains("UID:block-" + blockId + "@booking-api\r\n"));
+        assertFalse(body.contains("booking-" + canceledId + "@"));
+        assertFalse(body.contains("John Doe"));
+    }
+
+    @Test
+    void shouldServeCompressedFeedToGzipClients() throws Exception {
+        create("/api/bookings", createBookingRequest("prop-1", start, start.plusDays(3)));
+        String plain = calendar("prop-1").getContentAsString(StandardCharsets.UTF_8);
+
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/properties/{propertyId}/calendar.ics", "prop-1")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        mockMvc.perform(get("/api/properties/{propertyId}/calendar.ics", "prop-1")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void shouldRenderAgainOnlyAfterPropertyChanges() throws Exception {
+        create("/api/bookings", createBookingRequest("prop-1", start, start.plusDays(3)));
+        double before = renders();
+
+        String etag = calendar("prop-1").getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/properties/{propertyId}/calendar.ics", "prop-1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        create("/api/bookings", createBookingRequest("prop-2", start, start.plusDays(3)));
+        assertEquals(etag, calendar("prop-1").getHeader(HttpHeaders.ETAG));
+        assertEquals(1, renders() - before);
+
+        create("/api/blocks", createBlockRequest("prop-1", start.plusDays(5), start.plusDays(6)));
+        assertNotEquals(etag, calendar("prop-1").getHeader(HttpHeaders.ETAG));
+        assertEquals(2, renders() - before);
+    }
+
+    @Test
+    void shouldRenderOnceForConcurrentRequests() throws Exception {
+        for (int week = 0; week < 50; week++) {
+            create("/api/bookings", createBookingRequest("prop-1", start.plusWeeks(week), start.plusWeeks(week).plusDays(3)));
+        }
+        double before = renders();
+        int clients = 16;
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<String>> etags = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                etags.add(executor.submit(() -> {
+                    ready.await();
+                    return calendarFeed.get("prop-1").etag();
+                }));
+            }
+            ready.countDown();
+
+            Set<String> distinct = new HashSet<>();
+            for (Future<String> etag : etags) {
+                distinct.add(etag.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(1, distinct.size());
+            assertEquals(1, renders() - before);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldDropBookingMovedToAnotherProperty() throws Exception {
+        Long id = create("/api/bookings", createBookingRequest("prop-1", start, start.plusDays(3)));
+        assertTrue(calendar("prop-1").getContentAsString().contains("booking-" + id + "@"));
+
+        mockMvc.perform(put("/api/bookings/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-2", start, start.plusDays(3)))))
+                .andExpect(status().isOk());
+
+        assertFalse(calendar("prop-1").getContentAsString().contains("booking-" + id + "@"));
+        assertTrue(calendar("prop-2").getContentAsString().contains("booking-" + id + "@"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.hostfully.bookingapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times a restart of the application on the persistent profile, from the start of Spring Boot to
+ * the first answered availability request, with a file database holding 1,000,000 bookings. The
+ * database is seeded once under {@code target/cold-start} and reused by later runs. Run with
+ * {@code mvn test -Pbenchmark -Dtest=ColdStartBenchmark}; the thread counts can be overridden with
+ * {@code -Dbenchmark.warm-up-threads=1,2,4}.
+ */
+@Tag("benchmark")
+class ColdStartBenchmark {
+
+    private static final int PROPERTIES = 10_000;
+    private static final int BOOKINGS_PER_PROPERTY = 100;
+    private static final int SEED_BATCH = 10_000;
+    private static final LocalDate EPOCH = LocalDate.of(2030, 1, 1);
+    private static final Path DATABASE = Path.of("target", "cold-start", "bookingdb");
+
+    @Test
+    void coldStartToFirstRequest() throws Exception {
+        if (!Files.exists(Path.of(DATABASE + ".mv.db"))) {
+            try (ConfigurableApplicationContext context = start(1)) {
+                seed(context.getBean(JdbcTemplate.class));
+            }
+        }
+        System.out.printf("%14s %14s%n", "warm-up threads", "first request ms");
+        for (String threads : System.getProperty("benchmark.warm-up-threads", "1,4").split(",")) {
+            long started = System.nanoTime();
+            try (ConfigurableApplicationContext context = start(Integer.parseInt(threads.trim()))) {
+                int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+                HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(
+                                "http://localhost:" + port + "/api/properties/prop-1/availability?from=" + EPOCH + "&to=" + EPOCH.plusDays(30)))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                long elapsed = (System.nanoTime() - started) / 1_000_000;
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("First request failed: " + response.statusCode());
+                }
+                System.out.printf("%14s %14d%n", threads.trim(), elapsed);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(int warmUpThreads) {
+        return new SpringApplicationBuilder(BookingApiApplication.class)
+                .profiles("persistent")
+                .run("--server.port=0",
+                        "--booking.storage.path=" + DATABASE.toAbsolutePath(),
+                        "--booking.occupancy-index.warm-up-threads=" + warmUpThreads,
+                        "--logging.level.root=WARN");
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+        for (int p = 0; p < PROPERTIES; p++) {
+            for (int b = 0; b < BOOKINGS_PER_PROPERTY; b++) {
+                LocalDate start = EPOCH.plusDays(b * 4L);
+                rows.add(new Object[]{"prop-" + p, "Guest " + b, "guest@example.com",
+                        Date.valueOf(start), Date.valueOf(start.plusDays(3))});
+                if (rows.size() == SEED_BATCH) {
+                    insert(jdbcTemplate, rows);
+                    rows.clear();
+                }
+            }
+        }
+        insert(jdbcTemplate, rows);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (property_id, guest_name, guest_email, start_date, end_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, 'ACTIVE')", rows);
+    }
+}
@@ -0,0 +1,169 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.entity.Booking;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.service.BookingService;
+import com.hostfully.bookingapi.service.PropertyLockManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ConcurrentBookingTest {
+
+    private static final int THREADS = 16;
+    private static final int PROPERTIES = 8;
+    private static final int ATTEMPTS_PER_PROPERTY = 40;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PropertyLockManager propertyLockManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    @Test
+    void shouldNeverDoubleBookUnderConcurrentCreates() throws Exception {
+        LocalDate base = LocalDate.now().plusDays(1);
+        List<BookingRequest> requests = new ArrayList<>();
+        for (int attempt = 0; attempt < ATTEMPTS_PER_PROPERTY; attempt++) {
+            for (int property = 0; property < PROPERTIES; property++) {
+                LocalDate start = base.plusDays(attempt % 10);
+                requests.add(createBookingRequest("prop-" + property, start, start.plusDays(3)));
+            }
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (BookingRequest request : requests) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    try {
+                        bookingService.create(request);
+                        created.incrementAndGet();
+                    } catch (OverlapException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(requests.size(), created.get() + rejected.get());
+
+        Map<String, List<Booking>> byProperty = bookingRepository.findByStatus(BookingStatus.ACTIVE).stream()
+                .collect(Collectors.groupingBy(Booking::getPropertyId));
+        assertEquals(PROPERTIES, byProperty.size());
+        byProperty.values().forEach(bookings -> {
+            for (int i = 0; i < bookings.size(); i++) {
+                for (int j = i + 1; j < bookings.size(); j++) {
+                    Booking a = bookings.get(i);
+                    Booking b = bookings.get(j);
+                    assertFalse(a.getStartDate().isBefore(b.getEndDate()) && b.getStartDate().isBefore(a.getEndDate()),
+                            "Bookings " + a.getId() + " and " + b.getId() + " overlap");
+                }
+            }
+        });
+    }
+
+    @Test
+    void shouldNotDeadlockWhenPropertyAndStripeOrderDisagree() throws Exception {
+        // Find a < b whose stripes are in the opposite order, and c < d on the same two stripes in property order.
+        Map<Integer, String> byStripe = new HashMap<>();
+        String a = null;
+        String b = null;
+        String c = null;
+        String d = null;
+        for (int i = 0; d == null; i++) {
+            String propertyId = "prop-" + i;
+            int stripe = stripe(propertyId);
+            byStripe.putIfAbsent(stripe, propertyId);
+            if (a == null) {
+                for (String other : byStripe.values()) {
+                    if (other.compareTo(propertyId) < 0 && stripe(other) > stripe) {
+                        a = other;
+                        b = propertyId;
+                        break;
+                    }
+                }
+            } else if (c == null && stripe == stripe(b) && !propertyId.equals(b)) {
+                c = propertyId;
+            } else if (c != null && stripe == stripe(a) && propertyId.compareTo(c) > 0 && !propertyId.equals(a)) {
+                d = propertyId;
+            }
+        }
+        String[] first = {a, b};
+        String[] second = {c, d};
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String[] pair : List.of(first, second)) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        transactionTemplate.executeWithoutResult(status -> propertyLockManager.lock(pair));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** The stripe of a property id under the default {@code booking.property-locks.stripes} of 1024. */
+    private static int stripe(String propertyId) {
+        return Math.floorMod(propertyId.hashCode(), 1024);
+    }
+}
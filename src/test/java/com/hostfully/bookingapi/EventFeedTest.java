@@ -0,0 +1,172 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.EventResponse;
+import com.hostfully.bookingapi.outbox.OutboxRelay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(EventFeedTest.RecordingListener.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class EventFeedTest {
+
+    @TempDir
+    static Path eventsDir;
+
+    @DynamicPropertySource
+    static void eventFile(DynamicPropertyRegistry registry) {
+        registry.add("booking.outbox.file.path", () -> eventsDir.resolve("events.ndjson").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @BeforeEach
+    void clearEventFile() throws Exception {
+        Files.deleteIfExists(eventsDir.resolve("events.ndjson"));
+    }
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private BlockRequest createBlockRequest(String propertyId, LocalDate start, LocalDate end) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Maintenance");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private Long create(String path, Object request) throws Exception {
+        String response = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    @Test
+    void shouldPublishEveryBookingChangeInCommitOrder() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(1);
+        Long id = create("/api/bookings", createBookingRequest("prop-1", start, start.plusDays(3)));
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id)).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/bookings/{id}/rebook", id)).andExpect(status().isOk());
+        mockMvc.perform(put("/api/bookings/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start, start.plusDays(5)))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/bookings/{id}", id)).andExpect(status().isNoContent());
+
+        outboxRelay.relay();
+
+        mockMvc.perform(get("/api/events"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].eventType").value(contains("CREATED", "CANCELED", "REBOOKED", "UPDATED", "DELETED")))
+                .andExpect(jsonPath("$.items[*].position").value(contains(1, 2, 3, 4, 5)))
+                .andExpect(jsonPath("$.items[0].aggregateType").value("BOOKING"))
+                .andExpect(jsonPath("$.items[0].aggregateId").value(id))
+                .andExpect(jsonPath("$.items[1].payload.status").value("CANCELED"))
+                .andExpect(jsonPath("$.items[3].payload.endDate").value(start.plusDays(5).toString()))
+                .andExpect(jsonPath("$.nextCursor").value("5"));
+
+        assertEquals(5, listener.received.size());
+        assertEquals(5, Files.readAllLines(eventsDir.resolve("events.ndjson")).size());
+    }
+
+    @Test
+    void shouldResumeFeedFromCursor() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(1);
+        Long id = create("/api/blocks", createBlockRequest("prop-1", start, start.plusDays(3)));
+        mockMvc.perform(put("/api/blocks/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBlockRequest("prop-1", start, start.plusDays(4)))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/blocks/{id}", id)).andExpect(status().isNoContent());
+
+        outboxRelay.relay();
+
+        mockMvc.perform(get("/api/events").param("after", "1").param("limit", "1"))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].eventType").value("UPDATED"))
+                .andExpect(jsonPath("$.items[0].aggregateType").value("BLOCK"))
+                .andExpect(jsonPath("$.nextCursor").value("2"));
+        mockMvc.perform(get("/api/events").param("after", "3"))
+                .andExpect(jsonPath("$.items", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        mockMvc.perform(get("/api/events").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldNotRecordRejectedWrites() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(1);
+        create("/api/bookings", createBookingRequest("prop-1", start, start.plusDays(3)));
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start, start.plusDays(2)))))
+                .andExpect(status().isConflict());
+
+        outboxRelay.relay();
+
+        mockMvc.perform(get("/api/events"))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].eventType").value("CREATED"));
+    }
+
+    @TestConfiguration
+    static class RecordingListener {
+
+        private final List<EventResponse> received = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void onEvent(EventResponse event) {
+            received.add(event);
+        }
+    }
+}
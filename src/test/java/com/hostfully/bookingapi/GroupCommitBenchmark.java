@@ -0,0 +1,122 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.service.BookingService;
+import com.hostfully.bookingapi.service.GroupCommitPipeline;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Creates per second on the persistent profile from many concurrent writers, once with one
+ * transaction per create and once through {@link GroupCommitPipeline}, and reports throughput
+ * and latency for each. Every writer books its own property night after night, so no create is
+ * rejected. The database is recreated under {@code target/group-commit} for each run and written
+ * on every commit ({@code WRITE_DELAY=0}). Run with {@code mvn test -Pbenchmark
+ * -Dtest=GroupCommitBenchmark}; {@code -Dbenchmark.writers=64}, {@code -Dbenchmark.seconds=10}
+ * and {@code -Dbenchmark.write-delay-ms=500} override the defaults. Errors are creates that
+ * timed out waiting for a pooled connection and are reported rather than failing the run.
+ */
+@Tag("benchmark")
+class GroupCommitBenchmark {
+
+    private static final Path DIRECTORY = Path.of("target", "group-commit");
+    private static final LocalDate EPOCH = LocalDate.now().plusDays(1);
+
+    @Test
+    void singleVersusGroupCommit() throws Exception {
+        int writers = Integer.getInteger("benchmark.writers", 64);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+
+        System.out.printf("%10s %10s %12s %12s %12s %10s%n", "mode", "writers", "creates/s", "mean ms", "p99 ms", "errors");
+        run("single", false, writers, duration);
+        run("group", true, writers, duration);
+    }
+
+    private void run(String mode, boolean groupCommit, int writers, Duration duration) throws Exception {
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingApiApplication.class)
+                .profiles("persistent")
+                .run("--spring.main.web-application-type=none",
+                        "--booking.storage.path=" + DIRECTORY.resolve("bookingdb").toAbsolutePath(),
+                        "--booking.storage.write-delay-ms=" + Integer.getInteger("benchmark.write-delay-ms", 0),
+                        "--booking.group-commit.enabled=" + groupCommit,
+                        "--spring.datasource.hikari.maximum-pool-size=" + Math.min(writers, 20),
+                        "--logging.level.root=WARN")) {
+            BookingService bookingService = context.getBean(BookingService.class);
+            GroupCommitPipeline pipeline = context.getBean(GroupCommitPipeline.class);
+            Function<BookingRequest, ?> create = groupCommit ? pipeline::create : bookingService::create;
+
+            // Warm up with a few creates per writer before timing.
+            drive(create, writers, "warm-", Duration.ofSeconds(2), new AtomicInteger());
+            AtomicInteger errors = new AtomicInteger();
+            List<Long> latencies = drive(create, writers, "prop-", duration, errors);
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double mean = Arrays.stream(sorted).average().orElse(0) / 1_000_000.0;
+            double p99 = sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * 0.99)] / 1_000_000.0;
+            System.out.printf("%10s %10d %12.0f %12.2f %12.2f %10d%n",
+                    mode, writers, sorted.length / (double) duration.toSeconds(), mean, p99, errors.get());
+        }
+    }
+
+    private static List<Long> drive(Function<BookingRequest, ?> create, int writers, String prefix, Duration duration,
+                                AtomicInteger errors) throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                String propertyId = prefix + writer;
+                futures.add(executor.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    startSignal.await();
+                    long deadline = System.nanoTime() + duration.toNanos();
+                    for (int night = 0; System.nanoTime() < deadline; night++) {
+                        long started = System.nanoTime();
+                        try {
+                            create.apply(request(propertyId, EPOCH.plusDays(night)));
+                            latencies.add(System.nanoTime() - started);
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+            startSignal.countDown();
+            List<Long> latencies = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                latencies.addAll(future.get());
+            }
+            return latencies;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BookingRequest request(String propertyId, LocalDate start) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("Bench Guest");
+        request.setGuestEmail("bench@example.com");
+        request.setStartDate(start);
+        request.setEndDate(start.plusDays(1));
+        return request;
+    }
+}
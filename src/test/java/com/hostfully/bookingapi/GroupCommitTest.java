@@ -0,0 +1,208 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.exception.PreconditionFailedException;
+import com.hostfully.bookingapi.exception.ResourceNotFoundException;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.service.BookingService;
+import com.hostfully.bookingapi.service.BookingService.GroupCancel;
+import com.hostfully.bookingapi.service.BookingService.GroupCreate;
+import com.hostfully.bookingapi.service.BookingService.GroupResult;
+import com.hostfully.bookingapi.service.BookingService.GroupWrite;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"booking.group-commit.enabled=true", "booking.group-commit.window=20ms",
+        "booking.occupancy-table.enabled=true"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class GroupCommitTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private int statusOf(BookingRequest request) throws Exception {
+        return mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Test
+    void shouldAcceptOneOfConcurrentOverlappingCreates() throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS * 2; i++) {
+                int offset = i % 3;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    return statusOf(createBookingRequest("prop-1", start.plusDays(offset), start.plusDays(offset + 3)));
+                }));
+            }
+            startSignal.countDown();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, statuses.stream().filter(status -> status == 201).count(), statuses.toString());
+        assertEquals(THREADS * 2 - 1, statuses.stream().filter(status -> status == 409).count(), statuses.toString());
+        assertEquals(1, bookingRepository.findByStatus(BookingStatus.ACTIVE).size());
+        assertEquals(THREADS * 2, meterRegistry.get("booking.group-commit.size").summary().totalAmount());
+    }
+
+    @Test
+    void shouldCancelThroughPipelineAndMapErrors() throws Exception {
+        String body = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start, start.plusDays(3)))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id).header(HttpHeaders.IF_MATCH, "\"5\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELED"));
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", 999_999))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/bookings/{id}", id))
+                .andExpect(jsonPath("$.status").value("CANCELED"));
+
+        assertEquals(201, statusOf(createBookingRequest("prop-1", start, start.plusDays(3))));
+        assertEquals(400, statusOf(createBookingRequest("prop-1", start.plusDays(3), start)));
+    }
+
+    @Test
+    void shouldGiveEachWriteOfAGroupItsOwnOutcome() {
+        BookingResponse existing = bookingService.create(createBookingRequest("prop-1", start, start.plusDays(3)));
+        BookingResponse other = bookingService.create(createBookingRequest("prop-2", start, start.plusDays(3)));
+
+        List<GroupWrite> writes = List.of(
+                new GroupCreate(createBookingRequest("prop-1", start.plusDays(1), start.plusDays(2))),
+                new GroupCancel(existing.id(), existing.version()),
+                new GroupCreate(createBookingRequest("prop-3", start, start.plusDays(3))),
+                new GroupCreate(createBookingRequest("prop-3", start.plusDays(2), start.plusDays(4))),
+                new GroupCancel(other.id(), other.version() + 1),
+                new GroupCancel(999_999L, null));
+        List<GroupResult> results = bookingService.commitGroup(writes);
+
+        assertNull(results.get(0).error());
+        assertEquals(BookingStatus.ACTIVE, results.get(0).response().status());
+        assertEquals(BookingStatus.CANCELED, results.get(1).response().status());
+        assertNull(results.get(2).error());
+        assertInstanceOf(OverlapException.class, results.get(3).error());
+        assertInstanceOf(PreconditionFailedException.class, results.get(4).error());
+        assertInstanceOf(ResourceNotFoundException.class, results.get(5).error());
+        assertEquals(BookingStatus.ACTIVE, bookingService.getById(other.id()).status());
+        assertEquals(3, bookingRepository.findByStatus(BookingStatus.ACTIVE).size());
+    }
+
+    @Test
+    void shouldAcceptTheFirstQueuedOfOverlappingCreates() {
+        List<GroupWrite> writes = List.of(
+                new GroupCreate(createBookingRequest("prop-1", start.plusDays(3), start.plusDays(6))),
+                new GroupCreate(createBookingRequest("prop-1", start, start.plusDays(4))),
+                new GroupCreate(createBookingRequest("prop-1", start, start.plusDays(2))));
+        List<GroupResult> results = bookingService.commitGroup(writes);
+
+        assertEquals(start.plusDays(3), results.get(0).response().startDate());
+        assertInstanceOf(OverlapException.class, results.get(1).error());
+        assertEquals(start, results.get(2).response().startDate());
+        assertEquals(2, bookingRepository.findByStatus(BookingStatus.ACTIVE).size());
+    }
+
+    @Test
+    void shouldFailOnlyTheWriteThatRollsBackItsGroup() throws Exception {
+        // A night claimed by a writer that skipped the overlap check: the group's flush fails on it.
+        jdbcTemplate.update("INSERT INTO occupancy (property_id, night, occupancy_type, occupant_id) VALUES (?, ?, ?, ?)",
+                "prop-0", Date.valueOf(start), "BLOCK", 999L);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String propertyId = "prop-" + i;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    return statusOf(createBookingRequest(propertyId, start, start.plusDays(2)));
+                }));
+            }
+            startSignal.countDown();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(409, statuses.get(0), statuses.toString());
+        assertEquals(THREADS - 1, statuses.stream().filter(status -> status == 201).count(), statuses.toString());
+        assertEquals(THREADS - 1, bookingRepository.findByStatus(BookingStatus.ACTIVE).size());
+    }
+}
@@ -0,0 +1,255 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.entity.IdempotencyRecord;
+import com.hostfully.bookingapi.idempotency.IdempotencyService;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class IdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private ResultActions postBooking(String key, BookingRequest request) throws Exception {
+        return mockMvc.perform(post("/api/bookings")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    @Test
+    void shouldReplayOriginalResponseForRetry() throws Exception {
+        BookingRequest request = createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+
+        String first = postBooking("retry-1", request)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(first).get("id").asLong();
+
+        postBooking("retry-1", request)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.id").value(id));
+
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() throws Exception {
+        postBooking("reused", createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))
+                .andExpect(status().isCreated());
+
+        postBooking("reused", createBookingRequest("prop-2", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReleaseKeyWhenRequestFails() throws Exception {
+        String blocking = postBooking("first", createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))
+                .andReturn().getResponse().getContentAsString();
+        BookingRequest retried = createBookingRequest("prop-1", LocalDate.now().plusDays(2), LocalDate.now().plusDays(4));
+
+        postBooking("second", retried).andExpect(status().isConflict());
+        mockMvc.perform(delete("/api/bookings/{id}", objectMapper.readTree(blocking).get("id").asLong()))
+                .andExpect(status().isNoContent());
+
+        postBooking("second", retried)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+    }
+
+    @Test
+    void shouldCoalesceConcurrentDuplicates() throws Exception {
+        BookingRequest request = createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+        int clients = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return postBooking("concurrent", request)
+                            .andExpect(status().isCreated())
+                            .andReturn().getResponse().getContentAsString();
+                }));
+            }
+            start.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<String> response : responses) {
+                ids.add(objectMapper.readTree(response.get()).get("id").asLong());
+            }
+            assertEquals(1, ids.size());
+            assertEquals(1, bookingRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldUseKeysStoredByOtherNodes() throws Exception {
+        BookingRequest request = createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+        String requestHash = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+
+        IdempotencyRecord completed = new IdempotencyRecord();
+        completed.setId("bookings:completed-elsewhere");
+        completed.setRequestHash(requestHash);
+        completed.setStatusCode(201);
+        completed.setEtag("\"0\"");
+        completed.setResponseBody("{\"id\":999,\"propertyId\":\"prop-1\",\"status\":\"ACTIVE\",\"version\":0}");
+        completed.setCreatedAt(Instant.now());
+        idempotencyRecordRepository.save(completed);
+
+        IdempotencyRecord inFlight = new IdempotencyRecord();
+        inFlight.setId("bookings:in-flight-elsewhere");
+        inFlight.setRequestHash(requestHash);
+        inFlight.setCreatedAt(Instant.now());
+        idempotencyRecordRepository.save(inFlight);
+
+        postBooking("completed-elsewhere", request)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(999));
+        postBooking("in-flight-elsewhere", request)
+                .andExpect(status().isConflict());
+
+        assertEquals(0, bookingRepository.count());
+    }
+
+    @Test
+    void shouldKeepKeyWhenResponseCannotBeStored() throws Exception {
+        BookingRequest request = createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+        jdbcTemplate.execute("ALTER TABLE idempotency_keys ALTER COLUMN response_body VARCHAR(10)");
+
+        postBooking("unstored", request).andExpect(status().isCreated());
+        assertNull(idempotencyRecordRepository.findById("bookings:unstored").orElseThrow().getStatusCode());
+        postBooking("unstored", request)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+
+        jdbcTemplate.execute("ALTER TABLE idempotency_keys ALTER COLUMN response_body VARCHAR(4000)");
+        idempotencyService.renewLeases();
+
+        assertEquals(201, idempotencyRecordRepository.findById("bookings:unstored").orElseThrow().getStatusCode());
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void shouldSettleKeyWhenResponseCannotBeSerialized() {
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<ResponseEntity<Object>> action = () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok(new Unserializable());
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute("test", "lost", "request", Object.class, action));
+        ResponseEntity<Object> retried = idempotencyService.execute("test", "lost", "request", Object.class, action);
+
+        assertEquals(500, retried.getStatusCode().value());
+        assertEquals("true", retried.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(retried.getBody());
+        assertEquals(1, runs.get());
+        assertEquals(500, idempotencyRecordRepository.findById("test:lost").orElseThrow().getStatusCode());
+    }
+
+    static class Unserializable {
+        public String getValue() {
+            throw new UnsupportedOperationException("not serializable");
+        }
+    }
+
+    @Test
+    void shouldReclaimReservationOnlyAfterItsLeaseLapses() throws Exception {
+        BookingRequest request = createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+        String requestHash = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        Instant longAgo = Instant.now().minus(Duration.ofHours(1));
+
+        IdempotencyRecord slow = new IdempotencyRecord();
+        slow.setId("bookings:slow");
+        slow.setRequestHash(requestHash);
+        slow.setCreatedAt(longAgo);
+        slow.setRenewedAt(Instant.now());
+        idempotencyRecordRepository.save(slow);
+
+        IdempotencyRecord abandoned = new IdempotencyRecord();
+        abandoned.setId("bookings:abandoned");
+        abandoned.setRequestHash(requestHash);
+        abandoned.setCreatedAt(longAgo);
+        abandoned.setRenewedAt(longAgo);
+        idempotencyRecordRepository.save(abandoned);
+
+        postBooking("slow", request).andExpect(status().isConflict());
+        postBooking("abandoned", request)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        assertEquals(1, bookingRepository.count());
+    }
+}
@@ -0,0 +1,110 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "booking.occupancy-index.enabled=false")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private void postBooking(BookingRequest request, int expectedStatus) throws Exception {
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @Test
+    void shouldTimeServiceOperationsByOutcome() throws Exception {
+        BookingRequest request = createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+        postBooking(request, 201);
+        postBooking(request, 409);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "booking_service_seconds_count{operation=\"create\",outcome=\"success\",service=\"booking\"")))
+                .andExpect(content().string(containsString(
+                        "booking_service_seconds_count{operation=\"create\",outcome=\"overlap\",service=\"booking\"")));
+
+        mockMvc.perform(get("/actuator/metrics/spring.data.repository.invocations")
+                        .param("tag", "method:findOverlapType"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(2.0));
+    }
+
+    @Test
+    void shouldCountErrorResponsesByOutcome() throws Exception {
+        postBooking(createBookingRequest("prop-1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)), 201);
+        postBooking(createBookingRequest("prop-1", LocalDate.now().plusDays(2), LocalDate.now().plusDays(3)), 409);
+        postBooking(createBookingRequest("prop-1", LocalDate.now().plusDays(9), LocalDate.now().plusDays(8)), 400);
+        mockMvc.perform(get("/api/bookings/{id}", 999))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/metrics/booking.api.errors")
+                        .param("tag", "outcome:overlap")
+                        .param("tag", "status:409"))
+                .andExpect(jsonPath("$.measurements[0].value").value(1.0));
+        mockMvc.perform(get("/actuator/metrics/booking.api.errors")
+                        .param("tag", "outcome:invalid"))
+                .andExpect(jsonPath("$.measurements[0].value").value(1.0));
+        mockMvc.perform(get("/actuator/metrics/booking.api.errors")
+                        .param("tag", "outcome:not_found"))
+                .andExpect(jsonPath("$.measurements[0].value").value(1.0));
+    }
+
+    @Test
+    void shouldReportWriteHotSpotsWithoutTaggingProperties() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            postBooking(createBookingRequest("prop-hot", LocalDate.now().plusDays(1 + i * 2), LocalDate.now().plusDays(2 + i * 2)), 201);
+        }
+        postBooking(createBookingRequest("prop-cold", LocalDate.now().plusDays(1), LocalDate.now().plusDays(2)), 201);
+
+        mockMvc.perform(get("/actuator/hotspots"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[?(@.propertyId == 'prop-hot')].writes").value(hasItem(3)))
+                .andExpect(jsonPath("$[?(@.propertyId == 'prop-cold')].writes").value(hasItem(1)));
+        mockMvc.perform(get("/actuator/hotspots").param("limit", "1"))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(content().string(containsString("booking_property_lock_wait_seconds_count{contended=\"false\"")))
+                .andExpect(content().string(not(containsString("prop-hot"))));
+    }
+}
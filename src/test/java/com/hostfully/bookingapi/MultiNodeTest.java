@@ -0,0 +1,162 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.outbox.OutboxRelay;
+import com.hostfully.bookingapi.service.BlockService;
+import com.hostfully.bookingapi.service.BookingService;
+import com.hostfully.bookingapi.service.OccupancyIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application nodes writing to one shared in-memory database with {@code booking.multi-node}
+ * set: a write committed through one node must be seen by the other's checks.
+ */
+class MultiNodeTest {
+
+    private static final String DATABASE = "jdbc:h2:mem:multi-node;DB_CLOSE_DELAY=-1";
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    private static ConfigurableApplicationContext node(int nodeId) {
+        return new SpringApplicationBuilder(BookingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + DATABASE, "--spring.h2.console.enabled=false",
+                        "--booking.multi-node=true", "--booking.ids.node-id=" + nodeId,
+                        "--booking.outbox.batch-size=10", "--booking.outbox.poll-interval-ms=3600000",
+                        "--logging.level.root=WARN");
+    }
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate startDate, LocalDate endDate) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        return request;
+    }
+
+    @AfterEach
+    void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.getBean(JdbcTemplate.class).execute("DROP ALL OBJECTS");
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void shouldRejectOverlapCommittedThroughAnotherNode() {
+        nodeA = node(1);
+        nodeB = node(2);
+
+        assertFalse(nodeA.getBean(OccupancyIndex.class).isEnabled());
+        nodeA.getBean(BookingService.class).create(createBookingRequest("prop-1", start, start.plusDays(3)));
+
+        assertThrows(OverlapException.class, () -> nodeB.getBean(BookingService.class)
+                .create(createBookingRequest("prop-1", start.plusDays(1), start.plusDays(2))));
+    }
+
+    @Test
+    void shouldAcceptNightsFreedThroughAnotherNode() {
+        nodeA = node(1);
+        nodeB = node(2);
+        BookingRequest retried = createBookingRequest("prop-1", start.plusDays(1), start.plusDays(2));
+        Long id = nodeA.getBean(BookingService.class).create(createBookingRequest("prop-1", start, start.plusDays(3))).id();
+        assertThrows(OverlapException.class, () -> nodeB.getBean(BookingService.class).create(retried));
+
+        nodeA.getBean(BookingService.class).cancel(id, null);
+
+        nodeB.getBean(BookingService.class).create(retried);
+    }
+
+    @Test
+    void shouldNotServeBookingChangedThroughAnotherNode() {
+        nodeA = node(1);
+        nodeB = node(2);
+        Long id = nodeA.getBean(BookingService.class).create(createBookingRequest("prop-1", start, start.plusDays(3))).id();
+        assertEquals(BookingStatus.ACTIVE, nodeA.getBean(BookingService.class).getById(id).status());
+
+        nodeB.getBean(BookingService.class).cancel(id, null);
+
+        assertEquals(BookingStatus.CANCELED, nodeA.getBean(BookingService.class).getById(id).status());
+    }
+
+    @Test
+    void shouldSeeRecurringBlocksChangedThroughAnotherNode() {
+        nodeA = node(1);
+        nodeB = node(2);
+        BlockRequest weekly = new BlockRequest();
+        weekly.setPropertyId("prop-1");
+        weekly.setReason("Weekly maintenance");
+        weekly.setStartDate(start);
+        weekly.setEndDate(start.plusDays(1));
+        weekly.setRecurrence("FREQ=WEEKLY;COUNT=10");
+        BookingRequest onOccurrence = createBookingRequest("prop-1", start.plusWeeks(3), start.plusWeeks(3).plusDays(1));
+        // Loads node B's view of the property's series before node A changes them.
+        nodeB.getBean(BookingService.class).create(createBookingRequest("prop-1", start.plusDays(2), start.plusDays(3)));
+
+        Long id = nodeA.getBean(BlockService.class).create(weekly).id();
+        assertThrows(OverlapException.class, () -> nodeB.getBean(BookingService.class).create(onOccurrence));
+
+        nodeA.getBean(BlockService.class).delete(id, null);
+        nodeB.getBean(BookingService.class).create(onOccurrence);
+    }
+
+    @Test
+    void shouldPublishEachEventOnceWhenRelaysRunOnBothNodes() throws Exception {
+        nodeA = node(1);
+        nodeB = node(2);
+        for (int i = 0; i < 100; i++) {
+            ConfigurableApplicationContext node = i % 2 == 0 ? nodeA : nodeB;
+            node.getBean(BookingService.class).create(createBookingRequest("prop-" + i, start, start.plusDays(1)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> relayA = executor.submit(() -> nodeA.getBean(OutboxRelay.class).relay());
+            Future<Integer> relayB = executor.submit(() -> nodeB.getBean(OutboxRelay.class).relay());
+            assertEquals(100, relayA.get(30, TimeUnit.SECONDS) + relayB.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(List.of(100L, 1L, 100L), nodeA.getBean(JdbcTemplate.class).queryForList(
+                "SELECT COUNT(DISTINCT position), MIN(position), MAX(position) FROM outbox_events")
+                .stream().flatMap(row -> row.values().stream()).map(value -> ((Number) value).longValue()).toList());
+    }
+
+    @Test
+    void shouldRefuseToStartWithoutExplicitNodeId() {
+        SpringApplicationBuilder unnamed = new SpringApplicationBuilder(BookingApiApplication.class)
+                .web(WebApplicationType.NONE);
+
+        Exception failure = assertThrows(Exception.class, () -> unnamed.run("--spring.datasource.url=jdbc:h2:mem:unnamed-node",
+                "--spring.h2.console.enabled=false", "--booking.multi-node=true", "--logging.level.root=OFF"));
+        assertTrue(NestedExceptionUtils.getMostSpecificCause(failure).getMessage().contains("booking.ids.node-id must be set"));
+    }
+}
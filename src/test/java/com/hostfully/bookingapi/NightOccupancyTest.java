@@ -0,0 +1,201 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.service.BookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"booking.occupancy-table.enabled=true", "booking.occupancy-index.enabled=false"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class NightOccupancyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private BlockRequest createBlockRequest(String propertyId, LocalDate start, LocalDate end) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Maintenance");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private Long create(String path, Object request) throws Exception {
+        String response = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private static ConfigurableApplicationContext node(boolean occupancyTable) {
+        return new SpringApplicationBuilder(BookingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:occupancy-switch;DB_CLOSE_DELAY=-1",
+                        "--spring.h2.console.enabled=false", "--booking.occupancy-table.enabled=" + occupancyTable,
+                        "--logging.level.root=WARN");
+    }
+
+    private int nights(String type, Long id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM occupancy WHERE occupancy_type = ? AND occupant_id = ?",
+                Integer.class, type, id);
+    }
+
+    @Test
+    void shouldKeepNightsInStepWithBookingLifecycle() throws Exception {
+        Long id = create("/api/bookings", createBookingRequest("prop-1", start, start.plusDays(4)));
+        assertEquals(4, nights("BOOKING", id));
+
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start.plusDays(3), start.plusDays(5)))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Booking overlaps with an existing booking"));
+
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id)).andExpect(status().isOk());
+        assertEquals(0, nights("BOOKING", id));
+
+        mockMvc.perform(patch("/api/bookings/{id}/rebook", id)).andExpect(status().isOk());
+        assertEquals(4, nights("BOOKING", id));
+
+        mockMvc.perform(put("/api/bookings/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start.plusDays(1), start.plusDays(3)))))
+                .andExpect(status().isOk());
+        assertEquals(2, nights("BOOKING", id));
+
+        mockMvc.perform(delete("/api/bookings/{id}", id)).andExpect(status().isNoContent());
+        assertEquals(0, nights("BOOKING", id));
+    }
+
+    @Test
+    void shouldMoveBlockNightsOnUpdate() throws Exception {
+        Long id = create("/api/blocks", createBlockRequest("prop-1", start, start.plusDays(3)));
+
+        mockMvc.perform(put("/api/blocks/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBlockRequest("prop-1", start.plusDays(5), start.plusDays(7)))))
+                .andExpect(status().isOk());
+
+        assertEquals(2, nights("BLOCK", id));
+        create("/api/bookings", createBookingRequest("prop-1", start, start.plusDays(3)));
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start.plusDays(6), start.plusDays(8)))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Booking overlaps with an existing block"));
+    }
+
+    @Test
+    void shouldRejectDoubleBookingThroughPrimaryKey() throws Exception {
+        assertThrows(DuplicateKeyException.class, () -> jdbcTemplate.batchUpdate(
+                "INSERT INTO occupancy (property_id, night, occupancy_type, occupant_id) VALUES (?, ?, ?, ?)",
+                List.of(new Object[]{"prop-1", Date.valueOf(start), "BOOKING", 1L},
+                        new Object[]{"prop-1", Date.valueOf(start), "BLOCK", 2L})));
+
+        // A night claimed by a writer that skipped the overlap check, as a racing node would.
+        jdbcTemplate.update("DELETE FROM occupancy");
+        jdbcTemplate.update("INSERT INTO occupancy (property_id, night, occupancy_type, occupant_id) VALUES (?, ?, ?, ?)",
+                "prop-1", Date.valueOf(start.plusDays(2)), "BLOCK", 999L);
+        mockMvc.perform(post("/api/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                createBookingRequest("prop-2", start, start.plusDays(2)),
+                                createBookingRequest("prop-1", start, start.plusDays(4))))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Booking overlaps with an existing block"));
+
+        assertEquals(0, bookingRepository.count());
+    }
+
+    @Test
+    void shouldRebuildNightsFromStoredRanges() throws Exception {
+        jdbcTemplate.update("INSERT INTO bookings (property_id, guest_name, guest_email, start_date, end_date, status, version) " +
+                        "VALUES ('prop-1', 'Guest', 'guest@example.com', ?, ?, 'ACTIVE', 0)",
+                Date.valueOf(start), Date.valueOf(start.plusDays(3)));
+        jdbcTemplate.update("INSERT INTO bookings (property_id, guest_name, guest_email, start_date, end_date, status, version) " +
+                        "VALUES ('prop-1', 'Guest', 'guest@example.com', ?, ?, 'CANCELED', 0)",
+                Date.valueOf(start), Date.valueOf(start.plusDays(3)));
+        jdbcTemplate.update("INSERT INTO blocks (property_id, reason, start_date, end_date, version) " +
+                        "VALUES ('prop-1', 'Maintenance', ?, ?, 0)",
+                Date.valueOf(start.plusDays(3)), Date.valueOf(start.plusDays(5)));
+
+        mockMvc.perform(post("/api/admin/occupancy-table/rebuild")).andExpect(status().isNoContent());
+
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM occupancy", Integer.class));
+    }
+
+    @Test
+    void shouldKeepOneHolderOfNightsStoredTwice() throws Exception {
+        jdbcTemplate.update("INSERT INTO bookings (property_id, guest_name, guest_email, start_date, end_date, status, version) " +
+                        "VALUES ('prop-1', 'Guest', 'guest@example.com', ?, ?, 'ACTIVE', 0)",
+                Date.valueOf(start), Date.valueOf(start.plusDays(3)));
+        jdbcTemplate.update("INSERT INTO blocks (property_id, reason, start_date, end_date, version) " +
+                        "VALUES ('prop-1', 'Maintenance', ?, ?, 0)",
+                Date.valueOf(start.plusDays(2)), Date.valueOf(start.plusDays(4)));
+
+        mockMvc.perform(post("/api/admin/occupancy-table/rebuild")).andExpect(status().isNoContent());
+
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM occupancy", Integer.class));
+    }
+
+    @Test
+    void shouldRebuildNightsWrittenWhileTheTableWasOff() {
+        try (ConfigurableApplicationContext off = node(false)) {
+            off.getBean(BookingService.class).create(createBookingRequest("prop-1", start, start.plusDays(3)));
+            assertEquals(0, off.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM occupancy", Integer.class));
+        }
+
+        try (ConfigurableApplicationContext on = node(true)) {
+            JdbcTemplate onJdbc = on.getBean(JdbcTemplate.class);
+            assertEquals(3, onJdbc.queryForObject("SELECT COUNT(*) FROM occupancy", Integer.class));
+            onJdbc.execute("DROP ALL OBJECTS");
+        }
+    }
+}
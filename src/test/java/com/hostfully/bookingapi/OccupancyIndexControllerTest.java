@@ -0,0 +1,133 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class OccupancyIndexControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private BlockRequest createBlockRequest(String propertyId, LocalDate start, LocalDate end) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Maintenance");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    @Test
+    void shouldReportConsistentIndexAfterWrites() throws Exception {
+        String response = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                                LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))))
+                .andReturn().getResponse().getContentAsString();
+
+        Long canceledId = objectMapper.readTree(response).get("id").asLong();
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", canceledId));
+
+        mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                        LocalDate.now().plusDays(2), LocalDate.now().plusDays(4)))));
+
+        mockMvc.perform(post("/api/blocks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBlockRequest("prop-1",
+                        LocalDate.now().plusDays(4), LocalDate.now().plusDays(8)))));
+
+        mockMvc.perform(get("/api/admin/occupancy-index/consistency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consistent").value(true))
+                .andExpect(jsonPath("$.indexedBookings").value(1))
+                .andExpect(jsonPath("$.indexedBlocks").value(1))
+                .andExpect(jsonPath("$.storedBookings").value(1))
+                .andExpect(jsonPath("$.storedBlocks").value(1));
+    }
+
+    @Test
+    void shouldAllowUpdateWithinOwnRange() throws Exception {
+        String response = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                                LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))))
+                .andReturn().getResponse().getContentAsString();
+
+        Long id = objectMapper.readTree(response).get("id").asLong();
+
+        mockMvc.perform(post("/api/blocks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBlockRequest("prop-1",
+                                LocalDate.now().plusDays(5), LocalDate.now().plusDays(7)))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(put("/api/bookings/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                                LocalDate.now().plusDays(2), LocalDate.now().plusDays(5)))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/bookings/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                                LocalDate.now().plusDays(2), LocalDate.now().plusDays(6)))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void shouldReportRowsChangedBehindTheIndex() throws Exception {
+        String response = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                                LocalDate.now().plusDays(1), LocalDate.now().plusDays(5)))))
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        jdbcTemplate.update("UPDATE bookings SET end_date = ? WHERE id = ?", LocalDate.now().plusDays(6), id);
+        jdbcTemplate.update("INSERT INTO blocks (id, property_id, reason, start_date, end_date, version) VALUES (?, ?, ?, ?, ?, 0)",
+                7L, "prop-2", "Maintenance", LocalDate.now().plusDays(1), LocalDate.now().plusDays(2));
+
+        mockMvc.perform(get("/api/admin/occupancy-index/consistency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consistent").value(false))
+                .andExpect(jsonPath("$.stale[0]").value("BOOKING:" + id))
+                .andExpect(jsonPath("$.missing[0]").value("BLOCK:7"))
+                .andExpect(jsonPath("$.storedBlocks").value(1))
+                .andExpect(jsonPath("$.indexedBlocks").value(0));
+    }
+}
@@ -0,0 +1,103 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures overlap-check latency against growing bookings tables, with and without the
+ * composite index. Run with {@code mvn test -Pbenchmark}; sizes can be overridden with
+ * {@code -Dbenchmark.sizes=10000,100000}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OverlapQueryBenchmark {
+
+    private static final int BOOKINGS_PER_PROPERTY = 100;
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int MEASURED_QUERIES = 2_000;
+    private static final LocalDate EPOCH = LocalDate.now().plusDays(1);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void overlapLatencyByTableSize() {
+        int[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", "10000,100000,1000000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        System.out.printf("%10s %18s %18s %18s %18s%n",
+                "rows", "no-index mean us", "no-index p99 us", "index mean us", "index p99 us");
+        for (int size : sizes) {
+            seed(size);
+            jdbcTemplate.execute("DROP INDEX idx_bookings_property_status_dates");
+            double[] before = measure(size);
+            jdbcTemplate.execute("CREATE INDEX idx_bookings_property_status_dates " +
+                    "ON bookings (property_id, status, start_date, end_date)");
+            jdbcTemplate.execute("ANALYZE");
+            double[] after = measure(size);
+            System.out.printf("%10d %18.1f %18.1f %18.1f %18.1f%n", size, before[0], before[1], after[0], after[1]);
+        }
+        jdbcTemplate.execute("TRUNCATE TABLE bookings");
+    }
+
+    private void seed(int size) {
+        jdbcTemplate.execute("TRUNCATE TABLE bookings");
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < size; i++) {
+            LocalDate start = EPOCH.plusDays((long) (i % BOOKINGS_PER_PROPERTY) * 7);
+            batch.add(new Object[]{"prop-" + (i / BOOKINGS_PER_PROPERTY), "Guest " + i, "guest" + i + "@example.com",
+                    Date.valueOf(start), Date.valueOf(start.plusDays(5)),
+                    i % 10 == 0 ? BookingStatus.CANCELED.name() : BookingStatus.ACTIVE.name()});
+            if (batch.size() == 10_000) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (property_id, guest_name, guest_email, start_date, end_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+
+    private double[] measure(int size) {
+        Random random = new Random(42);
+        int properties = Math.max(1, size / BOOKINGS_PER_PROPERTY);
+        long[] samples = new long[MEASURED_QUERIES];
+        for (int i = 0; i < WARMUP_QUERIES + MEASURED_QUERIES; i++) {
+            String propertyId = "prop-" + random.nextInt(properties);
+            LocalDate start = EPOCH.plusDays(random.nextInt(BOOKINGS_PER_PROPERTY * 7));
+            long began = System.nanoTime();
+            bookingRepository.findOverlapType(propertyId, start, start.plusDays(3), null, null);
+            long elapsed = System.nanoTime() - began;
+            if (i >= WARMUP_QUERIES) {
+                samples[i - WARMUP_QUERIES] = elapsed;
+            }
+        }
+        Arrays.sort(samples);
+        double mean = Arrays.stream(samples).average().orElse(0) / 1_000.0;
+        double p99 = samples[(int) (samples.length * 0.99)] / 1_000.0;
+        return new double[]{mean, p99};
+    }
+}
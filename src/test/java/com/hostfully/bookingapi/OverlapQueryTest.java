@@ -0,0 +1,104 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.entity.Block;
+import com.hostfully.bookingapi.entity.Booking;
+import com.hostfully.bookingapi.enums.BookingStatus;
+import com.hostfully.bookingapi.enums.OccupancyType;
+import com.hostfully.bookingapi.repository.BlockRepository;
+import com.hostfully.bookingapi.repository.BookingRepository;
+import com.hostfully.bookingapi.repository.StoredRange;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class OverlapQueryTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BlockRepository blockRepository;
+
+    private final LocalDate today = LocalDate.now();
+
+    private Booking saveBooking(String propertyId, LocalDate start, LocalDate end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setPropertyId(propertyId);
+        booking.setGuestName("John Doe");
+        booking.setGuestEmail("john@example.com");
+        booking.setStartDate(start);
+        booking.setEndDate(end);
+        booking.setStatus(status);
+        return bookingRepository.save(booking);
+    }
+
+    private Block saveBlock(String propertyId, LocalDate start, LocalDate end) {
+        Block block = new Block();
+        block.setPropertyId(propertyId);
+        block.setReason("Maintenance");
+        block.setStartDate(start);
+        block.setEndDate(end);
+        return blockRepository.save(block);
+    }
+
+    @Test
+    void shouldExcludeOwnEntryFromOverlapTypeQuery() {
+        Booking booking = saveBooking("prop-1", today.plusDays(1), today.plusDays(5), BookingStatus.ACTIVE);
+        Block block = saveBlock("prop-2", today.plusDays(1), today.plusDays(5));
+
+        assertEquals(OccupancyType.BOOKING,
+                bookingRepository.findOverlapType("prop-1", today.plusDays(2), today.plusDays(3), null, null));
+        assertNull(bookingRepository.findOverlapType("prop-1", today.plusDays(2), today.plusDays(3), booking.getId(), null));
+        assertNull(bookingRepository.findOverlapType("prop-1", today.plusDays(5), today.plusDays(7), null, null));
+        assertEquals(OccupancyType.BLOCK,
+                bookingRepository.findOverlapType("prop-2", today, today.plusDays(2), null, null));
+        assertNull(bookingRepository.findOverlapType("prop-2", today, today.plusDays(2), null, block.getId()));
+    }
+
+    @Test
+    void shouldLoadOnlyTheDatesOfOverlappingRows() {
+        Booking booking = saveBooking("prop-1", today.plusDays(1), today.plusDays(3), BookingStatus.ACTIVE);
+        saveBooking("prop-1", today.plusDays(3), today.plusDays(5), BookingStatus.CANCELED);
+        Block block = saveBlock("prop-1", today.plusDays(5), today.plusDays(7));
+
+        assertEquals(List.of(new StoredRange(booking.getId(), today.plusDays(1), today.plusDays(3))),
+                bookingRepository.findOverlappingRanges("prop-1", today, today.plusDays(6), BookingStatus.ACTIVE));
+        assertEquals(List.of(new StoredRange(block.getId(), today.plusDays(5), today.plusDays(7))),
+                blockRepository.findOverlappingRanges("prop-1", today, today.plusDays(6)));
+        assertTrue(blockRepository.findOverlappingRanges("prop-1", today, today.plusDays(5)).isEmpty());
+    }
+
+    @Test
+    void shouldReportOverlapTypeInOneQuery() {
+        saveBooking("prop-1", today.plusDays(1), today.plusDays(3), BookingStatus.ACTIVE);
+        saveBooking("prop-1", today.plusDays(3), today.plusDays(5), BookingStatus.CANCELED);
+        Block block = saveBlock("prop-1", today.plusDays(5), today.plusDays(7));
+
+        assertEquals(OccupancyType.BOOKING,
+                bookingRepository.findOverlapType("prop-1", today, today.plusDays(2), null, null));
+        assertNull(bookingRepository.findOverlapType("prop-1", today.plusDays(3), today.plusDays(5), null, null));
+        assertEquals(OccupancyType.BLOCK,
+                bookingRepository.findOverlapType("prop-1", today.plusDays(4), today.plusDays(6), null, null));
+        assertNull(bookingRepository.findOverlapType("prop-1", today.plusDays(4), today.plusDays(6),
+                null, block.getId()));
+    }
+
+    @Test
+    void shouldFindFreePropertiesInOneQuery() {
+        saveBooking("prop-1", today.plusDays(1), today.plusDays(5), BookingStatus.ACTIVE);
+        saveBooking("prop-2", today.plusDays(1), today.plusDays(5), BookingStatus.CANCELED);
+        saveBlock("prop-3", today.plusDays(2), today.plusDays(3));
+        saveBlock("prop-4", today.plusDays(6), today.plusDays(9));
+
+        assertEquals(List.of("prop-2", "prop-4"),
+                bookingRepository.findFreePropertyIds(today.plusDays(2), today.plusDays(6), null, 10));
+        assertEquals(List.of("prop-4"),
+                bookingRepository.findFreePropertyIds(today.plusDays(2), today.plusDays(6), "prop-2", 10));
+    }
+}
@@ -0,0 +1,115 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.IndexConsistencyResponse;
+import com.hostfully.bookingapi.exception.OverlapException;
+import com.hostfully.bookingapi.service.BlockService;
+import com.hostfully.bookingapi.service.BookingService;
+import com.hostfully.bookingapi.service.OccupancyIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentStorageTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+
+    /** Settings are passed as arguments, since default properties rank below the profile's file. */
+    private ConfigurableApplicationContext start(String... arguments) {
+        List<String> args = new ArrayList<>(List.of(
+                "--booking.storage.path=" + directory.resolve("bookingdb"), "--logging.level.root=WARN"));
+        args.addAll(List.of(arguments));
+        return new SpringApplicationBuilder(BookingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("persistent")
+                .run(args.toArray(String[]::new));
+    }
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private BlockRequest createBlockRequest(String propertyId, LocalDate start, LocalDate end) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Maintenance");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    @Test
+    void shouldKeepBookingsAndRejectOverlapsAfterRestart() {
+        Long bookingId;
+        try (ConfigurableApplicationContext context = start()) {
+            BookingService bookingService = context.getBean(BookingService.class);
+            bookingId = bookingService.create(createBookingRequest("prop-1", start, start.plusDays(3))).id();
+            Long canceledId = bookingService.create(createBookingRequest("prop-1", start.plusDays(5), start.plusDays(7))).id();
+            bookingService.cancel(canceledId, null);
+            context.getBean(BlockService.class).create(createBlockRequest("prop-1", start.plusDays(3), start.plusDays(4)));
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            BookingService bookingService = context.getBean(BookingService.class);
+            assertEquals("prop-1", bookingService.getById(bookingId).propertyId());
+            assertThrows(OverlapException.class,
+                    () -> bookingService.create(createBookingRequest("prop-1", start.plusDays(2), start.plusDays(4))));
+            assertEquals("prop-1", bookingService.create(createBookingRequest("prop-1", start.plusDays(5), start.plusDays(7))).propertyId());
+
+            IndexConsistencyResponse consistency = context.getBean(OccupancyIndex.class).verify();
+            assertTrue(consistency.isConsistent());
+            assertEquals(2, consistency.getIndexedBookings());
+            assertEquals(1, consistency.getIndexedBlocks());
+        }
+    }
+
+    @Test
+    void shouldWarmIndexFromSlicesOnEveryThread() {
+        int properties = 600;
+        int bookingsPerProperty = 100;
+        try (ConfigurableApplicationContext context = start()) {
+            List<Object[]> rows = new ArrayList<>(properties * bookingsPerProperty);
+            for (int p = 0; p < properties; p++) {
+                for (int b = 0; b < bookingsPerProperty; b++) {
+                    LocalDate night = start.plusDays(b * 2L);
+                    rows.add(new Object[]{"prop-" + p, Date.valueOf(night), Date.valueOf(night.plusDays(1)),
+                            b % 10 == 0 ? "CANCELED" : "ACTIVE"});
+                }
+            }
+            context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO bookings " +
+                    "(property_id, guest_name, guest_email, start_date, end_date, status) " +
+                    "VALUES (?, 'Guest', 'guest@example.com', ?, ?, ?)", rows);
+        }
+
+        try (ConfigurableApplicationContext context = start("--booking.occupancy-index.warm-up-threads=3")) {
+            OccupancyIndex occupancyIndex = context.getBean(OccupancyIndex.class);
+            IndexConsistencyResponse consistency = occupancyIndex.verify();
+            assertTrue(consistency.isConsistent());
+            assertEquals(properties * bookingsPerProperty * 9 / 10, consistency.getIndexedBookings());
+            assertEquals(properties, occupancyIndex.findFreeProperties(start.plusDays(1), start.plusDays(2), null, 1000).size());
+        }
+    }
+}
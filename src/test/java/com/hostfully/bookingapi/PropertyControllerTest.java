@@ -0,0 +1,158 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PropertyControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LocalDate today = LocalDate.now();
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private BlockRequest createBlockRequest(String propertyId, LocalDate start, LocalDate end) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Maintenance");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    @Test
+    void shouldReturnAvailabilitySegments() throws Exception {
+        mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                        today.plusDays(2), today.plusDays(5)))));
+
+        mockMvc.perform(post("/api/blocks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBlockRequest("prop-1",
+                        today.plusDays(5), today.plusDays(12)))));
+
+        mockMvc.perform(get("/api/properties/{propertyId}/availability", "prop-1")
+                        .param("from", today.toString())
+                        .param("to", today.plusDays(10).toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.freeNights").value(2))
+                .andExpect(jsonPath("$.segments.length()").value(3))
+                .andExpect(jsonPath("$.segments[0].status").value("FREE"))
+                .andExpect(jsonPath("$.segments[1].status").value("BOOKED"))
+                .andExpect(jsonPath("$.segments[1].startDate").value(today.plusDays(2).toString()))
+                .andExpect(jsonPath("$.segments[2].status").value("BLOCKED"))
+                .andExpect(jsonPath("$.segments[2].endDate").value(today.plusDays(10).toString()));
+    }
+
+    @Test
+    void shouldReturnNotModifiedUntilOccupancyChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/properties/{propertyId}/availability", "prop-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.freeNights").value(365))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/properties/{propertyId}/availability", "prop-1")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                        today.plusDays(1), today.plusDays(3)))));
+
+        String changed = mockMvc.perform(get("/api/properties/{propertyId}/availability", "prop-1")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.freeNights").value(363))
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void shouldRejectInvertedAvailabilityRange() throws Exception {
+        mockMvc.perform(get("/api/properties/{propertyId}/availability", "prop-1")
+                        .param("from", today.plusDays(5).toString())
+                        .param("to", today.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldFindFreePropertiesPageByPage() throws Exception {
+        mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBookingRequest("prop-1",
+                        today.plusDays(1), today.plusDays(5)))));
+        mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBookingRequest("prop-2",
+                        today.plusDays(10), today.plusDays(12)))));
+        mockMvc.perform(post("/api/blocks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createBlockRequest("prop-3",
+                        today.plusDays(3), today.plusDays(4)))));
+        String response = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-4",
+                                today.plusDays(1), today.plusDays(5)))))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", objectMapper.readTree(response).get("id").asLong()));
+
+        mockMvc.perform(get("/api/properties/available")
+                        .param("from", today.plusDays(2).toString())
+                        .param("to", today.plusDays(6).toString())
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.propertyIds[0]").value("prop-2"))
+                .andExpect(jsonPath("$.nextCursor").value("prop-2"));
+
+        mockMvc.perform(get("/api/properties/available")
+                        .param("from", today.plusDays(2).toString())
+                        .param("to", today.plusDays(6).toString())
+                        .param("after", "prop-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.propertyIds.length()").value(1))
+                .andExpect(jsonPath("$.propertyIds[0]").value("prop-4"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/properties/available")
+                        .param("from", today.plusDays(2).toString())
+                        .param("to", today.plusDays(6).toString())
+                        .param("propertyId", "prop-9", "prop-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.propertyIds.length()").value(1))
+                .andExpect(jsonPath("$.propertyIds[0]").value("prop-9"));
+    }
+}
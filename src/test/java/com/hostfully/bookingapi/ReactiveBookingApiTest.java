@@ -0,0 +1,282 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.dto.BookingResponse;
+import com.hostfully.bookingapi.reactive.ReactiveBookingApiApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReactiveBookingApiApplication.class, properties = "booking.occupancy-table.enabled=true")
+@ActiveProfiles(ReactiveBookingApiApplication.PROFILE)
+@AutoConfigureWebTestClient
+class ReactiveBookingApiTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+
+    @BeforeEach
+    void clearTables() {
+        Flux.just("DELETE FROM bookings", "DELETE FROM blocks", "DELETE FROM property_locks",
+                        "DELETE FROM occupancy", "DELETE FROM outbox_events")
+                .concatMap(sql -> databaseClient.sql(sql).then())
+                .blockLast();
+    }
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private BlockRequest createBlockRequest(String propertyId, LocalDate start, LocalDate end) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Maintenance");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private BookingResponse createBooking(BookingRequest request) {
+        return webTestClient.post().uri("/api/bookings").bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody(BookingResponse.class).returnResult().getResponseBody();
+    }
+
+    @Test
+    void shouldCreateReadAndRejectOverlaps() {
+        BookingResponse created = createBooking(createBookingRequest("prop-1", start, start.plusDays(3)));
+
+        webTestClient.get().uri("/api/bookings/{id}", created.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.guestName").isEqualTo("John Doe").jsonPath("$.status").isEqualTo("ACTIVE");
+        webTestClient.get().uri("/api/bookings/{id}", created.id()).header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.post().uri("/api/bookings").bodyValue(createBookingRequest("prop-1", start.plusDays(2), start.plusDays(4)))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.error").isEqualTo("Booking overlaps with an existing booking");
+        webTestClient.post().uri("/api/blocks").bodyValue(createBlockRequest("prop-1", start.plusDays(1), start.plusDays(2)))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.error").isEqualTo("Block overlaps with an existing active booking");
+
+        webTestClient.post().uri("/api/blocks").bodyValue(createBlockRequest("prop-1", start.plusDays(3), start.plusDays(5)))
+                .exchange()
+                .expectStatus().isCreated();
+        webTestClient.post().uri("/api/bookings").bodyValue(createBookingRequest("prop-1", start.plusDays(4), start.plusDays(6)))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.error").isEqualTo("Booking overlaps with an existing block");
+    }
+
+    private List<String> rows(String sql) {
+        return databaseClient.sql(sql).map(row -> row.get(0, String.class)).all().collectList().block();
+    }
+
+    @Test
+    void shouldMaintainNightsAndEventsInTheWritingTransaction() {
+        BookingResponse booking = createBooking(createBookingRequest("prop-1", start, start.plusDays(3)));
+        String blockBody = webTestClient.post().uri("/api/blocks").bodyValue(createBlockRequest("prop-1", start.plusDays(3), start.plusDays(5)))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals(List.of("BLOCK", "BLOCK", "BOOKING", "BOOKING", "BOOKING"),
+                rows("SELECT occupancy_type FROM occupancy ORDER BY occupancy_type, night"));
+
+        webTestClient.patch().uri("/api/bookings/{id}/cancel", booking.id()).exchange().expectStatus().isOk();
+        webTestClient.patch().uri("/api/bookings/{id}/rebook", booking.id()).exchange().expectStatus().isOk();
+        webTestClient.put().uri("/api/bookings/{id}", booking.id())
+                .bodyValue(createBookingRequest("prop-1", start.plusDays(1), start.plusDays(2)))
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals(List.of("BLOCK", "BLOCK", "BOOKING"),
+                rows("SELECT occupancy_type FROM occupancy ORDER BY occupancy_type, night"));
+
+        webTestClient.delete().uri("/api/bookings/{id}", booking.id()).exchange().expectStatus().isNoContent();
+        assertEquals(List.of("BLOCK", "BLOCK"), rows("SELECT occupancy_type FROM occupancy"));
+        assertEquals(List.of("BOOKING:CREATED", "BLOCK:CREATED", "BOOKING:CANCELED", "BOOKING:REBOOKED",
+                        "BOOKING:UPDATED", "BOOKING:DELETED"),
+                rows("SELECT aggregate_type || ':' || event_type FROM outbox_events ORDER BY occurred_at, id"));
+        assertTrue(rows("SELECT payload FROM outbox_events WHERE aggregate_type = 'BLOCK'").get(0).contains("\"reason\":\"Maintenance\""),
+                blockBody);
+    }
+
+    @Test
+    void shouldRejectNightsClaimedBehindTheRangeChecks() {
+        // A night claimed by a writer that skipped the overlap check, as a racing node would.
+        databaseClient.sql("INSERT INTO occupancy (property_id, night, occupancy_type, occupant_id) VALUES ('prop-1', :night, 'BLOCK', 999)")
+                .bind("night", start.plusDays(1))
+                .then()
+                .block();
+
+        webTestClient.post().uri("/api/bookings").bodyValue(createBookingRequest("prop-1", start, start.plusDays(3)))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.error").isEqualTo("Booking overlaps with an existing block");
+        assertEquals(List.of(), rows("SELECT property_id FROM bookings"));
+    }
+
+    @Test
+    void shouldApplyVersionAndStatusRules() {
+        BookingResponse created = createBooking(createBookingRequest("prop-1", start, start.plusDays(3)));
+
+        webTestClient.patch().uri("/api/bookings/{id}/cancel", created.id()).header(HttpHeaders.IF_MATCH, "\"7\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.patch().uri("/api/bookings/{id}/cancel", created.id()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody().jsonPath("$.status").isEqualTo("CANCELED");
+        webTestClient.patch().uri("/api/bookings/{id}/cancel", created.id())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Booking is already canceled");
+
+        BookingResponse replacement = createBooking(createBookingRequest("prop-1", start, start.plusDays(3)));
+        webTestClient.patch().uri("/api/bookings/{id}/rebook", created.id())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        BookingRequest moved = createBookingRequest("prop-1", start.plusDays(5), start.plusDays(7));
+        webTestClient.put().uri("/api/bookings/{id}", replacement.id()).bodyValue(moved)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.startDate").isEqualTo(start.plusDays(5).toString());
+        webTestClient.patch().uri("/api/bookings/{id}/rebook", created.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.status").isEqualTo("ACTIVE");
+
+        webTestClient.delete().uri("/api/bookings/{id}", replacement.id())
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.get().uri("/api/bookings/{id}", replacement.id())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldRejectInvalidRequests() {
+        webTestClient.post().uri("/api/bookings").bodyValue(createBookingRequest("prop-1", start.plusDays(3), start))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("startDate must be before endDate");
+        webTestClient.post().uri("/api/bookings").bodyValue(createBookingRequest("", start, start.plusDays(1)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors.propertyId").isEqualTo("propertyId is required");
+        webTestClient.put().uri("/api/blocks/{id}", 999).bodyValue(createBlockRequest("prop-1", start, start.plusDays(1)))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldCheckEveryOccurrenceOfRecurringBlocks() {
+        BookingResponse canceled = createBooking(createBookingRequest("prop-1", start.plusWeeks(6), start.plusWeeks(6).plusDays(1)));
+        webTestClient.patch().uri("/api/bookings/{id}/cancel", canceled.id()).exchange().expectStatus().isOk();
+        // Recurring blocks are written through the servlet application; the reactive one only reads them.
+        databaseClient.sql("INSERT INTO blocks (id, property_id, reason, start_date, end_date, recurrence, series_end, version) " +
+                        "VALUES (1, 'prop-1', 'Weekly maintenance', :startDate, :endDate, :recurrence, :seriesEnd, 0)")
+                .bind("startDate", start)
+                .bind("endDate", start.plusDays(2))
+                .bind("recurrence", "FREQ=WEEKLY;INTERVAL=1;COUNT=10")
+                .bind("seriesEnd", start.plusWeeks(9).plusDays(2))
+                .then()
+                .block();
+
+        webTestClient.post().uri("/api/bookings").bodyValue(createBookingRequest("prop-1", start.plusWeeks(3).plusDays(1), start.plusWeeks(3).plusDays(3)))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.error").isEqualTo("Booking overlaps with an existing block");
+        BookingResponse between = createBooking(createBookingRequest("prop-1", start.plusWeeks(3).plusDays(2), start.plusWeeks(3).plusDays(4)));
+        webTestClient.put().uri("/api/bookings/{id}", between.id())
+                .bodyValue(createBookingRequest("prop-1", start.plusWeeks(5), start.plusWeeks(5).plusDays(1)))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        webTestClient.patch().uri("/api/bookings/{id}/rebook", canceled.id())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        webTestClient.post().uri("/api/blocks").bodyValue(createBlockRequest("prop-1", start.plusWeeks(4).plusDays(1), start.plusWeeks(4).plusDays(2)))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.error").isEqualTo("Block overlaps with an existing block");
+        createBooking(createBookingRequest("prop-1", start.plusWeeks(10), start.plusWeeks(10).plusDays(2)));
+
+        webTestClient.put().uri("/api/blocks/{id}", 1).bodyValue(createBlockRequest("prop-1", start, start.plusDays(1)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Recurring blocks are not supported by the reactive API");
+        webTestClient.delete().uri("/api/blocks/{id}", 1).exchange().expectStatus().isNoContent();
+        webTestClient.patch().uri("/api/bookings/{id}/rebook", canceled.id())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void shouldAcceptOneOfConcurrentOverlappingCreates() throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS * 2; i++) {
+                int offset = i % 3;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    return webTestClient.post().uri("/api/bookings")
+                            .bodyValue(createBookingRequest("prop-1", start.plusDays(offset), start.plusDays(offset + 3)))
+                            .exchange()
+                            .returnResult(String.class)
+                            .getStatus().value();
+                }));
+            }
+            startSignal.countDown();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, statuses.stream().filter(status -> status == 201).count(), statuses.toString());
+        assertEquals(THREADS * 2 - 1, statuses.stream().filter(status -> status == 409).count(), statuses.toString());
+    }
+}
@@ -0,0 +1,124 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.reactive.ReactiveBookingApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the servlet application and {@link ReactiveBookingApiApplication} with the same mix of
+ * creates and reads from many concurrent HTTP clients, each on H2 in memory, and reports
+ * throughput and latency for each. Every client books its own property night after night and
+ * reads back what it created. Run with {@code mvn test -Pbenchmark -Dtest=ReactiveLoadBenchmark};
+ * {@code -Dbenchmark.clients=1000} and {@code -Dbenchmark.requests=20} override the defaults.
+ * Errors are requests that failed or timed out and are reported rather than failing the run.
+ */
+@Tag("benchmark")
+class ReactiveLoadBenchmark {
+
+    private static final LocalDate EPOCH = LocalDate.now().plusDays(1);
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    @Test
+    void servletVersusReactive() throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 500);
+        int requests = Integer.getInteger("benchmark.requests", 20);
+
+        System.out.printf("%10s %10s %12s %12s %12s %10s%n", "stack", "clients", "req/s", "mean ms", "p99 ms", "errors");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingApiApplication.class)
+                .run("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:load-servlet",
+                        "--spring.h2.console.enabled=false", "--logging.level.root=WARN")) {
+            measure("servlet", port(context), clients, requests);
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ReactiveBookingApiApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(ReactiveBookingApiApplication.PROFILE)
+                .run("--server.port=0", "--logging.level.root=WARN")) {
+            measure("reactive", port(context), clients, requests);
+        }
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    /**
+     * Each client alternates a create on its next night with a read of the booking it created.
+     * Clients run as chains of asynchronous requests, so the load generator holds no thread per
+     * client and does not itself cap concurrency.
+     */
+    private void measure(String stack, int port, int clients, int requests) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        long[] latencies = new long[clients * requests];
+        AtomicInteger errors = new AtomicInteger();
+
+        long begin = System.nanoTime();
+        List<CompletableFuture<Void>> chains = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            chains.add(run(http, port, c, 0, requests, null, latencies, errors));
+        }
+        CompletableFuture.allOf(chains.toArray(CompletableFuture[]::new)).join();
+        long elapsed = System.nanoTime() - begin;
+
+        Arrays.sort(latencies);
+        double mean = Arrays.stream(latencies).average().orElse(0) / 1_000_000.0;
+        double p99 = latencies[(int) (latencies.length * 0.99)] / 1_000_000.0;
+        double throughput = latencies.length / (elapsed / 1_000_000_000.0);
+        System.out.printf("%10s %10d %12.0f %12.2f %12.2f %10d%n", stack, clients, throughput, mean, p99, errors.get());
+    }
+
+    private CompletableFuture<Void> run(HttpClient http, int port, int client, int request,
+                                        int requests, String lastId, long[] latencies, AtomicInteger errors) {
+        if (request == requests) {
+            return CompletableFuture.completedFuture(null);
+        }
+        boolean read = request % 2 == 1 && lastId != null;
+        HttpRequest httpRequest = read
+                ? HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/bookings/" + lastId)).build()
+                : HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/bookings"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body(client, request)))
+                        .build();
+        long started = System.nanoTime();
+        return http.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .handle((response, failure) -> {
+                    latencies[client * requests + request] = System.nanoTime() - started;
+                    int expected = read ? 200 : 201;
+                    if (failure != null || response.statusCode() != expected) {
+                        errors.incrementAndGet();
+                        return lastId;
+                    }
+                    if (read) {
+                        return lastId;
+                    }
+                    Matcher id = ID.matcher(response.body());
+                    return id.find() ? id.group(1) : lastId;
+                })
+                .thenCompose(id -> run(http, port, client, request + 1, requests, id, latencies, errors));
+    }
+
+    private static String body(int client, int request) {
+        LocalDate start = EPOCH.plusDays(request);
+        return "{\"propertyId\":\"load-" + client + "\",\"guestName\":\"Load Guest\",\"guestEmail\":\"load@example.com\"," +
+                "\"startDate\":\"" + start + "\",\"endDate\":\"" + start.plusDays(1) + "\"}";
+    }
+}
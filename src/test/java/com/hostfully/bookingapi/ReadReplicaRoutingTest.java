@@ -0,0 +1,143 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.datasource.ReadYourWritesFilter;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The replica is a separate H2 database that never receives the primary's writes, so the instance
+ * that served a read is visible from its result.
+ */
+@SpringBootTest(properties = {"booking.datasource.replica-urls=" + ReadReplicaRoutingTest.REPLICA_URL, "booking.ids.node-id=1"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+
+    @BeforeEach
+    void resetReplica() {
+        Flyway flyway = Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+    }
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    @Test
+    void shouldWriteToPrimaryAndReadFromReplica() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start, start.plusDays(3)))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class));
+        mockMvc.perform(get("/api/bookings").param("propertyId", "prop-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    void shouldFillBookingCacheFromPrimary() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start, start.plusDays(3)))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+        replica.update("INSERT INTO bookings (id, property_id, guest_name, guest_email, start_date, end_date, status, version) " +
+                        "VALUES (?, 'prop-1', 'Stale', 'guest@example.com', ?, ?, 'ACTIVE', 0)",
+                id, Date.valueOf(start), Date.valueOf(start.plusDays(3)));
+
+        mockMvc.perform(get("/api/bookings/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.guestName").value("John Doe"));
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimaryWithinWindow() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start, start.plusDays(3)))))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().httpOnly(ReadYourWritesFilter.COOKIE, true))
+                .andReturn();
+        long id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+        Cookie sticky = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(sticky);
+
+        mockMvc.perform(get("/api/bookings/{id}", id).cookie(sticky))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.propertyId").value("prop-1"));
+
+        Cookie expired = new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() - 1));
+        mockMvc.perform(get("/api/bookings").param("propertyId", "prop-1").cookie(expired))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    void shouldServeReadOnlyServicesFromReplica() throws Exception {
+        replica.update("INSERT INTO bookings (property_id, guest_name, guest_email, start_date, end_date, status, version) " +
+                        "VALUES ('prop-1', 'Guest', 'guest@example.com', ?, ?, 'ACTIVE', 0)",
+                Date.valueOf(start), Date.valueOf(start.plusDays(3)));
+
+        mockMvc.perform(get("/api/bookings").param("propertyId", "prop-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].guestName").value("Guest"));
+
+        // The write path checks overlaps against the primary, which has no such booking.
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest("prop-1", start, start.plusDays(3)))))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,91 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.service.AvailabilityService;
+import com.hostfully.bookingapi.service.BlockService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares a year of weekly maintenance stored as one block per occurrence with the same
+ * schedule stored as one recurring block, evaluated lazily or from the expansion cache. Reports
+ * the time to create the schedules, the rows they take and the latency of availability checks
+ * against them. Run with {@code mvn test -Pbenchmark -Dtest=RecurringBlockBenchmark};
+ * {@code -Dbenchmark.properties=500} overrides the number of properties.
+ */
+@Tag("benchmark")
+class RecurringBlockBenchmark {
+
+    private static final int WEEKS = 52;
+    private static final int WARMUP_CHECKS = 5_000;
+    private static final int MEASURED_CHECKS = 20_000;
+    private static final LocalDate EPOCH = LocalDate.now().plusDays(1);
+
+    @Test
+    void occurrenceRowsVersusRecurringBlocks() {
+        int properties = Integer.getInteger("benchmark.properties", 200);
+
+        System.out.printf("%16s %12s %10s %16s %16s%n", "mode", "create ms", "rows", "check mean us", "check p99 us");
+        run("rows", properties, false, Integer.MAX_VALUE);
+        run("series-lazy", properties, true, Integer.MAX_VALUE);
+        run("series-expanded", properties, true, 1);
+    }
+
+    private void run(String mode, int properties, boolean recurring, int hotThreshold) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingApiApplication.class)
+                .run("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:recurrence-" + mode,
+                        "--spring.h2.console.enabled=false", "--logging.level.root=WARN",
+                        "--booking.recurrence.expansion.hot-threshold=" + hotThreshold)) {
+            BlockService blockService = context.getBean(BlockService.class);
+            AvailabilityService availabilityService = context.getBean(AvailabilityService.class);
+
+            long began = System.nanoTime();
+            for (int p = 0; p < properties; p++) {
+                if (recurring) {
+                    blockService.create(block("prop-" + p, EPOCH, "FREQ=WEEKLY;COUNT=" + WEEKS));
+                } else {
+                    for (int week = 0; week < WEEKS; week++) {
+                        blockService.create(block("prop-" + p, EPOCH.plusWeeks(week), null));
+                    }
+                }
+            }
+            double createMillis = (System.nanoTime() - began) / 1_000_000.0;
+            Integer rows = context.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM blocks", Integer.class);
+
+            Random random = new Random(42);
+            long[] samples = new long[MEASURED_CHECKS];
+            for (int i = 0; i < WARMUP_CHECKS + MEASURED_CHECKS; i++) {
+                String propertyId = "prop-" + random.nextInt(properties);
+                LocalDate from = EPOCH.plusDays(random.nextInt(WEEKS * 7));
+                long started = System.nanoTime();
+                availabilityService.findAvailableProperties(from, from.plusDays(2), List.of(propertyId), null, 1);
+                long elapsed = System.nanoTime() - started;
+                if (i >= WARMUP_CHECKS) {
+                    samples[i - WARMUP_CHECKS] = elapsed;
+                }
+            }
+            Arrays.sort(samples);
+            double mean = Arrays.stream(samples).average().orElse(0) / 1_000.0;
+            double p99 = samples[(int) (samples.length * 0.99)] / 1_000.0;
+            System.out.printf("%16s %12.0f %10d %16.1f %16.1f%n", mode, createMillis, rows, mean, p99);
+        }
+    }
+
+    private static BlockRequest block(String propertyId, LocalDate startDate, String recurrence) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Weekly maintenance");
+        request.setStartDate(startDate);
+        request.setEndDate(startDate.plusDays(1));
+        request.setRecurrence(recurrence);
+        return request;
+    }
+}
@@ -0,0 +1,202 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BlockRequest;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "booking.recurrence.expansion.hot-threshold=4",
+        "booking.recurrence.expansion.horizon-days=60"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RecurringBlockTest {
+
+    private static final String WEEKLY = "FREQ=WEEKLY;INTERVAL=1;COUNT=52";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+
+    private BlockRequest createBlockRequest(String propertyId, LocalDate startDate, LocalDate endDate, String recurrence) {
+        BlockRequest request = new BlockRequest();
+        request.setPropertyId(propertyId);
+        request.setReason("Weekly maintenance");
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        request.setRecurrence(recurrence);
+        return request;
+    }
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate startDate, LocalDate endDate) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        return request;
+    }
+
+    private ResultActions postJson(String path, Object body) throws Exception {
+        return mockMvc.perform(post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)));
+    }
+
+    private Long createSeries(String propertyId, LocalDate startDate, LocalDate endDate, String recurrence) throws Exception {
+        String response = postJson("/api/blocks", createBlockRequest(propertyId, startDate, endDate, recurrence))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private ResultActions book(String propertyId, LocalDate startDate, LocalDate endDate) throws Exception {
+        return postJson("/api/bookings", createBookingRequest(propertyId, startDate, endDate));
+    }
+
+    @Test
+    void shouldStoreSeriesAsOneRowAndRejectBookingsOnAnyOccurrence() throws Exception {
+        postJson("/api/blocks", createBlockRequest("prop-1", start, start.plusDays(2), "freq=weekly;count=52"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.recurrence").value(WEEKLY))
+                .andExpect(jsonPath("$.seriesEnd").value(start.plusWeeks(51).plusDays(2).toString()));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM blocks", Integer.class));
+        book("prop-1", start.plusWeeks(30).plusDays(1), start.plusWeeks(30).plusDays(3))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Booking overlaps with an existing block"));
+        book("prop-1", start.plusWeeks(30).plusDays(2), start.plusWeeks(31))
+                .andExpect(status().isCreated());
+        book("prop-1", start.plusWeeks(52), start.plusWeeks(52).plusDays(2))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldRejectSeriesOverlappingBookingsOrOtherSeries() throws Exception {
+        book("prop-1", start.plusWeeks(5).plusDays(1), start.plusWeeks(5).plusDays(2)).andExpect(status().isCreated());
+
+        postJson("/api/blocks", createBlockRequest("prop-1", start, start.plusDays(2), WEEKLY))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Block overlaps with an existing active booking"));
+
+        createSeries("prop-1", start, start.plusDays(1), "FREQ=WEEKLY;UNTIL=" + start.plusWeeks(4).toString().replace("-", ""));
+        postJson("/api/blocks", createBlockRequest("prop-1", start.plusWeeks(2), start.plusWeeks(2).plusDays(1),
+                "FREQ=DAILY;INTERVAL=7;COUNT=3"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Block overlaps with an existing block"));
+        postJson("/api/blocks", createBlockRequest("prop-1", start.plusWeeks(2), start.plusWeeks(2).plusDays(1), null))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Block overlaps with an existing block"));
+        createSeries("prop-1", start.plusDays(2), start.plusDays(4), "FREQ=WEEKLY;COUNT=4");
+    }
+
+    @Test
+    void shouldRejectUnsupportedOrUnboundedRecurrences() throws Exception {
+        for (String rule : List.of("FREQ=YEARLY;COUNT=2", "FREQ=WEEKLY", "FREQ=WEEKLY;COUNT=2;UNTIL=20300101",
+                "FREQ=DAILY;COUNT=3", "FREQ=WEEKLY;COUNT=1000", "FREQ=WEEKLY;BYDAY=MO;COUNT=2", "FREQ=WEEKLY;COUNT=x")) {
+            postJson("/api/blocks", createBlockRequest("prop-1", start, start.plusDays(2), rule))
+                    .andExpect(status().isBadRequest());
+        }
+        postJson("/api/blocks/batch", List.of(createBlockRequest("prop-1", start, start.plusDays(2), WEEKLY)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].error").value("Recurring blocks must be created one at a time"));
+    }
+
+    @Test
+    void shouldShowOccurrencesInAvailabilityBatchesAndCalendar() throws Exception {
+        Long id = createSeries("prop-1", start, start.plusDays(2), WEEKLY);
+
+        mockMvc.perform(get("/api/properties/prop-1/availability")
+                        .param("from", start.plusWeeks(3).toString())
+                        .param("to", start.plusWeeks(4).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.segments[0].status").value("BLOCKED"))
+                .andExpect(jsonPath("$.segments[0].endDate").value(start.plusWeeks(3).plusDays(2).toString()))
+                .andExpect(jsonPath("$.freeNights").value(5));
+        book("prop-2", start, start.plusDays(1)).andExpect(status().isCreated());
+        mockMvc.perform(get("/api/properties/available")
+                        .param("from", start.plusWeeks(3).toString())
+                        .param("to", start.plusWeeks(3).plusDays(1).toString())
+                        .param("propertyId", "prop-1"))
+                .andExpect(jsonPath("$.propertyIds").isEmpty());
+        mockMvc.perform(get("/api/properties/available")
+                        .param("from", start.plusWeeks(3).toString())
+                        .param("to", start.plusWeeks(3).plusDays(1).toString()))
+                .andExpect(jsonPath("$.propertyIds[0]").value("prop-2"))
+                .andExpect(jsonPath("$.propertyIds.length()").value(1));
+
+        postJson("/api/bookings/batch", List.of(
+                createBookingRequest("prop-1", start.plusWeeks(8), start.plusWeeks(8).plusDays(1)),
+                createBookingRequest("prop-1", start.plusWeeks(8).plusDays(3), start.plusWeeks(8).plusDays(4))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].error").value("Booking overlaps with an existing block"))
+                .andExpect(jsonPath("$.items[1].status").value("CREATED"));
+
+        String calendar = mockMvc.perform(get("/api/properties/prop-1/calendar.ics"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(calendar.contains("UID:block-" + id + "@booking-api\r\n"));
+        assertTrue(calendar.contains("RRULE:" + WEEKLY + "\r\n"));
+    }
+
+    @Test
+    void shouldAnswerHotPropertiesFromExpansionAndBeyondItLazily() throws Exception {
+        createSeries("prop-1", start, start.plusDays(2), WEEKLY);
+
+        for (int week = 1; week <= 6; week++) {
+            book("prop-1", start.plusWeeks(week), start.plusWeeks(week).plusDays(1)).andExpect(status().isConflict());
+            book("prop-1", start.plusWeeks(week).plusDays(2), start.plusWeeks(week).plusDays(3)).andExpect(status().isCreated());
+        }
+        assertTrue(meterRegistry.counter("booking.recurrence.expansions").count() >= 1);
+
+        book("prop-1", start.plusWeeks(40).plusDays(1), start.plusWeeks(40).plusDays(2)).andExpect(status().isConflict());
+        book("prop-1", start.plusWeeks(40).plusDays(3), start.plusWeeks(40).plusDays(4)).andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldFreeOccurrencesWhenSeriesIsShortenedOrDeleted() throws Exception {
+        Long id = createSeries("prop-1", start, start.plusDays(2), WEEKLY);
+        book("prop-1", start.plusWeeks(10), start.plusWeeks(10).plusDays(1)).andExpect(status().isConflict());
+
+        mockMvc.perform(put("/api/blocks/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                createBlockRequest("prop-1", start, start.plusDays(2), "FREQ=WEEKLY;COUNT=5"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seriesEnd").value(start.plusWeeks(4).plusDays(2).toString()));
+        book("prop-1", start.plusWeeks(10), start.plusWeeks(10).plusDays(1)).andExpect(status().isCreated());
+        book("prop-1", start.plusWeeks(4), start.plusWeeks(4).plusDays(1)).andExpect(status().isConflict());
+
+        mockMvc.perform(delete("/api/blocks/{id}", id)).andExpect(status().isNoContent());
+        book("prop-1", start.plusWeeks(4), start.plusWeeks(4).plusDays(1)).andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,133 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.sharding.ShardRebalancer;
+import com.hostfully.bookingapi.sharding.ShardRing;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRebalanceTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    void shouldSpreadPropertiesEvenly() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"));
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.shardFor("prop-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(Math.abs(count - KEYS / 4) < KEYS / 4 * 0.2, counts.toString()));
+    }
+
+    @Test
+    void shouldOnlyMovePropertiesToAddedShard() {
+        ShardRing before = new ShardRing(List.of("shard-0", "shard-1", "shard-2"));
+        ShardRing after = new ShardRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"));
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String propertyId = "prop-" + i;
+            String owner = after.shardFor(propertyId);
+            if (!owner.equals(before.shardFor(propertyId))) {
+                assertEquals("shard-3", owner);
+                moved++;
+            }
+        }
+
+        assertTrue(Math.abs(moved - KEYS / 4) < KEYS / 4 * 0.2, "moved " + moved);
+    }
+
+    @Test
+    void shouldMovePropertiesToTheShardThatOwnsThem() {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put("shard-0", migrated("jdbc:h2:mem:rebalance-0;DB_CLOSE_DELAY=-1"));
+        shards.put("shard-1", migrated("jdbc:h2:mem:rebalance-1;DB_CLOSE_DELAY=-1"));
+        JdbcTemplate shard0 = new JdbcTemplate(shards.get("shard-0"));
+        JdbcTemplate shard1 = new JdbcTemplate(shards.get("shard-1"));
+        LocalDate start = LocalDate.now().plusDays(1);
+        for (int i = 0; i < 20; i++) {
+            shard0.update("INSERT INTO bookings (id, property_id, guest_name, guest_email, start_date, end_date, status, version) " +
+                            "VALUES (?, ?, 'Guest', 'guest@example.com', ?, ?, 'ACTIVE', 0)",
+                    i, "prop-" + i, Date.valueOf(start), Date.valueOf(start.plusDays(2)));
+            shard0.update("INSERT INTO blocks (id, property_id, reason, start_date, end_date, version) VALUES (?, ?, 'Maintenance', ?, ?, 0)",
+                    i, "prop-" + i, Date.valueOf(start.plusDays(2)), Date.valueOf(start.plusDays(3)));
+        }
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1"));
+
+        int moved = new ShardRebalancer(shards, ring).rebalance();
+
+        assertTrue(moved > 0);
+        for (int i = 0; i < 20; i++) {
+            String propertyId = "prop-" + i;
+            JdbcTemplate owner = ring.shardFor(propertyId).equals("shard-0") ? shard0 : shard1;
+            JdbcTemplate other = owner == shard0 ? shard1 : shard0;
+            assertEquals(1, bookings(owner, propertyId));
+            assertEquals(1, owner.queryForObject("SELECT COUNT(*) FROM blocks WHERE property_id = ?", Integer.class, propertyId));
+            assertEquals(0, bookings(other, propertyId));
+        }
+        assertEquals(moved, shard1.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class));
+        assertEquals(0, new ShardRebalancer(shards, ring).rebalance());
+    }
+
+    @Test
+    void shouldWaitForRebalanceRunningOnAnotherNode() throws Exception {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put("shard-0", migrated("jdbc:h2:mem:rebalance-lock-0;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000"));
+        shards.put("shard-1", migrated("jdbc:h2:mem:rebalance-lock-1;DB_CLOSE_DELAY=-1"));
+        JdbcTemplate shard0 = new JdbcTemplate(shards.get("shard-0"));
+        LocalDate start = LocalDate.now().plusDays(1);
+        for (int i = 0; i < 20; i++) {
+            shard0.update("INSERT INTO bookings (id, property_id, guest_name, guest_email, start_date, end_date, status, version) " +
+                            "VALUES (?, ?, 'Guest', 'guest@example.com', ?, ?, 'ACTIVE', 0)",
+                    i, "prop-" + i, Date.valueOf(start), Date.valueOf(start.plusDays(2)));
+        }
+        ShardRebalancer rebalancer = new ShardRebalancer(shards, new ShardRing(List.of("shard-0", "shard-1")));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection otherNode = shards.get("shard-0").getConnection()) {
+            otherNode.setAutoCommit(false);
+            otherNode.createStatement().executeQuery("SELECT name FROM maintenance_locks FOR UPDATE").close();
+            Future<Integer> moved = executor.submit(rebalancer::rebalance);
+
+            assertThrows(TimeoutException.class, () -> moved.get(500, TimeUnit.MILLISECONDS));
+            assertEquals(20, shard0.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class));
+            otherNode.rollback();
+            assertTrue(moved.get(30, TimeUnit.SECONDS) > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int bookings(JdbcTemplate shard, String propertyId) {
+        return shard.queryForObject("SELECT COUNT(*) FROM bookings WHERE property_id = ?", Integer.class, propertyId);
+    }
+
+    private static DataSource migrated(String url) {
+        DataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+        return dataSource;
+    }
+}
@@ -0,0 +1,221 @@
+package com.hostfully.bookingapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hostfully.bookingapi.dto.BookingRequest;
+import com.hostfully.bookingapi.outbox.OutboxRelay;
+import com.hostfully.bookingapi.sharding.ShardRing;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"booking.sharding.extra-shard-urls=" + ShardingTest.SHARD_1_URL, "booking.ids.node-id=1"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ShardingTest {
+
+    static final String SHARD_1_URL = "jdbc:h2:mem:shard1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRing shardRing;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    private final JdbcTemplate shard0 = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:bookingdb", "sa", ""));
+    private final JdbcTemplate shard1 = new JdbcTemplate(new DriverManagerDataSource(SHARD_1_URL, "sa", ""));
+
+    private final LocalDate start = LocalDate.now().plusDays(1);
+
+    private BookingRequest createBookingRequest(String propertyId, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest();
+        request.setPropertyId(propertyId);
+        request.setGuestName("John Doe");
+        request.setGuestEmail("john@example.com");
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    private Long createBooking(String propertyId) throws Exception {
+        String response = mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest(propertyId, start, start.plusDays(2)))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private int count(JdbcTemplate shard, String propertyId) {
+        return shard.queryForObject("SELECT COUNT(*) FROM bookings WHERE property_id = ?", Integer.class, propertyId);
+    }
+
+    /** Returns the first property ids of the form prop-N owned by the given shard. */
+    private List<String> propertiesOn(String shard, int count) {
+        return IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> "prop-" + i)
+                .filter(propertyId -> shardRing.shardFor(propertyId).equals(shard))
+                .limit(count)
+                .toList();
+    }
+
+    @Test
+    void shouldStoreEachPropertyOnItsShard() throws Exception {
+        for (String propertyId : List.of(propertiesOn("shard-0", 1).get(0), propertiesOn("shard-1", 1).get(0))) {
+            Long id = createBooking(propertyId);
+            boolean onShard0 = shardRing.shardFor(propertyId).equals("shard-0");
+            assertEquals(onShard0 ? 1 : 0, count(shard0, propertyId));
+            assertEquals(onShard0 ? 0 : 1, count(shard1, propertyId));
+
+            mockMvc.perform(get("/api/bookings/{id}", id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.propertyId").value(propertyId));
+            mockMvc.perform(patch("/api/bookings/{id}/cancel", id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("CANCELED"));
+            mockMvc.perform(get("/api/properties/{propertyId}/availability", propertyId)
+                            .param("from", start.toString())
+                            .param("to", start.plusDays(2).toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.freeNights").value(2));
+        }
+    }
+
+    @Test
+    void shouldMergePagesAcrossShards() throws Exception {
+        List<String> propertyIds = new ArrayList<>(propertiesOn("shard-0", 3));
+        propertyIds.addAll(propertiesOn("shard-1", 3));
+        for (String propertyId : propertyIds) {
+            createBooking(propertyId);
+        }
+        List<String> expected = propertyIds.stream().sorted().toList();
+
+        String firstPage = mockMvc.perform(get("/api/bookings").param("limit", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(4))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode first = objectMapper.readTree(firstPage);
+        List<String> seen = new ArrayList<>();
+        first.get("items").forEach(item -> seen.add(item.get("propertyId").asText()));
+
+        mockMvc.perform(get("/api/bookings").param("limit", "4").param("cursor", first.get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].propertyId").value(expected.get(4)))
+                .andExpect(jsonPath("$.items[1].propertyId").value(expected.get(5)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        assertEquals(expected.subList(0, 4), seen);
+
+        mockMvc.perform(get("/api/properties/available")
+                        .param("from", start.toString())
+                        .param("to", start.plusDays(2).toString())
+                        .param("propertyId", expected.get(0), expected.get(5), "prop-free"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.propertyIds.length()").value(1))
+                .andExpect(jsonPath("$.propertyIds[0]").value("prop-free"));
+    }
+
+    @Test
+    void shouldSplitBatchesByShardAndKeepItemIndexes() throws Exception {
+        String onShard0 = propertiesOn("shard-0", 1).get(0);
+        String onShard1 = propertiesOn("shard-1", 1).get(0);
+        List<BookingRequest> batch = List.of(
+                createBookingRequest(onShard1, start, start.plusDays(2)),
+                createBookingRequest(onShard0, start, start.plusDays(2)),
+                createBookingRequest(onShard1, start.plusDays(1), start.plusDays(3)));
+
+        mockMvc.perform(post("/api/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.items[0].index").value(0))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].index").value(1))
+                .andExpect(jsonPath("$.items[1].result.propertyId").value(onShard0))
+                .andExpect(jsonPath("$.items[2].index").value(2))
+                .andExpect(jsonPath("$.items[2].status").value("REJECTED"));
+
+        assertEquals(1, count(shard0, onShard0));
+        assertEquals(1, count(shard1, onShard1));
+    }
+
+    @Test
+    void shouldRejectMovingBookingToPropertyOnAnotherShard() throws Exception {
+        String onShard0 = propertiesOn("shard-0", 2).get(0);
+        String alsoOnShard0 = propertiesOn("shard-0", 2).get(1);
+        String onShard1 = propertiesOn("shard-1", 1).get(0);
+        Long id = createBooking(onShard0);
+
+        mockMvc.perform(put("/api/bookings/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest(onShard1, start, start.plusDays(2)))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Cannot move to property " + onShard1 + ", which is stored on another shard"));
+
+        mockMvc.perform(put("/api/bookings/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookingRequest(alsoOnShard0, start, start.plusDays(2)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.propertyId").value(alsoOnShard0));
+    }
+
+    @Test
+    void shouldFindBookingMovedAfterItsShardWasCached() throws Exception {
+        String propertyId = propertiesOn("shard-0", 1).get(0);
+        Long id = createBooking(propertyId);
+        mockMvc.perform(patch("/api/bookings/{id}/cancel", id)).andExpect(status().isOk());
+
+        // As a node starting with another ring would move it, while this one keeps running.
+        new SimpleJdbcInsert(shard1).withTableName("bookings")
+                .execute(shard0.queryForMap("SELECT * FROM bookings WHERE id = ?", id));
+        shard0.update("DELETE FROM bookings WHERE id = ?", id);
+
+        mockMvc.perform(patch("/api/bookings/{id}/rebook", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ACTIVE"));
+        assertEquals("ACTIVE", shard1.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class, id));
+        mockMvc.perform(get("/api/bookings/{id}", 999_999)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldNumberEventsFromAllShardsInOneFeed() throws Exception {
+        createBooking(propertiesOn("shard-0", 1).get(0));
+        createBooking(propertiesOn("shard-1", 1).get(0));
+        createBooking(propertiesOn("shard-0", 2).get(1));
+        outboxRelay.relay();
+
+        String feed = mockMvc.perform(get("/api/events"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andReturn().getResponse().getContentAsString();
+        List<Long> positions = new ArrayList<>();
+        objectMapper.readTree(feed).get("items").forEach(item -> positions.add(item.get("position").asLong()));
+        assertEquals(List.of(1L, 2L, 3L), positions);
+        assertTrue(shard1.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class) > 0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.hostfully.bookingapi;
+
+import com.hostfully.bookingapi.service.OccupancyIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the running application with 1,000 concurrent HTTP clients, once with Tomcat's platform
+ * worker pool and once with virtual threads, and reports throughput and latency for each. The
+ * virtual-thread run is skipped on JDKs older than 21. Run with {@code mvn test -Pbenchmark};
+ * client count can be overridden with {@code -Dbenchmark.clients=2000}. Errors are requests that
+ * timed out waiting for a pooled connection and are reported rather than failing the run.
+ */
+@Tag("benchmark")
+class ThreadModelLoadBenchmark {
+
+    private static final int PROPERTIES = 100;
+    private static final int BOOKINGS_PER_PROPERTY = 50;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final LocalDate EPOCH = LocalDate.now().plusDays(1);
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 1_000);
+
+        System.out.printf("%10s %10s %12s %12s %12s %10s%n",
+                "mode", "clients", "req/s", "mean ms", "p99 ms", "errors");
+        run("platform", false, clients);
+        if (Runtime.version().feature() >= 21) {
+            run("virtual", true, clients);
+        } else {
+            System.out.printf("%10s skipped: requires Java 21+%n", "virtual");
+        }
+    }
+
+    private void run(String mode, boolean virtual, int clients) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                        "spring.h2.console.enabled=false")
+                .run()) {
+            seed(context.getBean(JdbcTemplate.class));
+            context.getBean(OccupancyIndex.class).rebuild();
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            measure(mode, port, clients);
+        }
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> rows = new ArrayList<>(PROPERTIES * BOOKINGS_PER_PROPERTY);
+        for (int p = 0; p < PROPERTIES; p++) {
+            for (int b = 0; b < BOOKINGS_PER_PROPERTY; b++) {
+                LocalDate start = EPOCH.plusDays(b * 4L);
+                rows.add(new Object[]{"prop-" + p, "Guest " + b, "guest@example.com",
+                        Date.valueOf(start), Date.valueOf(start.plusDays(3))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (property_id, guest_name, guest_email, start_date, end_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, 'ACTIVE')", rows);
+    }
+
+    private void measure(String mode, int port, int clients) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        String propertyId = "prop-" + ((client + r) % PROPERTIES);
+                        URI uri = URI.create(r % 2 == 0
+                                ? "http://localhost:" + port + "/api/bookings?limit=20&propertyId=" + propertyId
+                                : "http://localhost:" + port + "/api/properties/" + propertyId
+                                        + "/availability?from=" + EPOCH + "&to=" + EPOCH.plusDays(90));
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[client * REQUESTS_PER_CLIENT + r] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            Arrays.sort(latencies);
+            double mean = Arrays.stream(latencies).average().orElse(0) / 1_000_000.0;
+            double p99 = latencies[(int) (latencies.length * 0.99)] / 1_000_000.0;
+            double throughput = latencies.length / (elapsed / 1_000_000_000.0);
+            System.out.printf("%10s %10d %12.0f %12.2f %12.2f %10d%n", mode, clients, throughput, mean, p99, errors.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}